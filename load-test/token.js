@@ -0,0 +1,39 @@
+// Token endpoint load test. Run it once against an instance started with VIRTUAL_THREADS_ENABLED=false and once with
+// VIRTUAL_THREADS_ENABLED=true, with the same database and hooks, and compare http_req_duration and http_reqs:
+//
+//   k6 run -e BASE_URL=http://localhost:8080 -e CLIENT_ID=<client id> -e CLIENT_SECRET=<client secret> load-test/token.js
+import http from 'k6/http';
+import { check } from 'k6';
+
+export const options = {
+    scenarios: {
+        token: {
+            executor: 'ramping-arrival-rate',
+            startRate: 50,
+            timeUnit: '1s',
+            preAllocatedVUs: 200,
+            maxVUs: 2000,
+            stages: [
+                { target: 500, duration: '1m' },
+                { target: 2000, duration: '2m' },
+                { target: 2000, duration: '2m' },
+            ],
+        },
+    },
+    thresholds: {
+        http_req_failed: ['rate<0.01'],
+    },
+};
+
+const payload = JSON.stringify({
+    grant_type: 'client_credentials',
+    client_id: __ENV.CLIENT_ID,
+    client_secret: __ENV.CLIENT_SECRET,
+});
+
+export default function () {
+    const response = http.post(`${__ENV.BASE_URL}/oauth/token`, payload, {
+        headers: { 'Content-Type': 'application/json' },
+    });
+    check(response, { 'status is 200': (r) => r.status === 200 });
+}
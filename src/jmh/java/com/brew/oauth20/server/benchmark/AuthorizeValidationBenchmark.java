@@ -0,0 +1,72 @@
+package com.brew.oauth20.server.benchmark;
+
+import com.brew.oauth20.server.data.enums.GrantType;
+import com.brew.oauth20.server.data.enums.ResponseType;
+import com.brew.oauth20.server.model.ClientModel;
+import com.brew.oauth20.server.model.GrantModel;
+import com.brew.oauth20.server.model.RedirectUriModel;
+import com.brew.oauth20.server.model.ScopeModel;
+import com.brew.oauth20.server.model.ScopeSet;
+import com.brew.oauth20.server.utils.validators.ClientValidator;
+import com.brew.oauth20.server.utils.validators.ScopeValidator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client and scope validation run for every /oauth/authorize and /oauth/token request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthorizeValidationBenchmark {
+    private static final String REDIRECT_URI = "https://app.example.com/callback";
+    private static final String SCOPE = "openid profile email";
+    private final String[] authorizedScopes = {"openid", "profile", "email"};
+    private final ScopeSet grantedScopes = ScopeSet.parse(SCOPE);
+    private ClientModel client;
+
+    @Setup
+    public void setUp() {
+        client = ClientModel.builder()
+                .id(UUID.randomUUID())
+                .clientId("benchmark")
+                .grantList(List.of(
+                        new GrantModel(1, ResponseType.code, GrantType.authorization_code),
+                        new GrantModel(2, ResponseType.token, GrantType.client_credentials)))
+                .redirectUriList(List.of(
+                        new RedirectUriModel(UUID.randomUUID(), "https://app.example.com/other"),
+                        new RedirectUriModel(UUID.randomUUID(), REDIRECT_URI)))
+                .scopeList(List.of(
+                        new ScopeModel(UUID.randomUUID(), com.brew.oauth20.server.data.enums.Scope.openid),
+                        new ScopeModel(UUID.randomUUID(), com.brew.oauth20.server.data.enums.Scope.profile),
+                        new ScopeModel(UUID.randomUUID(), com.brew.oauth20.server.data.enums.Scope.email)))
+                .build();
+    }
+
+    @Benchmark
+    public boolean validateScope() {
+        return new ScopeValidator(SCOPE).validateScope(authorizedScopes);
+    }
+
+    @Benchmark
+    public boolean consentGranted() {
+        var requestedScopes = ScopeSet.parse(SCOPE);
+        return requestedScopes != null && grantedScopes.containsAll(requestedScopes);
+    }
+
+    @Benchmark
+    public Boolean validateAuthorizeRequest() {
+        return new ClientValidator(client).validate(ResponseType.code.getResponseType(), REDIRECT_URI, SCOPE);
+    }
+
+    @Benchmark
+    public Boolean validateGrantType() {
+        return new ClientValidator(client).validate(GrantType.client_credentials.getGrantType());
+    }
+}
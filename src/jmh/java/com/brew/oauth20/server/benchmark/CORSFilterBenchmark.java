@@ -0,0 +1,56 @@
+package com.brew.oauth20.server.benchmark;
+
+import com.brew.oauth20.server.filter.CORSFilter;
+import com.brew.oauth20.server.model.WebOriginMatcher;
+import com.brew.oauth20.server.service.ClientService;
+import jakarta.servlet.FilterChain;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Body buffering and client_id extraction of {@link CORSFilter} for a JSON POST to /oauth/token. The filter chain
+ * reads the body once more, as the controllers do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CORSFilterBenchmark {
+    private static final String ORIGIN = "https://app.example.com";
+    private CORSFilter corsFilter;
+    private byte[] body;
+
+    @Setup
+    public void setUp() {
+        var clientService = Mockito.mock(ClientService.class);
+        Mockito.when(clientService.getWebOriginMatcher("benchmark"))
+                .thenReturn(new WebOriginMatcher(List.of(ORIGIN + "/")));
+        corsFilter = new CORSFilter(clientService);
+        body = ("{\"grant_type\":\"authorization_code\",\"client_id\":\"benchmark\",\"client_secret\":\"" + "s".repeat(64)
+                + "\",\"code\":\"" + "c".repeat(32) + "\",\"redirect_uri\":\"" + ORIGIN + "/callback\"}")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public void doFilter(Blackhole blackhole) throws Exception {
+        var request = new MockHttpServletRequest("POST", "/oauth/token");
+        request.addHeader("Origin", ORIGIN);
+        request.setContentType("application/json");
+        request.setContent(body);
+        var response = new MockHttpServletResponse();
+        FilterChain filterChain = (filteredRequest, filteredResponse) ->
+                blackhole.consume(StreamUtils.copyToByteArray(filteredRequest.getInputStream()));
+        corsFilter.doFilter(request, response, filterChain);
+        blackhole.consume(response.getHeader("Access-Control-Allow-Origin"));
+    }
+}
@@ -0,0 +1,34 @@
+package com.brew.oauth20.server.benchmark;
+
+import com.brew.oauth20.server.data.Client;
+import com.brew.oauth20.server.fixture.ClientFixture;
+import com.brew.oauth20.server.mapper.ClientMapper;
+import com.brew.oauth20.server.model.ClientModel;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning a loaded client entity into the {@link ClientModel} snapshot that is cached and validated.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClientMappingBenchmark {
+    private final ClientMapper clientMapper = Mappers.getMapper(ClientMapper.class);
+    private Client client;
+
+    @Setup
+    public void setUp() {
+        client = new ClientFixture().createRandomOne(true);
+    }
+
+    @Benchmark
+    public ClientModel toDTO() {
+        return clientMapper.toDTO(client);
+    }
+}
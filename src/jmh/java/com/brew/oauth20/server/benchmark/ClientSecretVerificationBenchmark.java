@@ -0,0 +1,34 @@
+package com.brew.oauth20.server.benchmark;
+
+import com.brew.oauth20.server.utils.EncryptionUtils;
+import com.brew.oauth20.server.utils.StringUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClientSecretVerificationBenchmark {
+    private String clientSecret;
+    private String wrongClientSecret;
+
+    @Setup
+    public void setUp() {
+        clientSecret = StringUtils.generateSecureRandomString(64);
+        wrongClientSecret = StringUtils.generateSecureRandomString(64);
+    }
+
+    @Benchmark
+    public boolean verifyMatchingSecret() {
+        return EncryptionUtils.verifySecret(clientSecret, clientSecret);
+    }
+
+    @Benchmark
+    public boolean verifyWrongSecret() {
+        return EncryptionUtils.verifySecret(wrongClientSecret, clientSecret);
+    }
+}
@@ -0,0 +1,45 @@
+package com.brew.oauth20.server.benchmark;
+
+import com.brew.oauth20.server.component.impl.TokenGeneratorImpl;
+import com.brew.oauth20.server.utils.StringUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Authorization codes and refresh tokens are generated with {@link TokenGeneratorImpl}, other random strings with
+ * {@link StringUtils#generateSecureRandomString}. Reported as generations per second; run with {@code -prof gc} for
+ * the allocation per token.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SecureRandomStringBenchmark {
+    @Param({"32", "64"})
+    private int length;
+    private TokenGeneratorImpl tokenGenerator;
+
+    @Setup
+    public void setUp() {
+        tokenGenerator = new TokenGeneratorImpl(192, 384, Runtime.getRuntime().availableProcessors());
+    }
+
+    @Benchmark
+    public String generateSecureRandomString() {
+        return StringUtils.generateSecureRandomString(length);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return tokenGenerator.generate(length);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String generateTokenConcurrently() {
+        return tokenGenerator.generate(length);
+    }
+}
@@ -0,0 +1,85 @@
+package com.brew.oauth20.server.benchmark;
+
+import com.brew.oauth20.server.model.ClientModel;
+import com.brew.oauth20.server.model.SignTokenOptions;
+import com.brew.oauth20.server.service.JwtService;
+import com.brew.oauth20.server.service.TokenService;
+import com.brew.oauth20.server.service.impl.JwtServiceImpl;
+import com.brew.oauth20.server.service.impl.KeyRingServiceImpl;
+import com.brew.oauth20.server.service.impl.TokenServiceImpl;
+import com.brew.oauth20.server.utils.StringUtils;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token minting throughput per thread. {@code jjwtBuilder} reproduces the previous signing path (decode the secret,
+ * build a key and let jjwt serialize and sign) and serves as the baseline for {@code tokenService}. {@code jwtService}
+ * isolates claim serialization and signing from the client lookup work done by the token service.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenMintingBenchmark {
+    private final Map<String, Object> additionalClaims = Map.of("user_id", "did:tmrwid:1", "roles", List.of("admin", "user"));
+    private ClientModel client;
+    private TokenService tokenService;
+    private JwtService jwtService;
+    private SignTokenOptions signTokenOptions;
+
+    @Setup
+    public void setUp() {
+        var clientSecret = Base64.getUrlEncoder().encodeToString(StringUtils.generateSecureRandomString(64).getBytes(StandardCharsets.UTF_8));
+        client = ClientModel.builder()
+                .id(UUID.randomUUID())
+                .clientId(StringUtils.generateSecureRandomString(16))
+                .clientSecret(clientSecret)
+                .audience("https://api.example.com")
+                .issuerUri("https://auth.example.com")
+                .tokenExpiresInMinutes(60)
+                .build();
+        jwtService = new JwtServiceImpl();
+        tokenService = new TokenServiceImpl(jwtService, new KeyRingServiceImpl("HS256", 1440, 1440, "", "", "", false));
+        signTokenOptions = new SignTokenOptions("did:tmrwid:1", client.clientId(), "openid", client.audience(),
+                client.issuerUri(), client.tokenExpiresInMinutes() * 60, client.clientSecretDecoded(), additionalClaims);
+    }
+
+    @Benchmark
+    public String jwtService() {
+        return jwtService.signToken(signTokenOptions);
+    }
+
+    @Benchmark
+    public String tokenService() {
+        return tokenService.generateToken(client, "did:tmrwid:1", "openid", additionalClaims);
+    }
+
+    @Benchmark
+    public String jjwtBuilder() {
+        Claims claims = Jwts.claims()
+                .setAudience(client.audience())
+                .setIssuer(client.issuerUri())
+                .setIssuedAt(Date.from(Instant.now()))
+                .setExpiration(Date.from(Instant.now().plusSeconds(client.tokenExpiresInSeconds())))
+                .setSubject("did:tmrwid:1");
+        claims.put("azp", client.clientId());
+        claims.put("scope", "openid");
+        claims.putAll(additionalClaims);
+        var key = new SecretKeySpec(client.clientSecretDecoded().getBytes(), SignatureAlgorithm.HS256.getJcaName());
+        return Jwts.builder().setClaims(claims).signWith(key).compact();
+    }
+}
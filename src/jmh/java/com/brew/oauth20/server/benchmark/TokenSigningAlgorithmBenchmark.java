@@ -0,0 +1,45 @@
+package com.brew.oauth20.server.benchmark;
+
+import com.brew.oauth20.server.model.SignTokenOptions;
+import com.brew.oauth20.server.model.SigningKeyModel;
+import com.brew.oauth20.server.service.JwtService;
+import com.brew.oauth20.server.service.impl.JwtServiceImpl;
+import com.brew.oauth20.server.service.impl.KeyRingServiceImpl;
+import com.brew.oauth20.server.utils.StringUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token signing throughput per thread for each supported {@code jwt.signing_algorithm}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenSigningAlgorithmBenchmark {
+    @Param({"HS256", "RS256", "ES256", "EdDSA"})
+    private String algorithm;
+
+    private JwtService jwtService;
+    private SignTokenOptions signTokenOptions;
+    private SigningKeyModel signingKey;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtServiceImpl();
+        signTokenOptions = new SignTokenOptions("did:tmrwid:1", "client", "openid", "https://api.example.com",
+                "https://auth.example.com", 3600, StringUtils.generateSecureRandomString(64), Map.of("user_id", "did:tmrwid:1"));
+        signingKey = new KeyRingServiceImpl(algorithm, 1440, 1440, "", "", "", true).getActiveSigningKey().orElse(null);
+    }
+
+    @Benchmark
+    public String signToken() {
+        if (signingKey == null)
+            return jwtService.signToken(signTokenOptions);
+        return jwtService.signToken(signTokenOptions, signingKey);
+    }
+}
@@ -0,0 +1,55 @@
+package com.brew.oauth20.server.benchmark;
+
+import com.brew.oauth20.server.model.UserCookieModel;
+import com.brew.oauth20.server.utils.CookieCipher;
+import com.brew.oauth20.server.utils.EncryptionUtils;
+import com.brew.oauth20.server.utils.StringUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The user cookie is decrypted and parsed on every /oauth/authorize request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserCookieBenchmark {
+    private String cookieEncryptionSecret;
+    private String cookieValue;
+    private String encryptedCookieValue;
+    private CookieCipher cookieCipher;
+
+    @Setup
+    public void setUp() throws Exception {
+        cookieEncryptionSecret = StringUtils.generateSecureRandomString(32);
+        cookieValue = UserCookieModel.toString(new UserCookieModel("did:tmrwid:1", OffsetDateTime.now().plusDays(1), "user@example.com"));
+        encryptedCookieValue = EncryptionUtils.encrypt(cookieValue, cookieEncryptionSecret);
+        cookieCipher = new CookieCipher(cookieEncryptionSecret, Map.of());
+    }
+
+    @Benchmark
+    public String decrypt() throws Exception {
+        return EncryptionUtils.decrypt(encryptedCookieValue, cookieEncryptionSecret);
+    }
+
+    @Benchmark
+    public String decryptWithCookieCipher() throws Exception {
+        return cookieCipher.decrypt(encryptedCookieValue);
+    }
+
+    @Benchmark
+    public UserCookieModel parse() {
+        return UserCookieModel.parse(cookieValue);
+    }
+
+    @Benchmark
+    public UserCookieModel decryptAndParse() throws Exception {
+        return UserCookieModel.parse(cookieCipher.decrypt(encryptedCookieValue));
+    }
+}
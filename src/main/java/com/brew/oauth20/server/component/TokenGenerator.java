@@ -0,0 +1,18 @@
+package com.brew.oauth20.server.component;
+
+public interface TokenGenerator {
+    /**
+     * @return a new authorization code carrying the configured number of random bits
+     */
+    String generateAuthorizationCode();
+
+    /**
+     * @return a new refresh token secret carrying the configured number of random bits
+     */
+    String generateRefreshTokenSecret();
+
+    /**
+     * @param length number of characters, each carrying 6 random bits
+     */
+    String generate(int length);
+}
@@ -0,0 +1,86 @@
+package com.brew.oauth20.server.component.impl;
+
+import com.brew.oauth20.server.component.TokenGenerator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.DrbgParameters;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Generates authorization codes and refresh token secrets from a pool of seeded DRBG instances. A generator is picked
+ * at random per call rather than per thread, so the pool stays the same size when requests run on virtual threads.
+ * <p>
+ * Every 3 random bytes are encoded as 4 characters of a 64 character alphabet, 6 bits per character without modulo
+ * bias, straight into the byte buffer the string is built from.
+ */
+@Component
+public class TokenGeneratorImpl implements TokenGenerator {
+    private static final byte[] ALPHABET = "0123456789abcdefghijklmnopqrstuvwxyz-_ABCDEFGHIJKLMNOPQRSTUVWXYZ"
+            .getBytes(StandardCharsets.US_ASCII);
+    private static final int BITS_PER_CHARACTER = 6;
+    private static final int MINIMUM_ENTROPY_BITS = 128;
+
+    private final SecureRandom[] secureRandoms;
+    private final int authorizationCodeLength;
+    private final int refreshTokenLength;
+
+    @Autowired
+    public TokenGeneratorImpl(@Value("${oauth.authorization_code.entropy_bits:192}") int authorizationCodeEntropyBits,
+                              @Value("${oauth.refresh_token.entropy_bits:384}") int refreshTokenEntropyBits) {
+        this(authorizationCodeEntropyBits, refreshTokenEntropyBits, Runtime.getRuntime().availableProcessors());
+    }
+
+    public TokenGeneratorImpl(int authorizationCodeEntropyBits, int refreshTokenEntropyBits, int poolSize) {
+        this.authorizationCodeLength = toLength(authorizationCodeEntropyBits);
+        this.refreshTokenLength = toLength(refreshTokenEntropyBits);
+        this.secureRandoms = new SecureRandom[Math.max(poolSize, 1)];
+        for (var i = 0; i < secureRandoms.length; i++)
+            secureRandoms[i] = createSecureRandom();
+    }
+
+    private static int toLength(int entropyBits) {
+        if (entropyBits < MINIMUM_ENTROPY_BITS)
+            throw new IllegalArgumentException("Tokens must carry at least " + MINIMUM_ENTROPY_BITS + " random bits");
+        return (entropyBits + BITS_PER_CHARACTER - 1) / BITS_PER_CHARACTER;
+    }
+
+    private static SecureRandom createSecureRandom() {
+        try {
+            return SecureRandom.getInstance("DRBG",
+                    DrbgParameters.instantiation(256, DrbgParameters.Capability.RESEED_ONLY, null));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public String generateAuthorizationCode() {
+        return generate(authorizationCodeLength);
+    }
+
+    @Override
+    public String generateRefreshTokenSecret() {
+        return generate(refreshTokenLength);
+    }
+
+    @Override
+    public String generate(int length) {
+        var groups = (length + 3) / 4;
+        var buffer = new byte[groups * 4];
+        var randomBytes = new byte[groups * 3];
+        secureRandoms[ThreadLocalRandom.current().nextInt(secureRandoms.length)].nextBytes(randomBytes);
+        for (int group = 0, in = 0, out = 0; group < groups; group++, in += 3, out += 4) {
+            var bits = (randomBytes[in] & 0xFF) << 16 | (randomBytes[in + 1] & 0xFF) << 8 | (randomBytes[in + 2] & 0xFF);
+            buffer[out] = ALPHABET[bits >>> 18];
+            buffer[out + 1] = ALPHABET[bits >>> 12 & 0x3F];
+            buffer[out + 2] = ALPHABET[bits >>> 6 & 0x3F];
+            buffer[out + 3] = ALPHABET[bits & 0x3F];
+        }
+        return new String(buffer, 0, length, StandardCharsets.ISO_8859_1);
+    }
+}
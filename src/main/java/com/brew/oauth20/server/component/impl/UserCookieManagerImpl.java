@@ -1,15 +1,20 @@
 package com.brew.oauth20.server.component.impl;
 
 import com.brew.oauth20.server.component.UserCookieManager;
+import com.brew.oauth20.server.config.CacheConfig;
 import com.brew.oauth20.server.model.UserCookieModel;
+import com.brew.oauth20.server.model.UserSessionCacheEntry;
 import com.brew.oauth20.server.service.CookieService;
+import com.brew.oauth20.server.utils.CookieCipher;
 import com.brew.oauth20.server.utils.EncryptionUtils;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Component;
 
-import java.time.OffsetDateTime;
+import java.security.GeneralSecurityException;
+import java.time.Instant;
 import java.util.Optional;
 
 @Component
@@ -17,29 +22,47 @@ public class UserCookieManagerImpl implements UserCookieManager {
     private static final String USER_COOKIE_KEY = "user";
 
     private final CookieService cookieService;
-    @Value("${cookie.encryption.secret}")
-    String cookieEncryptionSecret;
+    private final CookieCipher cookieCipher;
+    private final Cache userSessionCache;
 
     @Autowired
-    public UserCookieManagerImpl(CookieService cookieService) {
+    public UserCookieManagerImpl(CookieService cookieService, CookieCipher cookieCipher, CacheManager cacheManager) {
         this.cookieService = cookieService;
+        this.cookieCipher = cookieCipher;
+        this.userSessionCache = cacheManager.getCache(CacheConfig.USER_SESSIONS_CACHE);
     }
 
+    /**
+     * Cookies that were decrypted and verified recently are looked up by the digest of their ciphertext, so repeated
+     * authorizations of a browser skip decryption and parsing. Only cookies that decrypt are cached: a forged cookie
+     * cannot produce the digest of a verified one.
+     */
     public Optional<String> getUser(HttpServletRequest request) {
         try {
             var cookieValue = cookieService.getCookie(request, USER_COOKIE_KEY);
             if (cookieValue == null || cookieValue.isBlank())
                 return Optional.empty();
-            var decryptedCookieValue = EncryptionUtils.decrypt(cookieValue, cookieEncryptionSecret);
-            var userCookieModel = UserCookieModel.parse(decryptedCookieValue);
-            if (userCookieModel != null) {
-                if (userCookieModel.expires_at().isBefore(OffsetDateTime.now()))
+            var cookieDigest = EncryptionUtils.digestHex(cookieValue);
+            var userSession = userSessionCache.get(cookieDigest, UserSessionCacheEntry.class);
+            if (userSession == null) {
+                userSession = verify(cookieValue);
+                if (userSession == null)
                     return Optional.empty();
-                return Optional.of(userCookieModel.user_id());
+                userSessionCache.put(cookieDigest, userSession);
             }
-            return Optional.empty();
+            if (userSession.expiresAt().isBefore(Instant.now()))
+                return Optional.empty();
+            return Optional.of(userSession.userId());
         } catch (Exception e) {
             return Optional.empty();
         }
     }
+
+    private UserSessionCacheEntry verify(String cookieValue) throws GeneralSecurityException {
+        var decryptedCookieValue = cookieCipher.decrypt(cookieValue);
+        var userCookieModel = UserCookieModel.parse(decryptedCookieValue);
+        if (userCookieModel == null || userCookieModel.expires_at().toInstant().isBefore(Instant.now()))
+            return null;
+        return new UserSessionCacheEntry(userCookieModel.user_id(), userCookieModel.expires_at().toInstant());
+    }
 }
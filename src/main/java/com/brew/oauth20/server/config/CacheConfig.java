@@ -0,0 +1,141 @@
+package com.brew.oauth20.server.config;
+
+import com.brew.oauth20.server.model.CustomClaimsCacheEntry;
+import com.brew.oauth20.server.model.UserSessionCacheEntry;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    public static final String CLIENTS_CACHE = "clients";
+    public static final String WEB_ORIGINS_CACHE = "web_origins";
+    public static final String CLIENT_USERS_CACHE = "client_users";
+    public static final String CUSTOM_CLAIMS_CACHE = "custom_claims";
+    public static final String LAST_KNOWN_GOOD_CUSTOM_CLAIMS_CACHE = "last_known_good_custom_claims";
+    public static final String USER_SESSIONS_CACHE = "user_sessions";
+
+    @Value("${cache.clients.maximum_size:10000}")
+    private long clientsMaximumSize;
+
+    @Value("${cache.clients.expire_after_write_seconds:300}")
+    private long clientsExpireAfterWriteSeconds;
+
+    @Value("${cache.web_origins.maximum_size:10000}")
+    private long webOriginsMaximumSize;
+
+    @Value("${cache.web_origins.expire_after_write_seconds:300}")
+    private long webOriginsExpireAfterWriteSeconds;
+
+    @Value("${cache.client_users.maximum_size:100000}")
+    private long clientUsersMaximumSize;
+
+    @Value("${cache.client_users.expire_after_write_seconds:10}")
+    private long clientUsersExpireAfterWriteSeconds;
+
+    @Value("${cache.custom_claims.maximum_size:10000}")
+    private long customClaimsMaximumSize;
+
+    @Value("${cache.last_known_good_custom_claims.expire_after_write_seconds:86400}")
+    private long lastKnownGoodCustomClaimsExpireAfterWriteSeconds;
+
+    @Value("${cache.user_sessions.maximum_size:100000}")
+    private long userSessionsMaximumSize;
+
+    @Value("${cache.user_sessions.expire_after_write_seconds:30}")
+    private long userSessionsExpireAfterWriteSeconds;
+
+    /**
+     * Every cache is registered up front so the actuator binds its hit/miss/eviction metrics at startup
+     * and an unknown cache name fails fast instead of silently creating an unbounded cache.
+     */
+    @Bean
+    public CacheManager cacheManager() {
+        var cacheManager = new CaffeineCacheManager();
+        cacheManager.setCacheNames(List.of());
+        cacheManager.registerCustomCache(CLIENTS_CACHE, Caffeine.newBuilder()
+                .maximumSize(clientsMaximumSize)
+                .expireAfterWrite(Duration.ofSeconds(clientsExpireAfterWriteSeconds))
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(WEB_ORIGINS_CACHE, Caffeine.newBuilder()
+                .maximumSize(webOriginsMaximumSize)
+                .expireAfterWrite(Duration.ofSeconds(webOriginsExpireAfterWriteSeconds))
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(CLIENT_USERS_CACHE, Caffeine.newBuilder()
+                .maximumSize(clientUsersMaximumSize)
+                .expireAfterWrite(Duration.ofSeconds(clientUsersExpireAfterWriteSeconds))
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(CUSTOM_CLAIMS_CACHE, Caffeine.newBuilder()
+                .maximumSize(customClaimsMaximumSize)
+                .expireAfter(new CustomClaimsExpiry())
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(LAST_KNOWN_GOOD_CUSTOM_CLAIMS_CACHE, Caffeine.newBuilder()
+                .maximumSize(customClaimsMaximumSize)
+                .expireAfterWrite(Duration.ofSeconds(lastKnownGoodCustomClaimsExpireAfterWriteSeconds))
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(USER_SESSIONS_CACHE, Caffeine.newBuilder()
+                .maximumSize(userSessionsMaximumSize)
+                .expireAfter(new UserSessionExpiry(Duration.ofSeconds(userSessionsExpireAfterWriteSeconds)))
+                .recordStats()
+                .build());
+        return cacheManager;
+    }
+
+    /**
+     * Keeps each custom claims entry for as long as its hook allowed, including the stale-while-revalidate window.
+     */
+    private static final class CustomClaimsExpiry implements Expiry<Object, Object> {
+        @Override
+        public long expireAfterCreate(Object key, Object value, long currentTime) {
+            var staleUntil = ((CustomClaimsCacheEntry) value).staleUntil();
+            return Math.max(Duration.between(Instant.now(), staleUntil).toNanos(), 0);
+        }
+
+        @Override
+        public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    /**
+     * Keeps a user session for the configured time, or until its cookie expires if that comes first.
+     */
+    private record UserSessionExpiry(Duration expireAfterWrite) implements Expiry<Object, Object> {
+        @Override
+        public long expireAfterCreate(Object key, Object value, long currentTime) {
+            var expiresAt = ((UserSessionCacheEntry) value).expiresAt();
+            var untilCookieExpires = Math.max(Duration.between(Instant.now(), expiresAt).toNanos(), 0);
+            return Math.min(expireAfterWrite.toNanos(), untilCookieExpires);
+        }
+
+        @Override
+        public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
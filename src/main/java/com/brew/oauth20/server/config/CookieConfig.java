@@ -0,0 +1,20 @@
+package com.brew.oauth20.server.config;
+
+import com.brew.oauth20.server.utils.CookieCipher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class CookieConfig {
+    @Value("${cookie.encryption.secret}")
+    private String cookieEncryptionSecret;
+
+    @Value("${cookie.encryption.keys:}")
+    private String cookieEncryptionKeys;
+
+    @Bean
+    public CookieCipher cookieCipher() {
+        return new CookieCipher(cookieEncryptionSecret, CookieCipher.parseSecrets(cookieEncryptionKeys));
+    }
+}
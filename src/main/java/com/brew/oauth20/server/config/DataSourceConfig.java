@@ -0,0 +1,158 @@
+package com.brew.oauth20.server.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * On virtual threads the number of requests in flight is no longer capped by the Tomcat pool, so every one of them
+ * could end up waiting in the Hikari pool until its connection timeout. The data source is wrapped so that connections
+ * are handed out through a fair semaphore: requests queue in arrival order and fail after a short, configurable wait
+ * instead. Unless {@code oauth.db.max_concurrent_connections} is set, the semaphore has as many permits as the Hikari
+ * pool has connections.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class DataSourceConfig {
+    private static final Logger logger = LoggerFactory.getLogger(DataSourceConfig.class);
+    private static final int DEFAULT_MAX_CONCURRENT_CONNECTIONS = 10;
+
+    @Bean
+    public static BeanPostProcessor concurrencyLimitedDataSourcePostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ConcurrencyLimitedDataSource)
+                    return bean;
+                var acquireTimeoutMs = environment.getProperty("oauth.db.acquire_timeout_ms", Long.class, 5000L);
+                return new ConcurrencyLimitedDataSource(dataSource, maxConcurrentConnections(environment, dataSource), acquireTimeoutMs);
+            }
+        };
+    }
+
+    static int maxConcurrentConnections(Environment environment, DataSource dataSource) {
+        var poolSize = dataSource instanceof HikariDataSource hikariDataSource
+                ? Integer.valueOf(hikariDataSource.getMaximumPoolSize())
+                : null;
+        var maxConcurrentConnections = environment.getProperty("oauth.db.max_concurrent_connections", Integer.class);
+        if (maxConcurrentConnections == null)
+            return poolSize != null ? poolSize : DEFAULT_MAX_CONCURRENT_CONNECTIONS;
+        if (poolSize != null && maxConcurrentConnections > poolSize)
+            logger.warn("oauth.db.max_concurrent_connections is {} but the connection pool holds {} connections, requests will wait in the pool",
+                    maxConcurrentConnections, poolSize);
+        return maxConcurrentConnections;
+    }
+
+    /**
+     * Publishes {@code oauth.db.connections.waiting} and {@code oauth.db.connections.available} for the semaphore.
+     */
+    @Bean
+    public MeterBinder dataSourceConcurrencyMetrics(DataSource dataSource) {
+        return meterRegistry -> {
+            if (dataSource instanceof ConcurrencyLimitedDataSource limitedDataSource) {
+                Gauge.builder("oauth.db.connections.waiting", limitedDataSource.permits, Semaphore::getQueueLength)
+                        .register(meterRegistry);
+                Gauge.builder("oauth.db.connections.available", limitedDataSource.permits, Semaphore::availablePermits)
+                        .register(meterRegistry);
+            }
+        };
+    }
+
+    static final class ConcurrencyLimitedDataSource extends DelegatingDataSource {
+        private final Semaphore permits;
+        private final long acquireTimeoutMs;
+
+        ConcurrencyLimitedDataSource(DataSource targetDataSource, int maxConcurrentConnections, long acquireTimeoutMs) {
+            super(targetDataSource);
+            this.permits = new Semaphore(maxConcurrentConnections, true);
+            this.acquireTimeoutMs = acquireTimeoutMs;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            acquire();
+            try {
+                return releaseOnClose(super.getConnection());
+            } catch (SQLException | RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            acquire();
+            try {
+                return releaseOnClose(super.getConnection(username, password));
+            } catch (SQLException | RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        }
+
+        private void acquire() throws SQLException {
+            try {
+                if (!permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS))
+                    throw new SQLTransientConnectionException("No database connection available within " + acquireTimeoutMs + "ms");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLTransientConnectionException("Interrupted while waiting for a database connection", e);
+            }
+        }
+
+        private Connection releaseOnClose(Connection connection) {
+            var released = new AtomicBoolean();
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        // the proxy stands in for the connection, so callers never get hold of one whose close skips the permit
+                        switch (method.getName()) {
+                            case "unwrap" -> {
+                                if (((Class<?>) args[0]).isInstance(proxy))
+                                    return proxy;
+                            }
+                            case "isWrapperFor" -> {
+                                if (((Class<?>) args[0]).isInstance(proxy))
+                                    return true;
+                            }
+                            case "equals" -> {
+                                return proxy == args[0];
+                            }
+                            case "hashCode" -> {
+                                return System.identityHashCode(proxy);
+                            }
+                            default -> {
+                                // every other call goes to the connection
+                            }
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        } finally {
+                            // the permit is returned once the connection is back in the pool
+                            if (method.getName().equals("close") && released.compareAndSet(false, true))
+                                permits.release();
+                        }
+                    });
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.brew.oauth20.server.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Semaphore;
+
+@Configuration
+public class ExecutorConfig {
+    public static final String TOKEN_ISSUANCE_EXECUTOR = "tokenIssuanceExecutor";
+    public static final String CUSTOM_CLAIM_REVALIDATION_EXECUTOR = "customClaimRevalidationExecutor";
+
+    @Value("${oauth.token_issuance.executor.core_pool_size:16}")
+    private int tokenIssuanceCorePoolSize;
+
+    @Value("${oauth.token_issuance.executor.max_pool_size:64}")
+    private int tokenIssuanceMaxPoolSize;
+
+    @Value("${oauth.token_issuance.executor.queue_capacity:1000}")
+    private int tokenIssuanceQueueCapacity;
+
+    @Value("${oauth.custom_claim.revalidation.executor.pool_size:4}")
+    private int customClaimRevalidationPoolSize;
+
+    @Value("${oauth.custom_claim.revalidation.executor.queue_capacity:100}")
+    private int customClaimRevalidationQueueCapacity;
+
+    /**
+     * Runs the outbound calls of a token request (custom claim hook, user identity service) off the request thread.
+     * When the pool and its queue are full the call is rejected and handled like a failed call, rather than run on the
+     * request thread where the deadline of the request could not be enforced.
+     */
+    @Bean(name = TOKEN_ISSUANCE_EXECUTOR)
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public TaskExecutor tokenIssuanceExecutor() {
+        var executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(tokenIssuanceCorePoolSize);
+        executor.setMaxPoolSize(tokenIssuanceMaxPoolSize);
+        executor.setQueueCapacity(tokenIssuanceQueueCapacity);
+        executor.setThreadNamePrefix("token-issuance-");
+        return executor;
+    }
+
+    /**
+     * With spring.threads.virtual.enabled on Java 21, every outbound call runs on its own virtual thread. The number of
+     * calls in flight is still capped at max_pool_size: once it is reached, further calls are rejected instead of
+     * opening more connections to the hooks or making the request wait for a slot.
+     */
+    @Bean(name = TOKEN_ISSUANCE_EXECUTOR)
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public TaskExecutor virtualTokenIssuanceExecutor() {
+        var executor = new SimpleAsyncTaskExecutor("token-issuance-");
+        executor.setVirtualThreads(true);
+        var permits = new Semaphore(tokenIssuanceMaxPoolSize);
+        return task -> {
+            if (!permits.tryAcquire())
+                throw new TaskRejectedException("Token issuance executor has " + tokenIssuanceMaxPoolSize + " calls in flight");
+            try {
+                executor.execute(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        permits.release();
+                    }
+                });
+            } catch (RuntimeException e) {
+                permits.release();
+                throw e;
+            }
+        };
+    }
+
+    /**
+     * Refreshes stale custom claims in the background. The pool is kept apart from the token issuance executor so a
+     * refresh never runs on, or waits for, a request thread; when it is full the refresh is rejected and the stale
+     * claims are served until a later request refreshes them.
+     */
+    @Bean(name = CUSTOM_CLAIM_REVALIDATION_EXECUTOR)
+    public TaskExecutor customClaimRevalidationExecutor() {
+        var executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(customClaimRevalidationPoolSize);
+        executor.setMaxPoolSize(customClaimRevalidationPoolSize);
+        executor.setQueueCapacity(customClaimRevalidationQueueCapacity);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setThreadNamePrefix("custom-claim-revalidation-");
+        return executor;
+    }
+}
@@ -0,0 +1,109 @@
+package com.brew.oauth20.server.config;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * Outbound HTTP engine shared by every custom claim hook and the user identity service. Connections are pooled per
+ * host and kept alive between token requests, so a busy hook endpoint pays TCP and TLS setup once per connection
+ * instead of once per call.
+ */
+@Configuration
+public class HttpClientConfig {
+    private static final String POOL_METRICS_NAME = "outbound";
+
+    @Value("${http.client.max_connections_total:200}")
+    private int maxConnectionsTotal;
+
+    @Value("${http.client.max_connections_per_route:50}")
+    private int maxConnectionsPerRoute;
+
+    @Value("${http.client.connect_timeout_ms:2000}")
+    private long connectTimeoutMs;
+
+    @Value("${http.client.read_timeout_ms:5000}")
+    private long readTimeoutMs;
+
+    @Value("${http.client.connection_request_timeout_ms:1000}")
+    private long connectionRequestTimeoutMs;
+
+    @Value("${http.client.idle_connection_eviction_seconds:30}")
+    private long idleConnectionEvictionSeconds;
+
+    @Value("${http.client.http2_enabled:false}")
+    private boolean http2Enabled;
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager httpClientConnectionManager() {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnectionsTotal)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(1))
+                        .build())
+                .build();
+    }
+
+    /**
+     * Publishes the pool's leased, available and pending connection counts as {@code httpcomponents.httpclient.pool.*}.
+     */
+    @Bean
+    public MeterBinder httpClientConnectionPoolMetrics(PoolingHttpClientConnectionManager httpClientConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(httpClientConnectionManager, POOL_METRICS_NAME);
+    }
+
+    /**
+     * HTTP/1.1 over the pooled Apache client by default. With {@code http.client.http2_enabled} the JDK client is used
+     * instead, which negotiates HTTP/2 and multiplexes calls to a host over a single connection.
+     */
+    @Bean
+    public ClientHttpRequestFactory outboundClientHttpRequestFactory(PoolingHttpClientConnectionManager httpClientConnectionManager) {
+        if (http2Enabled) {
+            var httpClient = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_2)
+                    .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                    .build();
+            var requestFactory = new JdkClientHttpRequestFactory(httpClient);
+            requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+            return requestFactory;
+        }
+
+        var httpClient = HttpClients.custom()
+                .setConnectionManager(httpClientConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(connectionRequestTimeoutMs))
+                        .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(idleConnectionEvictionSeconds))
+                .build();
+        return new HttpComponentsClientHttpRequestFactory(httpClient);
+    }
+
+    @Bean
+    public RestTemplate outboundRestTemplate(RestTemplateBuilder restTemplateBuilder, ClientHttpRequestFactory outboundClientHttpRequestFactory) {
+        return restTemplateBuilder
+                .requestFactory(() -> outboundClientHttpRequestFactory)
+                .build();
+    }
+}
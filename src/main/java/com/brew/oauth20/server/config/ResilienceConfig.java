@@ -0,0 +1,107 @@
+package com.brew.oauth20.server.config;
+
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Circuit breakers and bulkheads around outbound hooks. Every custom claim hook and the user identity service get
+ * their own instances, so one broken or slow endpoint cannot take the request threads of every other client.
+ */
+@Configuration
+public class ResilienceConfig {
+    public static final String CUSTOM_CLAIM_HOOK_PREFIX = "custom_claim:";
+    public static final String USER_IDENTITY_SERVICE = "user_identity";
+    private static final Logger logger = LoggerFactory.getLogger(ResilienceConfig.class);
+
+    @Value("${resilience.hooks.failure_rate_threshold:50}")
+    private float failureRateThreshold;
+
+    @Value("${resilience.hooks.slow_call_rate_threshold:100}")
+    private float slowCallRateThreshold;
+
+    @Value("${resilience.hooks.slow_call_duration_threshold_ms:2000}")
+    private long slowCallDurationThresholdMs;
+
+    @Value("${resilience.hooks.sliding_window_size:20}")
+    private int slidingWindowSize;
+
+    @Value("${resilience.hooks.minimum_number_of_calls:10}")
+    private int minimumNumberOfCalls;
+
+    @Value("${resilience.hooks.wait_duration_in_open_state_seconds:30}")
+    private long waitDurationInOpenStateSeconds;
+
+    @Value("${resilience.hooks.max_concurrent_calls:20}")
+    private int maxConcurrentCalls;
+
+    /**
+     * A full bulkhead is load shedding, not a sign of a broken hook, so it does not count towards opening the circuit.
+     */
+    @Bean
+    public CircuitBreakerRegistry circuitBreakerRegistry() {
+        var registry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallRateThreshold(slowCallRateThreshold)
+                .slowCallDurationThreshold(Duration.ofMillis(slowCallDurationThresholdMs))
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(minimumNumberOfCalls)
+                .waitDurationInOpenState(Duration.ofSeconds(waitDurationInOpenStateSeconds))
+                .ignoreExceptions(BulkheadFullException.class)
+                .build());
+        registry.getEventPublisher().onEntryAdded(event -> event.getAddedEntry().getEventPublisher()
+                .onStateTransition(transition -> logger.warn("Circuit breaker {} changed state: {}",
+                        transition.getCircuitBreakerName(), transition.getStateTransition())));
+        return registry;
+    }
+
+    @Bean
+    public BulkheadRegistry bulkheadRegistry() {
+        return BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+    }
+
+    /**
+     * Publishes {@code resilience4j.circuitbreaker.state}, call and failure rate gauges per breaker, and counts state
+     * transitions as {@code resilience4j.circuitbreaker.transitions}.
+     */
+    @Bean
+    public MeterBinder circuitBreakerMetrics(CircuitBreakerRegistry circuitBreakerRegistry) {
+        return meterRegistry -> {
+            TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakerRegistry).bindTo(meterRegistry);
+            circuitBreakerRegistry.getAllCircuitBreakers().forEach(circuitBreaker ->
+                    countTransitions(meterRegistry, circuitBreaker));
+            circuitBreakerRegistry.getEventPublisher().onEntryAdded(event ->
+                    countTransitions(meterRegistry, event.getAddedEntry()));
+        };
+    }
+
+    @Bean
+    public MeterBinder bulkheadMetrics(BulkheadRegistry bulkheadRegistry) {
+        return TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheadRegistry);
+    }
+
+    private static void countTransitions(MeterRegistry meterRegistry, CircuitBreaker circuitBreaker) {
+        circuitBreaker.getEventPublisher().onStateTransition(transition -> meterRegistry.counter(
+                "resilience4j.circuitbreaker.transitions",
+                "name", transition.getCircuitBreakerName(),
+                "from", transition.getStateTransition().getFromState().name(),
+                "to", transition.getStateTransition().getToState().name()).increment());
+    }
+}
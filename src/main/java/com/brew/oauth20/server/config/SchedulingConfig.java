@@ -0,0 +1,14 @@
+package com.brew.oauth20.server.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Scheduling is only switched on when the retention purge is, the only scheduled job of the server.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "oauth.retention.enabled", havingValue = "true")
+public class SchedulingConfig {
+}
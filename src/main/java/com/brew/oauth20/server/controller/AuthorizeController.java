@@ -7,14 +7,15 @@ import com.brew.oauth20.server.data.enums.ResponseType;
 import com.brew.oauth20.server.exception.ClientNotFoundException;
 import com.brew.oauth20.server.exception.OAuthException;
 import com.brew.oauth20.server.exception.UnsupportedServiceTypeException;
+import com.brew.oauth20.server.filter.CachedBodyHttpServletRequest;
 import com.brew.oauth20.server.model.AuthorizeRequestModel;
+import com.brew.oauth20.server.model.ClientUserModel;
+import com.brew.oauth20.server.model.ScopeSet;
 import com.brew.oauth20.server.model.enums.OAuthError;
 import com.brew.oauth20.server.provider.authorizetype.BaseAuthorizeTypeProvider;
 import com.brew.oauth20.server.service.AuthorizationCodeService;
 import com.brew.oauth20.server.service.ClientUserService;
 import com.brew.oauth20.server.service.factory.AuthorizeTypeProviderFactory;
-import com.brew.oauth20.server.utils.validators.ScopeValidator;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
@@ -28,12 +29,13 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.util.StreamUtils;
 import org.springframework.util.StringUtils;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.WebUtils;
 
+import java.io.IOException;
 import java.net.URI;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -48,7 +50,6 @@ public class AuthorizeController extends BaseController {
     private final AuthorizeTypeProviderFactory authorizeTypeProviderFactory;
     private final ClientUserService clientUserService;
     private final Environment env;
-    private final ObjectMapper objectMapper;
 
     @Value("${oauth.login_signup_endpoint}")
     private String loginSignupEndpoint;
@@ -64,20 +65,12 @@ public class AuthorizeController extends BaseController {
                                AuthorizationCodeService authorizationCodeService,
                                AuthorizeTypeProviderFactory authorizeTypeProviderFactory,
                                ClientUserService clientUserService,
-                               Environment env,
-                               ObjectMapper objectMapper) {
+                               Environment env) {
         this.userCookieManager = userCookieManager;
         this.authorizationCodeService = authorizationCodeService;
         this.authorizeTypeProviderFactory = authorizeTypeProviderFactory;
         this.clientUserService = clientUserService;
         this.env = env;
-        this.objectMapper = objectMapper;
-    }
-
-    @NotNull
-    private static String[] getAuthorizedScopes(ClientUser clientUser) {
-        return clientUser.getClientUserScopes().stream().map(clientUserScope -> clientUserScope.getScope().getScope())
-                .toArray(String[]::new);
     }
 
     private static boolean scopeExists(AuthorizeRequestModel authorizeRequest) {
@@ -105,12 +98,17 @@ public class AuthorizeController extends BaseController {
 
     private Map<String, String> readRequestParameters(HttpServletRequest request) {
         try {
-            var inputStreamBytes = StreamUtils.copyToByteArray(request.getInputStream());
-            return objectMapper.readValue(inputStreamBytes, Map.class);
-        } catch (Exception e) {
+            // the CORS filter has already captured the body, so its fields are parsed only once per request
+            var cachedBodyRequest = WebUtils.getNativeRequest(request, CachedBodyHttpServletRequest.class);
+            var requestParameters = cachedBodyRequest != null
+                    ? cachedBodyRequest.getRequestParameters()
+                    : CachedBodyHttpServletRequest.parseRequestParameters(request.getInputStream().readAllBytes());
+            if (requestParameters == null)
+                throw new OAuthException(OAuthError.INVALID_REQUEST);
+            return requestParameters;
+        } catch (IOException e) {
             throw new OAuthException(OAuthError.INVALID_REQUEST);
         }
-
     }
 
     @GetMapping(value = "/oauth/authorize")
@@ -163,14 +161,19 @@ public class AuthorizeController extends BaseController {
             return redirectToLoginSignup(parameters);
 
         var clientUser = obtainClientUser(authorizeRequest, userIdOptional.get());
-        if (Boolean.TRUE.equals(consentRequired(authorizeRequest, clientUser)))
-            return redirectToConsent(parameters);
+        if (Boolean.TRUE.equals(consentRequired(authorizeRequest, clientUser))) {
+            // consent is granted outside this service, so the cached scopes may predate it
+            clientUserService.evictClientUser(authorizeRequest.getClient_id(), userIdOptional.get());
+            clientUser = obtainClientUser(authorizeRequest, userIdOptional.get());
+            if (Boolean.TRUE.equals(consentRequired(authorizeRequest, clientUser)))
+                return redirectToConsent(parameters);
+        }
 
         return redirectToRedirectUri(authorizeRequest, redirectUriParameters, clientUser);
 
     }
 
-    private ClientUser obtainClientUser(AuthorizeRequestModel authorizeRequest, String userId) {
+    private ClientUserModel obtainClientUser(AuthorizeRequestModel authorizeRequest, String userId) {
         try {
             return clientUserService.getOrCreate(authorizeRequest.getClient_id(), userId);
         } catch (ClientNotFoundException e) {
@@ -179,10 +182,10 @@ public class AuthorizeController extends BaseController {
     }
 
     private Boolean consentRequired(AuthorizeRequestModel authorizeRequest,
-                                    ClientUser clientUser) {
+                                    ClientUserModel clientUser) {
         if (scopeExists(authorizeRequest)) {
-            var scopeValidator = new ScopeValidator(authorizeRequest.getScope());
-            return !scopeValidator.validateScope(getAuthorizedScopes(clientUser));
+            var requestedScopes = ScopeSet.parse(authorizeRequest.getScope());
+            return requestedScopes == null || !clientUser.grantedScopes().containsAll(requestedScopes);
         }
         return false;
     }
@@ -241,13 +244,13 @@ public class AuthorizeController extends BaseController {
     @NotNull
     private ResponseEntity<String> redirectToRedirectUri(AuthorizeRequestModel authorizeRequest,
                                                          String redirectUriParameters,
-                                                         ClientUser clientUser) {
+                                                         ClientUserModel clientUser) {
 
         var expiresMs = env.getProperty(AUTHORIZATION_CODE_EXPIRES_MS_SETTING, DEFAULT_AUTHORIZATION_CODE_EXPIRES_MS);
         var code = authorizationCodeService.createAuthorizationCode(
                 authorizeRequest.getRedirect_uri(),
                 Long.parseLong(expiresMs),
-                clientUser,
+                ClientUser.builder().id(clientUser.id()).userId(clientUser.userId()).build(),
                 authorizeRequest.getScope());
 
         /* logged-in user redirect with authorization code */
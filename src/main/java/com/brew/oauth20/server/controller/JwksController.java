@@ -0,0 +1,52 @@
+package com.brew.oauth20.server.controller;
+
+import com.brew.oauth20.server.service.KeyRingService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+
+@RestController
+public class JwksController {
+    private final KeyRingService keyRingService;
+
+    @Value("${jwt.jwks.max_age_seconds:300}")
+    private long jwksMaxAgeSeconds;
+
+    @Autowired
+    public JwksController(KeyRingService keyRingService) {
+        this.keyRingService = keyRingService;
+    }
+
+    @GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> jwks(@RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        var jwks = keyRingService.getJwks();
+        var cacheControl = CacheControl.maxAge(Duration.ofSeconds(jwksMaxAgeSeconds)).cachePublic();
+        if (matchesETag(ifNoneMatch, jwks.eTag()))
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(jwks.eTag()).cacheControl(cacheControl).build();
+        return ResponseEntity.ok().eTag(jwks.eTag()).cacheControl(cacheControl).body(jwks.document());
+    }
+
+    private static boolean matchesETag(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null)
+            return false;
+        // If-None-Match is a list of entity tags compared weakly, or "*" for any representation
+        for (var candidate : ifNoneMatch.split(",")) {
+            var tag = candidate.trim();
+            if (tag.equals("*") || stripWeakPrefix(tag).equals(stripWeakPrefix(eTag)))
+                return true;
+        }
+        return false;
+    }
+
+    private static String stripWeakPrefix(String eTag) {
+        return eTag.startsWith("W/") ? eTag.substring(2) : eTag;
+    }
+}
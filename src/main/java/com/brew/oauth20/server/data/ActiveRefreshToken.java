@@ -1,52 +0,0 @@
-package com.brew.oauth20.server.data;
-
-import jakarta.persistence.*;
-import lombok.*;
-import org.hibernate.Hibernate;
-import org.hibernate.annotations.OnDelete;
-import org.hibernate.annotations.OnDeleteAction;
-
-import java.time.OffsetDateTime;
-import java.util.Objects;
-import java.util.UUID;
-
-@Getter
-@Setter
-@ToString
-@Builder
-@RequiredArgsConstructor
-@AllArgsConstructor
-@Entity
-@Table(name = "refresh_tokens__active")
-public class ActiveRefreshToken {
-    @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
-    @Column(name = "id", nullable = false)
-    private UUID id;
-    @Column(name = "created_at", nullable = false)
-    private OffsetDateTime createdAt;
-    @Column(name = "updated_at", nullable = false)
-    private OffsetDateTime updatedAt;
-    @Column(name = "expires_at", nullable = false)
-    private OffsetDateTime expiresAt;
-    @Column(name = "token", nullable = false, length = Integer.MAX_VALUE)
-    private String token;
-    @ManyToOne(fetch = FetchType.LAZY, optional = false)
-    @OnDelete(action = OnDeleteAction.CASCADE)
-    @JoinColumn(name = "client_user_id", nullable = false)
-    @ToString.Exclude
-    private ClientUser clientUser;
-
-    @Override
-    public boolean equals(Object o) {
-        if (this == o) return true;
-        if (o == null || Hibernate.getClass(this) != Hibernate.getClass(o)) return false;
-        ActiveRefreshToken that = (ActiveRefreshToken) o;
-        return getId() != null && Objects.equals(getId(), that.getId());
-    }
-
-    @Override
-    public int hashCode() {
-        return getClass().hashCode();
-    }
-}
\ No newline at end of file
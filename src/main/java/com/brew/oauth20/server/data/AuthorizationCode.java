@@ -16,7 +16,7 @@ import java.util.UUID;
 @Builder
 @RequiredArgsConstructor
 @AllArgsConstructor
-@Table(name = "authorization_codes")
+@Table(name = "authorization_codes", indexes = @Index(name = "authorization_codes_expires_at_idx", columnList = "expires_at"))
 public class AuthorizationCode {
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
@@ -20,7 +20,7 @@ import java.util.UUID;
 @RequiredArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "clients_users")
+@Table(name = "clients_users", uniqueConstraints = @UniqueConstraint(name = "clients_users_client_id_user_id_key", columnNames = {"client_id", "user_id"}))
 public class ClientUser {
     @OneToMany(mappedBy = "clientUser", fetch = FetchType.LAZY)
     @ToString.Exclude
@@ -20,7 +20,11 @@ import java.util.UUID;
 @RequiredArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "refresh_tokens")
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "refresh_tokens_token_key", columnList = "token", unique = true),
+        @Index(name = "refresh_tokens_expires_at_idx", columnList = "expires_at"),
+        @Index(name = "refresh_tokens_revoked_at_idx", columnList = "revoked_at"),
+        @Index(name = "refresh_tokens_replaced_by_token_id_idx", columnList = "replaced_by_token_id")})
 public class RefreshToken {
     @OneToMany(mappedBy = "replacedByToken")
     @ToString.Exclude
@@ -35,7 +39,10 @@ public class RefreshToken {
     private OffsetDateTime updatedAt;
     @Column(name = "expires_at", nullable = false)
     private OffsetDateTime expiresAt;
-    @Column(name = "token", nullable = false, length = Integer.MAX_VALUE)
+    /**
+     * Hex encoded SHA-256 digest of the secret part of the issued token, see {@link #issuedToken}.
+     */
+    @Column(name = "token", nullable = false, length = 64)
     private String token;
     @Column(name = "scope")
     private String scope;
@@ -50,6 +57,13 @@ public class RefreshToken {
     @JoinColumn(name = "client_user_id", nullable = false)
     @ToString.Exclude
     private ClientUser clientUser;
+    /**
+     * Value handed to the client, {@code <id>.<secret>}. Only the digest of the secret is stored, so this is only
+     * known on the instance the token was issued with.
+     */
+    @Transient
+    @ToString.Exclude
+    private String issuedToken;
 
     @Override
     public boolean equals(Object o) {
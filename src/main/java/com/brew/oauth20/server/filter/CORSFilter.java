@@ -1,66 +1,58 @@
 package com.brew.oauth20.server.filter;
 
 import com.brew.oauth20.server.exception.ClientAuthenticationFailedException;
-import com.brew.oauth20.server.model.WebOriginModel;
+import com.brew.oauth20.server.model.WebOriginMatcher;
 import com.brew.oauth20.server.service.ClientService;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ReadListener;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.ServletInputStream;
 import jakarta.servlet.http.HttpServletRequest;
-import jakarta.servlet.http.HttpServletRequestWrapper;
 import jakarta.servlet.http.HttpServletResponse;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
-import org.springframework.util.StreamUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
-import java.util.List;
-import java.util.Map;
 
 @Component
 @Order(Ordered.HIGHEST_PRECEDENCE)
 public class CORSFilter extends OncePerRequestFilter {
     private final ClientService clientService;
 
+    @Value("${http.request.max_body_bytes:65536}")
+    private int maxBodyBytes = 65536;
+
+    @Value("${cors.preflight_max_age_seconds:600}")
+    private long preflightMaxAgeSeconds = 600;
+
     @Autowired
     public CORSFilter(ClientService clientService) {
         this.clientService = clientService;
     }
 
     private static String readClientIdFromBody(HttpServletRequest request) {
-        String clientId;
-        try {
-            byte[] inputStreamBytes = StreamUtils.copyToByteArray(request.getInputStream());
-
-            Map<String, String> jsonRequest = new ObjectMapper().readValue(inputStreamBytes, Map.class);
-            clientId = jsonRequest.get("client_id");
-
-        } catch (IOException e) {
+        if (!(request instanceof CachedBodyHttpServletRequest cachedBodyRequest))
             return null;
-        }
-        return clientId;
+        var requestParameters = cachedBodyRequest.getRequestParameters();
+        return requestParameters == null ? null : requestParameters.get("client_id");
     }
 
     private static String readClientIfFromQueryString(HttpServletRequest request) {
         return request.getParameter("client_id");
     }
 
-    private static void addCorsConfiguration(HttpServletRequest request, HttpServletResponse response, List<String> webOrigins) throws IOException {
+    private static void addCorsConfiguration(HttpServletRequest request, HttpServletResponse response, WebOriginMatcher webOriginMatcher) throws IOException {
         var origin = getOrigin(request);
 
-        var allowedOrigins = webOrigins.stream().map(CORSFilter::trimTrailingSlash).toList();
-
-        if (origin != null && allowedOrigins.contains(origin)) {
+        if (origin != null && webOriginMatcher.matches(origin)) {
             response.setHeader("Access-Control-Allow-Origin", origin);
             response.addHeader("Access-Control-Allow-Methods", "GET, POST, OPTIONS, HEAD");
             response.addHeader("Access-Control-Allow-Headers", "Authorization, Content-Type");
@@ -93,15 +85,21 @@ public class CORSFilter extends OncePerRequestFilter {
 
     @Override
     protected void doFilterInternal(HttpServletRequest initialRequest, @NotNull HttpServletResponse response, @NotNull FilterChain filterChain) throws ServletException, IOException {
-
-        byte[] requestBodyBytes = StreamUtils.copyToByteArray(initialRequest.getInputStream());
-
-        HttpServletRequest request = new HttpServletRequestWrapper(initialRequest) {
-            @Override
-            public ServletInputStream getInputStream() {
-                return new CachedBodyServletInputStream(new ByteArrayInputStream(requestBodyBytes));
+        // the CORS headers depend on the origin, so shared caches must not reuse any response across origins
+        response.addHeader("Vary", "Origin");
+
+        // the body is captured once, so the client id lookup and the controllers can all read it
+        HttpServletRequest request = initialRequest;
+        if ("POST".equals(initialRequest.getMethod())) {
+            var requestBody = initialRequest.getContentLengthLong() > maxBodyBytes
+                    ? null
+                    : CachedBodyHttpServletRequest.readBody(initialRequest, maxBodyBytes);
+            if (requestBody == null) {
+                response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+                return;
             }
-        };
+            request = new CachedBodyHttpServletRequest(initialRequest, requestBody);
+        }
 
         var origin = getOrigin(request);
 
@@ -111,6 +109,7 @@ public class CORSFilter extends OncePerRequestFilter {
                 response.addHeader("Access-Control-Allow-Methods", "GET, POST, OPTIONS, HEAD");
                 response.addHeader("Access-Control-Allow-Headers", "Authorization, Content-Type");
                 response.addHeader("Access-Control-Allow-Credentials", "true");
+                response.addHeader("Access-Control-Max-Age", String.valueOf(preflightMaxAgeSeconds));
                 // For OPTIONS requests, do not write a response body
                 response.setStatus(HttpServletResponse.SC_OK);
             } else {
@@ -120,10 +119,7 @@ public class CORSFilter extends OncePerRequestFilter {
                 if (clientId == null || clientId.isBlank())
                     throw new ClientAuthenticationFailedException();
                 else {
-                    var webOrigins = clientService.getWebOrigins(clientId);
-
-                    addCorsConfiguration(request, response, webOrigins.stream().map(WebOriginModel::webOrigin).toList());
-
+                    addCorsConfiguration(request, response, clientService.getWebOriginMatcher(clientId));
                 }
             }
         }
@@ -161,6 +157,11 @@ public class CORSFilter extends OncePerRequestFilter {
             return cachedInputStream.read();
         }
 
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return cachedInputStream.read(b, off, len);
+        }
+
         @Override
         public boolean isFinished() {
             try {
@@ -0,0 +1,87 @@
+package com.brew.oauth20.server.filter;
+
+import com.brew.oauth20.server.utils.JsonUtils;
+import com.fasterxml.jackson.core.JsonToken;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Request whose body was captured once by {@link CORSFilter}. The body can be read again by every downstream consumer
+ * and its top level JSON fields are parsed at most once per request.
+ */
+public class CachedBodyHttpServletRequest extends HttpServletRequestWrapper {
+    private final byte[] body;
+    private Map<String, String> requestParameters;
+    private boolean requestParametersParsed;
+
+    public CachedBodyHttpServletRequest(HttpServletRequest request, byte[] body) {
+        super(request);
+        this.body = body;
+    }
+
+    /**
+     * Scans the top level of a JSON object and keeps its scalar fields as text. Nested objects and arrays are skipped
+     * without being materialized.
+     *
+     * @return the fields in body order, or null when the body is empty or not a JSON object
+     */
+    @Nullable
+    public static Map<String, String> parseRequestParameters(byte[] body) {
+        if (body.length == 0)
+            return null;
+        try (var parser = JsonUtils.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT)
+                return null;
+            var requestParameters = new LinkedHashMap<String, String>();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                var name = parser.getCurrentName();
+                var token = parser.nextToken();
+                if (token.isStructStart())
+                    parser.skipChildren();
+                else if (token != JsonToken.VALUE_NULL)
+                    requestParameters.put(name, parser.getText());
+            }
+            return Collections.unmodifiableMap(requestParameters);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the top level fields of the JSON body, or null when the body is empty or not a JSON object
+     */
+    @Nullable
+    public Map<String, String> getRequestParameters() {
+        if (!requestParametersParsed) {
+            requestParameters = parseRequestParameters(body);
+            requestParametersParsed = true;
+        }
+        return requestParameters;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() {
+        return new CORSFilter.CachedBodyServletInputStream(new ByteArrayInputStream(body));
+    }
+
+    /**
+     * @return the body up to {@code maxBodyBytes}, or null when the body is larger
+     */
+    @Nullable
+    static byte[] readBody(HttpServletRequest request, int maxBodyBytes) throws IOException {
+        InputStream inputStream = request.getInputStream();
+        if (inputStream == null)
+            return new byte[0];
+        var body = inputStream.readNBytes(maxBodyBytes + 1);
+        return body.length > maxBodyBytes ? null : body;
+    }
+}
@@ -1,6 +1,7 @@
 package com.brew.oauth20.server.http.impl;
 
 import com.brew.oauth20.server.http.RestTemplateWrapper;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
@@ -11,8 +12,9 @@ import org.springframework.web.client.RestTemplate;
 public class RestTemplateWrapperImpl implements RestTemplateWrapper {
     private RestTemplate restTemplate;
 
-    public RestTemplateWrapperImpl() {
-        this.restTemplate = new RestTemplate();
+    @Autowired
+    public RestTemplateWrapperImpl(RestTemplate outboundRestTemplate) {
+        this.restTemplate = outboundRestTemplate;
     }
 
     @Override
@@ -10,4 +10,6 @@ public interface AuthorizationCodeMapper {
     AuthorizationCodeMapper INSTANCE = Mappers.getMapper(AuthorizationCodeMapper.class);
 
     AuthorizationCode toAuthorizationCode(ActiveAuthorizationCode activeAuthorizationCode);
+
+    ActiveAuthorizationCode toActiveAuthorizationCode(AuthorizationCode authorizationCode);
 }
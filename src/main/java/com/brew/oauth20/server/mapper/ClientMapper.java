@@ -6,9 +6,8 @@ import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.Named;
 
-import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 @Mapper(componentModel = "spring")
 public interface ClientMapper {
@@ -20,35 +19,35 @@ public interface ClientMapper {
     ClientModel toDTO(Client client);
 
     @Named("mapClientGrants")
-    default ArrayList<GrantModel> mapClientsGrants(Set<ClientGrant> clientGrants) {
+    default List<GrantModel> mapClientsGrants(Set<ClientGrant> clientGrants) {
         return clientGrants
                 .stream()
                 .map(x -> new GrantModel(x.getGrant().getId(), x.getGrant().getResponseType(),
                         x.getGrant().getGrantType()))
-                .collect(Collectors.toCollection(ArrayList::new));
+                .toList();
     }
 
     @Named("mapRedirectUris")
-    default ArrayList<RedirectUriModel> mapRedirectUris(Set<RedirectUri> redirectUris) {
+    default List<RedirectUriModel> mapRedirectUris(Set<RedirectUri> redirectUris) {
         return redirectUris
                 .stream()
                 .map(x -> new RedirectUriModel(x.getId(), x.getRedirectUri()))
-                .collect(Collectors.toCollection(ArrayList::new));
+                .toList();
     }
 
     @Named("mapClientScopes")
-    default ArrayList<ScopeModel> mapClientsScopes(Set<ClientScope> clientScopes) {
+    default List<ScopeModel> mapClientsScopes(Set<ClientScope> clientScopes) {
         return clientScopes
                 .stream()
                 .map(x -> new ScopeModel(x.getId(), x.getScope()))
-                .collect(Collectors.toCollection(ArrayList::new));
+                .toList();
     }
 
     @Named("mapHooks")
-    default ArrayList<HookModel> mapHooks(Set<Hook> hooks) {
+    default List<HookModel> mapHooks(Set<Hook> hooks) {
         return hooks
                 .stream()
-                .map(x -> new HookModel(x.getId(), x.getEndpoint(), x.getHookType(), new ArrayList<>(HookHeaderMapper.INSTANCE.toModelList(x.getHookHeaders()))))
-                .collect(Collectors.toCollection(ArrayList::new));
+                .map(x -> new HookModel(x.getId(), x.getEndpoint(), x.getHookType(), List.copyOf(HookHeaderMapper.INSTANCE.toModelList(x.getHookHeaders()))))
+                .toList();
     }
 }
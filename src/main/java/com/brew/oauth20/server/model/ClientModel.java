@@ -2,8 +2,9 @@ package com.brew.oauth20.server.model;
 
 import lombok.Builder;
 
-import java.util.ArrayList;
+import java.nio.charset.StandardCharsets;
 import java.util.Base64;
+import java.util.List;
 import java.util.UUID;
 
 @Builder
@@ -16,14 +17,14 @@ public record ClientModel(
         Boolean issueRefreshTokens,
         int tokenExpiresInMinutes,
         int refreshTokenExpiresInDays,
-        ArrayList<GrantModel> grantList,
-        ArrayList<RedirectUriModel> redirectUriList,
-        ArrayList<ScopeModel> scopeList,
-        ArrayList<HookModel> hookList
+        List<GrantModel> grantList,
+        List<RedirectUriModel> redirectUriList,
+        List<ScopeModel> scopeList,
+        List<HookModel> hookList
 ) {
     public String clientSecretDecoded() {
         byte[] decodedBytes = Base64.getUrlDecoder().decode(clientSecret);
-        return new String(decodedBytes);
+        return new String(decodedBytes, StandardCharsets.UTF_8);
     }
 
     public Long tokenExpiresInSeconds() {
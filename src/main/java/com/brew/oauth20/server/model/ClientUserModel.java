@@ -0,0 +1,13 @@
+package com.brew.oauth20.server.model;
+
+import java.util.UUID;
+
+/**
+ * Cached snapshot of the link between a client and a user, with the scopes the user has consented to.
+ */
+public record ClientUserModel(
+        UUID id,
+        String userId,
+        ScopeSet grantedScopes
+) {
+}
@@ -0,0 +1,15 @@
+package com.brew.oauth20.server.model;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Claims returned by a custom claim hook. They are served as they are until {@code freshUntil} and served while being
+ * revalidated in the background until {@code staleUntil}.
+ */
+public record CustomClaimsCacheEntry(
+        Map<String, Object> claims,
+        Instant freshUntil,
+        Instant staleUntil
+) {
+}
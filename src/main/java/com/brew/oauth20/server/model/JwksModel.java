@@ -0,0 +1,10 @@
+package com.brew.oauth20.server.model;
+
+/**
+ * Serialized JSON Web Key Set together with its entity tag, rebuilt only when the key ring changes.
+ */
+public record JwksModel(
+        String document,
+        String eTag
+) {
+}
@@ -0,0 +1,67 @@
+package com.brew.oauth20.server.model;
+
+import com.brew.oauth20.server.data.enums.Scope;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+
+/**
+ * Set of {@link Scope} values packed into the bits of an int, one bit per enum ordinal. Checking whether the scopes a
+ * user consented to cover the requested ones is a single mask operation.
+ */
+public record ScopeSet(int bits) {
+    public static final ScopeSet EMPTY = new ScopeSet(0);
+    private static final Scope[] SCOPES = Scope.values();
+
+    static {
+        if (SCOPES.length > Integer.SIZE)
+            throw new ExceptionInInitializerError("Scope has more values than fit in an int mask");
+    }
+
+    public static ScopeSet of(Collection<Scope> scopes) {
+        var bits = 0;
+        for (var scope : scopes)
+            bits |= bit(scope);
+        return new ScopeSet(bits);
+    }
+
+    /**
+     * Parses a space delimited scope parameter. Scope values are matched exactly, the way they are stored.
+     *
+     * @return the requested scopes, or null when the parameter names a scope that does not exist
+     */
+    @Nullable
+    public static ScopeSet parse(String scope) {
+        if (scope == null || scope.isBlank())
+            return EMPTY;
+        var bits = 0;
+        for (var value : scope.split(" ")) {
+            var requestedScope = find(value.trim());
+            if (requestedScope == null)
+                return null;
+            bits |= bit(requestedScope);
+        }
+        return new ScopeSet(bits);
+    }
+
+    @Nullable
+    private static Scope find(String value) {
+        for (var scope : SCOPES) {
+            if (scope.getScope().equals(value))
+                return scope;
+        }
+        return null;
+    }
+
+    private static int bit(Scope scope) {
+        return 1 << scope.ordinal();
+    }
+
+    public boolean contains(Scope scope) {
+        return (bits & bit(scope)) != 0;
+    }
+
+    public boolean containsAll(ScopeSet scopes) {
+        return (scopes.bits & ~bits) == 0;
+    }
+}
@@ -0,0 +1,16 @@
+package com.brew.oauth20.server.model;
+
+import com.brew.oauth20.server.model.enums.SigningAlgorithm;
+
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.time.Instant;
+
+public record SigningKeyModel(
+        String keyId,
+        SigningAlgorithm algorithm,
+        PrivateKey privateKey,
+        PublicKey publicKey,
+        Instant createdAt
+) {
+}
@@ -0,0 +1,15 @@
+package com.brew.oauth20.server.model;
+
+import java.time.Instant;
+
+/**
+ * Per-request state of a token grant. Token grant providers are singletons, so everything resolved while serving a
+ * single /oauth/token request travels in this object instead of provider fields. Outbound calls made for the request
+ * must complete before {@code deadline}.
+ */
+public record TokenGrantContext(
+        ClientModel client,
+        TokenRequestModel tokenRequest,
+        Instant deadline
+) {
+}
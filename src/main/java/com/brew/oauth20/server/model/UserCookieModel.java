@@ -1,9 +1,9 @@
 package com.brew.oauth20.server.model;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.brew.oauth20.server.utils.JsonUtils;
+import com.fasterxml.jackson.core.JsonToken;
 
+import java.io.IOException;
 import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
@@ -13,22 +13,44 @@ public record UserCookieModel(
         OffsetDateTime expires_at,
         String email
 ) {
+    /**
+     * Reads the cookie with a streaming parser, keeping only user_id, email and expires_at. Other fields, including
+     * nested ones, are skipped; user_id, email and expires_at must hold scalar values.
+     */
     public static UserCookieModel parse(String cookieString) {
-        try {
-            if (cookieString == null || cookieString.isBlank())
-                return null;
-            ObjectMapper objectMapper = new ObjectMapper();
-            JsonNode jsonNode = objectMapper.readTree(cookieString);
-            String userId = jsonNode.get("user_id").asText();
-            String email = jsonNode.has("email") ? jsonNode.get("email").asText() : null;
-            long expiresAtEpoch = jsonNode.get("expires_at").asLong();
+        if (cookieString == null || cookieString.isBlank())
+            return null;
+        try (var parser = JsonUtils.createParser(cookieString)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT)
+                throw new IllegalArgumentException();
+            String userId = null;
+            String email = null;
+            Long expiresAtEpoch = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                var name = parser.getCurrentName();
+                var token = parser.nextToken();
+                switch (name) {
+                    case "user_id" -> userId = requireScalar(token) == JsonToken.VALUE_NULL ? null : parser.getText();
+                    case "email" -> email = requireScalar(token) == JsonToken.VALUE_NULL ? null : parser.getText();
+                    case "expires_at" -> expiresAtEpoch = requireScalar(token) == JsonToken.VALUE_NULL ? null : parser.getValueAsLong();
+                    default -> parser.skipChildren();
+                }
+            }
+            if (userId == null || expiresAtEpoch == null)
+                throw new IllegalArgumentException();
             OffsetDateTime expiresAt = OffsetDateTime.ofInstant(Instant.ofEpochSecond(expiresAtEpoch), ZoneOffset.UTC);
             return new UserCookieModel(userId, expiresAt, email);
-        } catch (JsonProcessingException | NullPointerException e) {
+        } catch (IOException e) {
             throw new IllegalArgumentException();
         }
     }
 
+    private static JsonToken requireScalar(JsonToken token) {
+        if (token == null || !token.isScalarValue())
+            throw new IllegalArgumentException();
+        return token;
+    }
+
     public static String toString(UserCookieModel model) {
         return "{"
                 + "\"user_id\": \"" + model.user_id + "\","
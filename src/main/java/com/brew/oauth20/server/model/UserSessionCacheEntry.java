@@ -0,0 +1,13 @@
+package com.brew.oauth20.server.model;
+
+import java.time.Instant;
+
+/**
+ * User resolved from a verified user cookie. It is cached by the digest of the cookie and never outlives
+ * {@code expiresAt}, the expiry written into the cookie.
+ */
+public record UserSessionCacheEntry(
+        String userId,
+        Instant expiresAt
+) {
+}
@@ -0,0 +1,67 @@
+package com.brew.oauth20.server.model;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Precompiled allow-list of the web origins of a client. Origins are normalized once when the matcher is built, so a
+ * CORS decision is a hash lookup per host label. An origin like {@code https://*.example.com} allows every subdomain of
+ * example.com, but not example.com itself.
+ */
+public final class WebOriginMatcher {
+    private static final String WILDCARD_PREFIX = "*.";
+    private static final String SCHEME_SEPARATOR = "://";
+    private final Set<String> origins = new HashSet<>();
+    private final Set<String> wildcardOrigins = new HashSet<>();
+
+    public WebOriginMatcher(Collection<String> webOrigins) {
+        for (var webOrigin : webOrigins) {
+            if (webOrigin == null || webOrigin.isBlank())
+                continue;
+            var origin = normalize(webOrigin);
+            var hostStart = origin.indexOf(SCHEME_SEPARATOR) + SCHEME_SEPARATOR.length();
+            if (origin.startsWith(WILDCARD_PREFIX, hostStart))
+                wildcardOrigins.add(origin.substring(0, hostStart) + origin.substring(hostStart + WILDCARD_PREFIX.length()));
+            else
+                origins.add(origin);
+        }
+    }
+
+    /**
+     * Lower-cases the scheme and host and drops the trailing slash, matching how browsers serialize the Origin header.
+     */
+    public static String normalize(String origin) {
+        var trimmed = origin.trim();
+        return (trimmed.endsWith("/") ? trimmed.substring(0, trimmed.length() - 1) : trimmed).toLowerCase(Locale.ROOT);
+    }
+
+    public boolean isEmpty() {
+        return origins.isEmpty() && wildcardOrigins.isEmpty();
+    }
+
+    public boolean matches(String origin) {
+        if (origin == null || origin.isBlank())
+            return false;
+        var normalizedOrigin = normalize(origin);
+        if (origins.contains(normalizedOrigin))
+            return true;
+        if (wildcardOrigins.isEmpty())
+            return false;
+
+        // try every parent domain of the host: https://a.b.example.com -> https://b.example.com -> https://example.com
+        var hostStart = normalizedOrigin.indexOf(SCHEME_SEPARATOR);
+        if (hostStart < 0)
+            return false;
+        hostStart += SCHEME_SEPARATOR.length();
+        var scheme = normalizedOrigin.substring(0, hostStart);
+        var labelEnd = normalizedOrigin.indexOf('.', hostStart);
+        while (labelEnd > 0) {
+            if (wildcardOrigins.contains(scheme + normalizedOrigin.substring(labelEnd + 1)))
+                return true;
+            labelEnd = normalizedOrigin.indexOf('.', labelEnd + 1);
+        }
+        return false;
+    }
+}
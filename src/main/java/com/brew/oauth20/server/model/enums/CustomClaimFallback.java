@@ -0,0 +1,19 @@
+package com.brew.oauth20.server.model.enums;
+
+/**
+ * What token issuance does when a custom claim hook fails, times out, is shed by its bulkhead or has an open circuit.
+ */
+public enum CustomClaimFallback {
+    /**
+     * Fail the token request.
+     */
+    FAIL,
+    /**
+     * Issue the token without custom claims.
+     */
+    OMIT_CLAIMS,
+    /**
+     * Issue the token with the last claims the hook returned for the user, failing when there are none.
+     */
+    LAST_KNOWN_GOOD
+}
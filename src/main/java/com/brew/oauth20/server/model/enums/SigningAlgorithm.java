@@ -0,0 +1,50 @@
+package com.brew.oauth20.server.model.enums;
+
+import java.util.Arrays;
+
+@SuppressWarnings("java:S115")
+public enum SigningAlgorithm {
+    HS256("HS256", null, null),
+    RS256("RS256", "RSA", "SHA256withRSA"),
+    ES256("ES256", "EC", "SHA256withECDSAinP1363Format"),
+    EdDSA("EdDSA", "Ed25519", "Ed25519");
+
+    private final String value;
+    private final String keyAlgorithm;
+    private final String signatureAlgorithm;
+
+    SigningAlgorithm(String value, String keyAlgorithm, String signatureAlgorithm) {
+        this.value = value;
+        this.keyAlgorithm = keyAlgorithm;
+        this.signatureAlgorithm = signatureAlgorithm;
+    }
+
+    public static SigningAlgorithm fromValue(String value) {
+        return Arrays.stream(values())
+                .filter(x -> x.value.equalsIgnoreCase(value))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unsupported signing algorithm: " + value));
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * JCA key pair algorithm, {@code null} for the client secret based HS256.
+     */
+    public String getKeyAlgorithm() {
+        return keyAlgorithm;
+    }
+
+    /**
+     * JCA signature algorithm producing the signature encoding JWS expects (raw R || S for ECDSA).
+     */
+    public String getSignatureAlgorithm() {
+        return signatureAlgorithm;
+    }
+
+    public boolean isAsymmetric() {
+        return keyAlgorithm != null;
+    }
+}
@@ -3,8 +3,11 @@ package com.brew.oauth20.server.provider.tokengrant;
 import com.brew.oauth20.server.data.enums.GrantType;
 import com.brew.oauth20.server.data.enums.HookType;
 import com.brew.oauth20.server.exception.ClientAuthenticationFailedException;
+import com.brew.oauth20.server.exception.CustomClaimHookException;
+import com.brew.oauth20.server.exception.UserIdentityServiceException;
 import com.brew.oauth20.server.model.ClientCredentialsModel;
 import com.brew.oauth20.server.model.ClientModel;
+import com.brew.oauth20.server.model.TokenGrantContext;
 import com.brew.oauth20.server.model.TokenModel;
 import com.brew.oauth20.server.model.TokenRequestModel;
 import com.brew.oauth20.server.service.ClientService;
@@ -13,60 +16,151 @@ import com.brew.oauth20.server.service.TokenService;
 import com.brew.oauth20.server.service.UserIdentityService;
 import com.brew.oauth20.server.utils.validators.ClientValidator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.env.Environment;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 public abstract class BaseTokenGrantProvider {
     private static final String DEFAULT_ID_TOKEN_ENABLED = "false";
     private static final String BEARER_TOKEN_TYPE = "Bearer";
+    private static final long DEFAULT_TOKEN_ISSUANCE_TIMEOUT_MS = 10000;
     private final ClientService clientService;
     private final CustomClaimService customClaimService;
     private final UserIdentityService userIdentityService;
     private final Environment env;
+    private final Executor tokenIssuanceExecutor;
     protected TokenService tokenService;
     protected GrantType grantType;
-    protected ClientModel client;
 
+    @Value("${oauth.token_issuance.timeout_ms:10000}")
+    private long tokenIssuanceTimeoutMs = DEFAULT_TOKEN_ISSUANCE_TIMEOUT_MS;
 
     @Autowired
     protected BaseTokenGrantProvider(ClientService clientService,
                                      TokenService tokenService,
                                      CustomClaimService customClaimService,
                                      UserIdentityService userIdentityService,
-                                     Environment env) {
+                                     Environment env,
+                                     Executor tokenIssuanceExecutor) {
         this.clientService = clientService;
         this.tokenService = tokenService;
         this.customClaimService = customClaimService;
         this.userIdentityService = userIdentityService;
         this.env = env;
+        this.tokenIssuanceExecutor = tokenIssuanceExecutor;
     }
 
     public Boolean validate(ClientCredentialsModel clientCredentials, TokenRequestModel tokenRequest) {
-        client = clientService.getClient(clientCredentials.getClientId(), clientCredentials.getClientSecret());
+        authenticate(clientCredentials, tokenRequest);
+        return true;
+    }
+
+    /**
+     * Validates the token request, authenticates the client and returns the per-request context that the rest of the
+     * grant works on.
+     */
+    protected TokenGrantContext authenticate(ClientCredentialsModel clientCredentials, TokenRequestModel tokenRequest) {
+        validateTokenRequest(tokenRequest);
+
+        var client = clientService.getClient(clientCredentials.getClientId(), clientCredentials.getClientSecret());
         if (client == null)
             throw new ClientAuthenticationFailedException();
 
-        return new ClientValidator(client).validate(tokenRequest.getGrantType());
+        new ClientValidator(client).validate(tokenRequest.getGrantType());
+        return new TokenGrantContext(client, tokenRequest, Instant.now().plusMillis(tokenIssuanceTimeoutMs));
+    }
+
+    protected void validateTokenRequest(TokenRequestModel tokenRequest) {
     }
 
     public abstract TokenModel generateToken(ClientCredentialsModel clientCredentials, TokenRequestModel tokenRequest);
 
-    protected Map<String, Object> getCustomClaims(ClientModel client, String userId) {
-        var customClaimHook = client.hookList().stream().filter(x -> x.hookType().equals(HookType.custom_claim)).findFirst();
+    /**
+     * Starts the custom claim hook call on the token issuance executor so that the caller can do its own work while the
+     * hook responds. Clients without a hook complete immediately.
+     * <p>
+     * The returned future completes by the deadline of the request. When the call cannot be started or has not
+     * answered by then, {@code hook.custom_claim.fallback} decides the outcome as for any other hook failure; the call
+     * itself is not interrupted and ends with its HTTP read timeout.
+     */
+    protected CompletableFuture<Map<String, Object>> requestCustomClaims(TokenGrantContext context, String userId) {
+        var customClaimHook = context.client().hookList().stream().filter(x -> x.hookType().equals(HookType.custom_claim)).findFirst();
         if (customClaimHook.isEmpty())
-            return new HashMap<>(Map.of());
-        return customClaimService.getCustomClaims(customClaimHook.get(), userId);
+            return CompletableFuture.completedFuture(new HashMap<>(Map.of()));
+        var hook = customClaimHook.get();
+        return submit(() -> customClaimService.getCustomClaims(hook, userId))
+                .orTimeout(remainingMillis(context), TimeUnit.MILLISECONDS)
+                .exceptionally(e -> {
+                    var cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    // failures of the call itself have been through the fallback already
+                    if (cause instanceof TimeoutException || cause instanceof RejectedExecutionException)
+                        return customClaimService.getFallbackCustomClaims(hook, userId, (Exception) cause);
+                    throw e instanceof CompletionException completionException ? completionException : new CompletionException(e);
+                });
+    }
+
+    /**
+     * Waits for the custom claims requested with {@link #requestCustomClaims}, which complete by the deadline.
+     */
+    protected Map<String, Object> awaitCustomClaims(CompletableFuture<Map<String, Object>> customClaims) {
+        try {
+            return customClaims.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException)
+                throw runtimeException;
+            throw new IllegalStateException(e.getCause());
+        }
     }
 
-    protected String generateIdToken(String accessToken, ClientModel client, String userId, String scope, Map<String, Object> additionalClaims) {
+    protected String generateIdToken(TokenGrantContext context, String accessToken, String userId, String scope, Map<String, Object> additionalClaims) {
         if (!isIdTokenEnabled())
             return null;
 
-        var userIdentityInfo = userIdentityService.getUserIdentityInfo(accessToken);
+        var userIdentityInfo = await(context,
+                submit(() -> userIdentityService.getUserIdentityInfo(accessToken)),
+                UserIdentityServiceException::new);
         additionalClaims.putAll(userIdentityInfo);
-        return this.tokenService.generateToken(client, userId, scope, additionalClaims);
+        return this.tokenService.generateToken(context.client(), userId, scope, additionalClaims);
+    }
+
+    /**
+     * A call the executor rejects fails right away instead of running on the request thread, where the deadline could
+     * not be enforced.
+     */
+    private <T> CompletableFuture<T> submit(Supplier<T> call) {
+        try {
+            return CompletableFuture.supplyAsync(call, tokenIssuanceExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static long remainingMillis(TokenGrantContext context) {
+        return Math.max(Duration.between(Instant.now(), context.deadline()).toMillis(), 0);
+    }
+
+    private <T> T await(TokenGrantContext context, CompletableFuture<T> future, Function<Exception, RuntimeException> failureException) {
+        try {
+            return future.get(remainingMillis(context), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw failureException.apply(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RejectedExecutionException rejectedExecutionException)
+                throw failureException.apply(rejectedExecutionException);
+            if (e.getCause() instanceof RuntimeException runtimeException)
+                throw runtimeException;
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw failureException.apply(e);
+        }
     }
 
     private boolean isIdTokenEnabled() {
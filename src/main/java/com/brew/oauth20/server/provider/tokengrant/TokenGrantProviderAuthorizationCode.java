@@ -1,5 +1,6 @@
 package com.brew.oauth20.server.provider.tokengrant;
 
+import com.brew.oauth20.server.config.ExecutorConfig;
 import com.brew.oauth20.server.data.enums.GrantType;
 import com.brew.oauth20.server.exception.ClientAuthenticationFailedException;
 import com.brew.oauth20.server.exception.OAuthException;
@@ -9,9 +10,12 @@ import com.brew.oauth20.server.model.TokenRequestModel;
 import com.brew.oauth20.server.model.enums.OAuthError;
 import com.brew.oauth20.server.service.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.Executor;
+
 @Component
 public class TokenGrantProviderAuthorizationCode extends BaseTokenGrantProvider {
 
@@ -25,23 +29,24 @@ public class TokenGrantProviderAuthorizationCode extends BaseTokenGrantProvider
                                                   UserIdentityService userIdentityService,
                                                   Environment env,
                                                   AuthorizationCodeService authorizationCodeService,
-                                                  RefreshTokenService refreshTokenService) {
-        super(clientService, tokenService, customClaimService, userIdentityService, env);
+                                                  RefreshTokenService refreshTokenService,
+                                                  @Qualifier(ExecutorConfig.TOKEN_ISSUANCE_EXECUTOR) Executor tokenIssuanceExecutor) {
+        super(clientService, tokenService, customClaimService, userIdentityService, env, tokenIssuanceExecutor);
         this.authorizationCodeService = authorizationCodeService;
         this.refreshTokenService = refreshTokenService;
         this.grantType = GrantType.authorization_code;
     }
 
     @Override
-    public Boolean validate(ClientCredentialsModel clientCredentials, TokenRequestModel tokenRequest) {
+    protected void validateTokenRequest(TokenRequestModel tokenRequest) {
         if (org.apache.commons.lang3.StringUtils.isEmpty(tokenRequest.getCode()))
             throw new OAuthException(OAuthError.INVALID_REQUEST);
-        return super.validate(clientCredentials, tokenRequest);
     }
 
     @Override
     public TokenModel generateToken(ClientCredentialsModel clientCredentials, TokenRequestModel tokenRequest) {
-        validate(clientCredentials, tokenRequest);
+        var context = authenticate(clientCredentials, tokenRequest);
+        var client = context.client();
 
         var activeAuthorizationCode = this.authorizationCodeService.getAuthorizationCode(
                 tokenRequest.getCode(),
@@ -52,16 +57,18 @@ public class TokenGrantProviderAuthorizationCode extends BaseTokenGrantProvider
             throw new ClientAuthenticationFailedException();
 
         var userId = activeAuthorizationCode.getClientUser().getUserId();
-        var customClaims = this.getCustomClaims(client, userId);
+        // the hook call does not depend on the refresh token, so it is in flight while the refresh token is stored
+        var pendingCustomClaims = this.requestCustomClaims(context, userId);
 
         String refreshToken = null;
         if (Boolean.TRUE.equals(client.issueRefreshTokens())) {
             var refreshTokenEntity = this.refreshTokenService.createRefreshToken(activeAuthorizationCode.getClientUser(), client.refreshTokenExpiresInDays());
-            refreshToken = refreshTokenEntity.getToken();
+            refreshToken = refreshTokenEntity.getIssuedToken();
         }
+        var customClaims = this.awaitCustomClaims(pendingCustomClaims);
         var accessToken = this.tokenService.generateToken(client, userId, activeAuthorizationCode.getScope(), customClaims);
 
-        var idToken = this.generateIdToken(accessToken, client, userId, activeAuthorizationCode.getScope(), customClaims);
+        var idToken = this.generateIdToken(context, accessToken, userId, activeAuthorizationCode.getScope(), customClaims);
 
         return this.buildToken(accessToken, refreshToken, idToken, tokenRequest.getState(), client.tokenExpiresInSeconds());
     }
@@ -1,5 +1,6 @@
 package com.brew.oauth20.server.provider.tokengrant;
 
+import com.brew.oauth20.server.config.ExecutorConfig;
 import com.brew.oauth20.server.data.enums.GrantType;
 import com.brew.oauth20.server.model.ClientCredentialsModel;
 import com.brew.oauth20.server.model.TokenModel;
@@ -8,25 +9,30 @@ import com.brew.oauth20.server.service.ClientService;
 import com.brew.oauth20.server.service.CustomClaimService;
 import com.brew.oauth20.server.service.TokenService;
 import com.brew.oauth20.server.service.UserIdentityService;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.Executor;
+
 @Component
 public class TokenGrantProviderClientCredentials extends BaseTokenGrantProvider {
     protected TokenGrantProviderClientCredentials(ClientService clientService,
             TokenService tokenService,
             CustomClaimService customClaimService,
             UserIdentityService userIdentityService,
-            Environment env) {
-        super(clientService, tokenService, customClaimService, userIdentityService, env);
+            Environment env,
+            @Qualifier(ExecutorConfig.TOKEN_ISSUANCE_EXECUTOR) Executor tokenIssuanceExecutor) {
+        super(clientService, tokenService, customClaimService, userIdentityService, env, tokenIssuanceExecutor);
         this.grantType = GrantType.client_credentials;
     }
 
     @Override
     public TokenModel generateToken(ClientCredentialsModel clientCredentials, TokenRequestModel tokenRequest) {
-        super.validate(clientCredentials, tokenRequest);
+        var context = authenticate(clientCredentials, tokenRequest);
+        var client = context.client();
 
-        var customClaims = this.getCustomClaims(client, null);
+        var customClaims = this.awaitCustomClaims(this.requestCustomClaims(context, null));
 
         var accessToken = tokenService.generateToken(client, customClaims);
 
@@ -1,16 +1,22 @@
 package com.brew.oauth20.server.provider.tokengrant;
 
+import com.brew.oauth20.server.config.ExecutorConfig;
+import com.brew.oauth20.server.data.RefreshToken;
 import com.brew.oauth20.server.data.enums.GrantType;
 import com.brew.oauth20.server.exception.OAuthException;
+import com.brew.oauth20.server.exception.RefreshTokenNotFoundException;
 import com.brew.oauth20.server.model.ClientCredentialsModel;
 import com.brew.oauth20.server.model.TokenModel;
 import com.brew.oauth20.server.model.TokenRequestModel;
 import com.brew.oauth20.server.model.enums.OAuthError;
 import com.brew.oauth20.server.service.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.Executor;
+
 @Component
 public class TokenGrantProviderRefreshToken extends BaseTokenGrantProvider {
 
@@ -23,35 +29,41 @@ public class TokenGrantProviderRefreshToken extends BaseTokenGrantProvider {
             CustomClaimService customClaimService,
             UserIdentityService userIdentityService,
             Environment env,
-            RefreshTokenService refreshTokenService) {
-        super(clientService, tokenService, customClaimService, userIdentityService, env);
+            RefreshTokenService refreshTokenService,
+            @Qualifier(ExecutorConfig.TOKEN_ISSUANCE_EXECUTOR) Executor tokenIssuanceExecutor) {
+        super(clientService, tokenService, customClaimService, userIdentityService, env, tokenIssuanceExecutor);
         this.refreshTokenService = refreshTokenService;
         this.grantType = GrantType.refresh_token;
     }
 
     @Override
-    public Boolean validate(ClientCredentialsModel clientCredentials, TokenRequestModel tokenRequest) {
+    protected void validateTokenRequest(TokenRequestModel tokenRequest) {
         if (org.apache.commons.lang3.StringUtils.isEmpty(tokenRequest.getRefreshToken()))
             throw new OAuthException(OAuthError.INVALID_REQUEST);
-        return super.validate(clientCredentials, tokenRequest);
     }
 
     @Override
     public TokenModel generateToken(ClientCredentialsModel clientCredentials, TokenRequestModel tokenRequest) {
-        validate(clientCredentials, tokenRequest);
+        var context = authenticate(clientCredentials, tokenRequest);
+        var client = context.client();
 
-        var refreshToken = refreshTokenService.revokeRefreshToken(client.clientId(), tokenRequest.getRefreshToken(),
-                client.refreshTokenExpiresInDays());
+        RefreshToken refreshToken;
+        try {
+            refreshToken = refreshTokenService.revokeRefreshToken(client.clientId(), tokenRequest.getRefreshToken(),
+                    client.refreshTokenExpiresInDays());
+        } catch (RefreshTokenNotFoundException e) {
+            throw new OAuthException(OAuthError.INVALID_GRANT);
+        }
 
         var userId = refreshToken.getClientUser().getUserId();
 
-        var customClaims = this.getCustomClaims(client, userId);
+        var customClaims = this.awaitCustomClaims(this.requestCustomClaims(context, userId));
 
         var accessToken = tokenService.generateToken(client, userId, refreshToken.getScope(), customClaims);
 
-        var idToken = this.generateIdToken(accessToken, client, userId, refreshToken.getScope(), customClaims);
+        var idToken = this.generateIdToken(context, accessToken, userId, refreshToken.getScope(), customClaims);
 
-        return this.buildToken(accessToken, refreshToken.getToken(), idToken, tokenRequest.getState(),
+        return this.buildToken(accessToken, refreshToken.getIssuedToken(), idToken, tokenRequest.getState(),
                 client.tokenExpiresInSeconds());
 
     }
@@ -3,7 +3,11 @@ package com.brew.oauth20.server.repository;
 import com.brew.oauth20.server.data.AuthorizationCode;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -11,5 +15,27 @@ public interface AuthorizationCodeRepository extends JpaRepository<Authorization
 
     @EntityGraph(attributePaths = "clientUser")
     List<AuthorizationCode> findAll();
-}
 
+    /**
+     * Marks the code as used only if it is still unused and unexpired. The check and the write are a single statement,
+     * so of several concurrent redemptions exactly one sees an updated row.
+     *
+     * @return 1 when this call redeemed the code, 0 when it was already used, expired or unknown
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE AuthorizationCode a SET a.usedAt = :usedAt " +
+            "WHERE a.code = :code AND a.redirectUri = :redirectUri AND a.usedAt IS NULL AND a.expiresAt > :usedAt")
+    int markAsUsed(String code, String redirectUri, OffsetDateTime usedAt);
+
+    /**
+     * Deletes at most {@code batchSize} codes that expired before {@code cutoff}, in a transaction of its own.
+     *
+     * @return the number of deleted codes, less than {@code batchSize} once nothing is left to delete
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM authorization_codes WHERE id IN " +
+            "(SELECT id FROM authorization_codes WHERE expires_at < :cutoff LIMIT :batchSize)", nativeQuery = true)
+    int deleteExpired(OffsetDateTime cutoff, int batchSize);
+}
@@ -12,7 +12,4 @@ public interface ClientRepository extends JpaRepository<Client, UUID> {
 
     @EntityGraph(attributePaths = {"clientGrants.grant", "redirectUris", "clientScopes.scope", "hooks.hookHeaders"})
     Optional<Client> findByClientId(String clientId);
-
-    @EntityGraph(attributePaths = {"clientGrants.grant", "redirectUris", "clientScopes.scope", "hooks.hookHeaders"})
-    Optional<Client> findByClientIdAndClientSecret(String clientId, String clientSecret);
 }
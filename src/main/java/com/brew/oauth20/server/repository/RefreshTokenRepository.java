@@ -1,9 +1,42 @@
 package com.brew.oauth20.server.repository;
 
 import com.brew.oauth20.server.data.RefreshToken;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.OffsetDateTime;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, UUID> {
-}
\ No newline at end of file
+    /**
+     * Reads the token and holds its row lock until the transaction ends, so concurrent rotations of the same token
+     * are serialized and every one but the first sees it revoked.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM RefreshToken t WHERE t.id = :id")
+    Optional<RefreshToken> findByIdForUpdate(UUID id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM RefreshToken t WHERE t.token = :token")
+    Optional<RefreshToken> findByTokenForUpdate(String token);
+
+    /**
+     * Deletes at most {@code batchSize} tokens that expired or were revoked before {@code cutoff}, in a transaction of
+     * its own. A token is kept while an older token still names it as its replacement; the older one always becomes
+     * eligible first, so it is gone by a later batch.
+     *
+     * @return the number of deleted tokens, less than {@code batchSize} once nothing is left to delete
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM refresh_tokens WHERE id IN " +
+            "(SELECT t.id FROM refresh_tokens t WHERE (t.expires_at < :cutoff OR t.revoked_at < :cutoff) " +
+            "AND NOT EXISTS (SELECT 1 FROM refresh_tokens r WHERE r.replaced_by_token_id = t.id) LIMIT :batchSize)",
+            nativeQuery = true)
+    int deleteExpiredOrRevoked(OffsetDateTime cutoff, int batchSize);
+}
@@ -2,6 +2,7 @@ package com.brew.oauth20.server.service;
 
 import com.brew.oauth20.server.model.ClientCredentialsModel;
 import com.brew.oauth20.server.model.ClientModel;
+import com.brew.oauth20.server.model.WebOriginMatcher;
 import com.brew.oauth20.server.model.WebOriginModel;
 
 import java.util.List;
@@ -10,8 +11,17 @@ import java.util.Optional;
 public interface ClientService {
     boolean existsByClientId(String clientId);
 
+    /**
+     * @param clientId client id of the registered client
+     * @return cached snapshot of the client, or null when the client does not exist
+     */
     ClientModel getClient(String clientId);
 
+    /**
+     * @param clientId     client id of the registered client
+     * @param clientSecret secret presented by the client, compared in constant time
+     * @return cached snapshot of the client, or null when the client does not exist or the secret does not match
+     */
     ClientModel getClient(String clientId, String clientSecret);
 
     /**
@@ -22,4 +32,19 @@ public interface ClientService {
 
 
     List<WebOriginModel> getWebOrigins(String clientId);
+
+    /**
+     * @param clientId client id of the registered client
+     * @return cached allow-list of the client's web origins, empty when the client does not exist
+     */
+    WebOriginMatcher getWebOriginMatcher(String clientId);
+
+    /**
+     * Drops the cached snapshot and web origins of the client so the next lookup reloads them from the database.
+     *
+     * @param clientId client id of the changed client
+     */
+    void evictClient(String clientId);
+
+    void evictAllClients();
 }
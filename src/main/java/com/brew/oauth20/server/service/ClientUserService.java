@@ -1,7 +1,17 @@
 package com.brew.oauth20.server.service;
 
-import com.brew.oauth20.server.data.ClientUser;
+import com.brew.oauth20.server.model.ClientUserModel;
 
 public interface ClientUserService {
-    ClientUser getOrCreate(String clientId, String userId);
+    /**
+     * @param clientId client id of the registered client
+     * @param userId   id of the logged-in user
+     * @return cached snapshot of the client user, created on the first authorization of the user for the client
+     */
+    ClientUserModel getOrCreate(String clientId, String userId);
+
+    /**
+     * Drops the cached snapshot so the next lookup reloads the client user and its granted scopes from the database.
+     */
+    void evictClientUser(String clientId, String userId);
 }
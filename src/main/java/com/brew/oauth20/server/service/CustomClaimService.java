@@ -6,4 +6,11 @@ import java.util.Map;
 
 public interface CustomClaimService {
     Map<String, Object> getCustomClaims(HookModel customClaimHook, String userId);
+
+    /**
+     * Applies {@code hook.custom_claim.fallback} to a hook call that could not be started or did not answer in time.
+     *
+     * @throws com.brew.oauth20.server.exception.CustomClaimHookException when the fallback is to fail the request
+     */
+    Map<String, Object> getFallbackCustomClaims(HookModel customClaimHook, String userId, Exception cause);
 }
@@ -1,7 +1,21 @@
 package com.brew.oauth20.server.service;
 
 import com.brew.oauth20.server.model.SignTokenOptions;
+import com.brew.oauth20.server.model.SigningKeyModel;
 
 public interface JwtService {
     String signToken(SignTokenOptions signTokenOptions);
+
+    /**
+     * Signs the token with a key ring key instead of {@link SignTokenOptions#signingKey()} and names the key in the
+     * {@code kid} header.
+     */
+    String signToken(SignTokenOptions signTokenOptions, SigningKeyModel signingKey);
+
+    /**
+     * Drops the cached signer of the client, so a rotated secret is not used to sign any further token.
+     */
+    void evictSigner(String clientId);
+
+    void evictAllSigners();
 }
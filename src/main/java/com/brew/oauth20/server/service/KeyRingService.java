@@ -0,0 +1,19 @@
+package com.brew.oauth20.server.service;
+
+import com.brew.oauth20.server.model.JwksModel;
+import com.brew.oauth20.server.model.SigningKeyModel;
+
+import java.util.Optional;
+
+public interface KeyRingService {
+    /**
+     * Returns the key new tokens are signed with, or empty when tokens are HS256 signed with the client secret.
+     */
+    Optional<SigningKeyModel> getActiveSigningKey();
+
+    /**
+     * Returns the public keys resource servers may encounter: the active key, the key that becomes active on the
+     * next rotation and the retired keys whose tokens may still be valid.
+     */
+    JwksModel getJwks();
+}
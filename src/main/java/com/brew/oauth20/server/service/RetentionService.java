@@ -0,0 +1,9 @@
+package com.brew.oauth20.server.service;
+
+public interface RetentionService {
+    /**
+     * Deletes authorization codes and refresh tokens that have been expired or revoked for longer than the grace
+     * period, in bounded batches.
+     */
+    void purge();
+}
@@ -1,13 +1,11 @@
 package com.brew.oauth20.server.service.impl;
 
+import com.brew.oauth20.server.component.TokenGenerator;
 import com.brew.oauth20.server.data.ActiveAuthorizationCode;
 import com.brew.oauth20.server.data.AuthorizationCode;
 import com.brew.oauth20.server.data.ClientUser;
-import com.brew.oauth20.server.mapper.AuthorizationCodeMapper;
-import com.brew.oauth20.server.repository.ActiveAuthorizationCodeRepository;
-import com.brew.oauth20.server.repository.AuthorizationCodeRepository;
 import com.brew.oauth20.server.service.AuthorizationCodeService;
-import com.brew.oauth20.server.utils.StringUtils;
+import com.brew.oauth20.server.store.AuthorizationCodeStore;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -17,20 +15,19 @@ import java.time.OffsetDateTime;
 @Service
 public class AuthorizationCodeServiceImpl implements AuthorizationCodeService {
 
-    private final AuthorizationCodeRepository authorizationCodeRepository;
-    private final ActiveAuthorizationCodeRepository activeAuthorizationCodeRepository;
+    private final AuthorizationCodeStore authorizationCodeStore;
+    private final TokenGenerator tokenGenerator;
 
     @Autowired
-    public AuthorizationCodeServiceImpl(AuthorizationCodeRepository authorizationCodeRepository,
-                                        ActiveAuthorizationCodeRepository activeAuthorizationCodeRepository) {
-        this.authorizationCodeRepository = authorizationCodeRepository;
-        this.activeAuthorizationCodeRepository = activeAuthorizationCodeRepository;
+    public AuthorizationCodeServiceImpl(AuthorizationCodeStore authorizationCodeStore, TokenGenerator tokenGenerator) {
+        this.authorizationCodeStore = authorizationCodeStore;
+        this.tokenGenerator = tokenGenerator;
     }
 
     @Override
     public String createAuthorizationCode(String redirectUri, long expiresIn, ClientUser clientUser, String scope) {
         OffsetDateTime expiresAt = OffsetDateTime.now().plus(Duration.ofMillis(expiresIn));
-        String code = StringUtils.generateSecureRandomString();
+        String code = tokenGenerator.generateAuthorizationCode();
         var authorizationCode = AuthorizationCode.builder()
                 .clientUser(clientUser)
                 .code(code)
@@ -41,22 +38,15 @@ public class AuthorizationCodeServiceImpl implements AuthorizationCodeService {
                 .scope(scope)
                 .build();
 
-        authorizationCodeRepository.save(authorizationCode);
+        authorizationCodeStore.save(authorizationCode);
         return code;
     }
 
     @Override
     public ActiveAuthorizationCode getAuthorizationCode(String code, String redirectUri, boolean markAsUsed) {
-        var activeAuthorizationCode = activeAuthorizationCodeRepository.findByCodeAndRedirectUri(code, redirectUri);
-        if (activeAuthorizationCode.isEmpty()) {
-            return null;
-        }
-        var activeAuthorizationCodeEntity = activeAuthorizationCode.get();
-        if (markAsUsed) {
-            var authorizationCode = AuthorizationCodeMapper.INSTANCE.toAuthorizationCode(activeAuthorizationCodeEntity);
-            authorizationCode.setUsedAt(OffsetDateTime.now());
-            authorizationCodeRepository.save(authorizationCode);
-        }
-        return activeAuthorizationCodeEntity;
+        var activeAuthorizationCode = markAsUsed
+                ? authorizationCodeStore.redeem(code, redirectUri)
+                : authorizationCodeStore.find(code, redirectUri);
+        return activeAuthorizationCode.orElse(null);
     }
 }
@@ -1,39 +1,53 @@
 package com.brew.oauth20.server.service.impl;
 
+import com.brew.oauth20.server.config.CacheConfig;
 import com.brew.oauth20.server.data.Client;
 import com.brew.oauth20.server.mapper.ClientMapper;
 import com.brew.oauth20.server.mapper.WebOriginMapper;
 import com.brew.oauth20.server.model.ClientCredentialsModel;
 import com.brew.oauth20.server.model.ClientModel;
+import com.brew.oauth20.server.model.WebOriginMatcher;
 import com.brew.oauth20.server.model.WebOriginModel;
 import com.brew.oauth20.server.repository.ClientRepository;
 import com.brew.oauth20.server.repository.WebOriginRepository;
 import com.brew.oauth20.server.service.ClientService;
+import com.brew.oauth20.server.service.JwtService;
+import com.brew.oauth20.server.utils.EncryptionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
 
 @Service
 public class ClientServiceImpl implements ClientService {
+    private static final WebOriginMatcher EMPTY_WEB_ORIGIN_MATCHER = new WebOriginMatcher(List.of());
     private final ClientRepository clientRepository;
     private final ClientMapper clientMapper;
     private final WebOriginRepository webOriginRepository;
     private final WebOriginMapper webOriginMapper;
+    private final JwtService jwtService;
+    private final Cache clientCache;
+    private final Cache webOriginCache;
     Logger logger = LoggerFactory.getLogger(ClientServiceImpl.class);
 
     @Autowired
     public ClientServiceImpl(ClientRepository clientRepository,
                              WebOriginRepository webOriginRepository,
                              ClientMapper clientMapper,
-                             WebOriginMapper webOriginMapper) {
+                             WebOriginMapper webOriginMapper,
+                             JwtService jwtService,
+                             CacheManager cacheManager) {
         this.clientRepository = clientRepository;
         this.webOriginRepository = webOriginRepository;
         this.clientMapper = clientMapper;
         this.webOriginMapper = webOriginMapper;
-
+        this.jwtService = jwtService;
+        this.clientCache = cacheManager.getCache(CacheConfig.CLIENTS_CACHE);
+        this.webOriginCache = cacheManager.getCache(CacheConfig.WEB_ORIGINS_CACHE);
     }
 
     @Override
@@ -43,14 +57,23 @@ public class ClientServiceImpl implements ClientService {
 
     @Override
     public ClientModel getClient(String clientId) {
+        var cachedClient = clientCache.get(clientId, ClientModel.class);
+        if (cachedClient != null)
+            return cachedClient;
+
         Optional<Client> optionalClient = clientRepository.findByClientId(clientId);
-        return optionalClient.map(clientMapper::toDTO).orElse(null);
+        var client = optionalClient.map(clientMapper::toDTO).orElse(null);
+        if (client != null)
+            clientCache.put(clientId, client);
+        return client;
     }
 
     @Override
     public ClientModel getClient(String clientId, String clientSecret) {
-        Optional<Client> optionalClient = clientRepository.findByClientIdAndClientSecret(clientId, clientSecret);
-        return optionalClient.map(clientMapper::toDTO).orElse(null);
+        var client = getClient(clientId);
+        if (client == null || !EncryptionUtils.verifySecret(clientSecret, client.clientSecret()))
+            return null;
+        return client;
     }
 
     @Override
@@ -75,4 +98,35 @@ public class ClientServiceImpl implements ClientService {
         var webOrigins = webOriginRepository.findByClientId(clientId);
         return webOriginMapper.toModelList(webOrigins);
     }
+
+    @Override
+    public WebOriginMatcher getWebOriginMatcher(String clientId) {
+        var cachedWebOriginMatcher = webOriginCache.get(clientId, WebOriginMatcher.class);
+        if (cachedWebOriginMatcher != null)
+            return cachedWebOriginMatcher;
+
+        // the client id comes from the request, so only registered clients are cached, as in getClient; clients
+        // without web origins are cached too, so their repeated cross-origin calls never reach the database
+        if (getClient(clientId) == null)
+            return EMPTY_WEB_ORIGIN_MATCHER;
+        return webOriginCache.get(clientId, () -> new WebOriginMatcher(getWebOrigins(clientId).stream()
+                .map(WebOriginModel::webOrigin)
+                .toList()));
+    }
+
+    @Override
+    public void evictClient(String clientId) {
+        clientCache.evict(clientId);
+        webOriginCache.evict(clientId);
+        jwtService.evictSigner(clientId);
+        logger.info("Client {} is evicted from the cache", clientId);
+    }
+
+    @Override
+    public void evictAllClients() {
+        clientCache.clear();
+        webOriginCache.clear();
+        jwtService.evictAllSigners();
+        logger.info("All clients are evicted from the cache");
+    }
 }
@@ -1,43 +1,95 @@
 package com.brew.oauth20.server.service.impl;
 
+import com.brew.oauth20.server.config.CacheConfig;
 import com.brew.oauth20.server.data.ClientUser;
+import com.brew.oauth20.server.data.ClientUserScope;
 import com.brew.oauth20.server.exception.ClientNotFoundException;
+import com.brew.oauth20.server.model.ClientUserModel;
+import com.brew.oauth20.server.model.ScopeSet;
 import com.brew.oauth20.server.repository.ClientRepository;
 import com.brew.oauth20.server.repository.ClientUserRepository;
+import com.brew.oauth20.server.service.ClientService;
 import com.brew.oauth20.server.service.ClientUserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
+import java.util.UUID;
+
 @Service
 public class ClientUserServiceImpl implements ClientUserService {
 
     private final ClientUserRepository clientUserRepository;
     private final ClientRepository clientRepository;
+    private final ClientService clientService;
+    private final Cache clientUserCache;
 
     @Autowired
     public ClientUserServiceImpl(ClientUserRepository clientUserRepository,
-                                 ClientRepository clientRepository) {
+                                 ClientRepository clientRepository,
+                                 ClientService clientService,
+                                 CacheManager cacheManager) {
         this.clientUserRepository = clientUserRepository;
         this.clientRepository = clientRepository;
+        this.clientService = clientService;
+        this.clientUserCache = cacheManager.getCache(CacheConfig.CLIENT_USERS_CACHE);
+    }
+
+    private static ClientUserModel toModel(ClientUser clientUser) {
+        var grantedScopes = clientUser.getClientUserScopes().stream()
+                .map(ClientUserScope::getScope)
+                .toList();
+        return new ClientUserModel(clientUser.getId(), clientUser.getUserId(), ScopeSet.of(grantedScopes));
     }
 
     @Override
-    public ClientUser getOrCreate(String clientId, String userId) {
-        var existingClientUser = clientUserRepository.findByClientIdAndUserId(clientId, userId);
+    public ClientUserModel getOrCreate(String clientId, String userId) {
+        var client = clientService.getClient(clientId);
 
-        if (existingClientUser.isPresent())
-            return existingClientUser.get();
+        if (client == null)
+            throw new ClientNotFoundException(clientId);
 
-        var client = clientRepository.findByClientId(clientId);
+        var key = new ClientUserKey(client.id(), userId);
+        var cachedClientUser = clientUserCache.get(key, ClientUserModel.class);
+        if (cachedClientUser != null)
+            return cachedClientUser;
 
-        if (client.isEmpty())
-            throw new ClientNotFoundException(clientId);
+        var clientUser = clientUserRepository.findByClientIdAndUserId(clientId, userId)
+                .map(ClientUserServiceImpl::toModel)
+                .orElseGet(() -> create(client.id(), clientId, userId));
+        clientUserCache.put(key, clientUser);
+        return clientUser;
+    }
 
+    @Override
+    public void evictClientUser(String clientId, String userId) {
+        var client = clientService.getClient(clientId);
+        if (client != null)
+            clientUserCache.evict(new ClientUserKey(client.id(), userId));
+    }
+
+    /**
+     * Inserts the client user, relying on the unique (client_id, user_id) constraint when the first authorizations of
+     * a user race each other: the losing insert fails and reads the row the winner created.
+     */
+    private ClientUserModel create(UUID id, String clientId, String userId) {
         var clientUser = ClientUser.builder()
-                .client(client.get())
+                .client(clientRepository.getReferenceById(id))
                 .userId(userId)
                 .build();
 
-        return clientUserRepository.save(clientUser);
+        try {
+            var savedClientUser = clientUserRepository.saveAndFlush(clientUser);
+            return new ClientUserModel(savedClientUser.getId(), userId, ScopeSet.EMPTY);
+        } catch (DataIntegrityViolationException e) {
+            return clientUserRepository.findByClientIdAndUserId(clientId, userId)
+                    .map(ClientUserServiceImpl::toModel)
+                    .orElseThrow(() -> e);
+        }
+    }
+
+    private record ClientUserKey(UUID clientId, String userId) {
     }
 }
@@ -1,30 +1,79 @@
 package com.brew.oauth20.server.service.impl;
 
+import com.brew.oauth20.server.config.CacheConfig;
+import com.brew.oauth20.server.config.ExecutorConfig;
+import com.brew.oauth20.server.config.ResilienceConfig;
 import com.brew.oauth20.server.exception.CustomClaimHookException;
 import com.brew.oauth20.server.http.RestTemplateWrapper;
+import com.brew.oauth20.server.model.CustomClaimsCacheEntry;
 import com.brew.oauth20.server.model.CustomClaimsRequestModel;
 import com.brew.oauth20.server.model.HookModel;
+import com.brew.oauth20.server.model.enums.CustomClaimFallback;
 import com.brew.oauth20.server.service.CustomClaimService;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.HttpServerErrorException;
 
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
+/**
+ * Calls custom claim hooks. A hook opts into caching by answering with {@code Cache-Control: max-age=N}; its claims
+ * are then reused for the same user for N seconds, and for a further {@code stale-while-revalidate} seconds while a
+ * background call refreshes them. Responses without max-age, or with no-store/no-cache, are never cached.
+ * <p>
+ * Every hook is called through its own circuit breaker and bulkhead. When a call fails, times out, is shed or is not
+ * permitted, {@code hook.custom_claim.fallback} decides whether the token request fails, goes on without custom claims
+ * or goes on with the last claims the hook returned for the user.
+ */
 @Service
 public class CustomClaimServiceImpl implements CustomClaimService {
+    private static final Logger logger = LoggerFactory.getLogger(CustomClaimServiceImpl.class);
     private final RestTemplateWrapper restTemplate;
+    private final Cache customClaimsCache;
+    private final Cache lastKnownGoodCustomClaimsCache;
+    private final Executor revalidationExecutor;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final BulkheadRegistry bulkheadRegistry;
+    private final Set<String> revalidatingKeys = ConcurrentHashMap.newKeySet();
+
+    @Value("${hook.custom_claim.fallback:FAIL}")
+    private CustomClaimFallback fallback = CustomClaimFallback.FAIL;
 
     @Autowired
-    public CustomClaimServiceImpl(RestTemplateWrapper restTemplate) {
+    public CustomClaimServiceImpl(RestTemplateWrapper restTemplate,
+                                  CacheManager cacheManager,
+                                  @Qualifier(ExecutorConfig.CUSTOM_CLAIM_REVALIDATION_EXECUTOR) Executor revalidationExecutor,
+                                  CircuitBreakerRegistry circuitBreakerRegistry,
+                                  BulkheadRegistry bulkheadRegistry) {
         this.restTemplate = restTemplate;
+        this.customClaimsCache = cacheManager.getCache(CacheConfig.CUSTOM_CLAIMS_CACHE);
+        this.lastKnownGoodCustomClaimsCache = cacheManager.getCache(CacheConfig.LAST_KNOWN_GOOD_CUSTOM_CLAIMS_CACHE);
+        this.revalidationExecutor = revalidationExecutor;
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.bulkheadRegistry = bulkheadRegistry;
     }
 
     @NotNull
@@ -41,15 +90,132 @@ public class CustomClaimServiceImpl implements CustomClaimService {
         return new HttpEntity<>(requestBody, headers);
     }
 
+    private static String createCacheKey(HookModel customClaimHook, String userId) {
+        return customClaimHook.id() + ":" + (userId == null ? "" : userId);
+    }
+
+    private static CustomClaimsCacheEntry createCacheEntry(HttpHeaders headers, Map<String, Object> claims) {
+        var cacheControl = headers.getCacheControl();
+        if (cacheControl == null || claims == null)
+            return null;
+
+        long maxAge = 0;
+        long staleWhileRevalidate = 0;
+        for (var directive : cacheControl.toLowerCase().split(",")) {
+            var parts = directive.trim().split("=", 2);
+            switch (parts[0]) {
+                case "no-store", "no-cache":
+                    return null;
+                case "max-age":
+                    maxAge = parseSeconds(parts);
+                    break;
+                case "stale-while-revalidate":
+                    staleWhileRevalidate = parseSeconds(parts);
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (maxAge <= 0)
+            return null;
+
+        var freshUntil = Instant.now().plusSeconds(maxAge);
+        return new CustomClaimsCacheEntry(Collections.unmodifiableMap(new HashMap<>(claims)), freshUntil, freshUntil.plusSeconds(staleWhileRevalidate));
+    }
+
+    private static long parseSeconds(String[] directive) {
+        try {
+            return directive.length == 2 ? Long.parseLong(directive[1].trim().replace("\"", "")) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
     @Override
     public Map<String, Object> getCustomClaims(HookModel customClaimHook, String userId) {
+        var cacheKey = createCacheKey(customClaimHook, userId);
+        var cached = customClaimsCache.get(cacheKey, CustomClaimsCacheEntry.class);
+        var now = Instant.now();
+        if (cached != null && now.isBefore(cached.freshUntil()))
+            return new HashMap<>(cached.claims());
+        if (cached != null && now.isBefore(cached.staleUntil())) {
+            revalidate(customClaimHook, userId, cacheKey);
+            return new HashMap<>(cached.claims());
+        }
+        try {
+            return fetchCustomClaims(customClaimHook, userId, cacheKey);
+        } catch (RuntimeException e) {
+            return fallback(customClaimHook, cacheKey, e);
+        }
+    }
+
+    @Override
+    public Map<String, Object> getFallbackCustomClaims(HookModel customClaimHook, String userId, Exception cause) {
+        return fallback(customClaimHook, createCacheKey(customClaimHook, userId), cause);
+    }
+
+    private Map<String, Object> fallback(HookModel customClaimHook, String cacheKey, Exception e) {
+        switch (fallback) {
+            case OMIT_CLAIMS -> {
+                logger.warn("Custom claim hook {} failed, issuing token without custom claims", customClaimHook.id(), e);
+                return new HashMap<>();
+            }
+            case LAST_KNOWN_GOOD -> {
+                var lastKnownGood = lastKnownGoodCustomClaimsCache.get(cacheKey, Map.class);
+                if (lastKnownGood != null) {
+                    logger.warn("Custom claim hook {} failed, issuing token with last known good claims", customClaimHook.id(), e);
+                    return new HashMap<>(lastKnownGood);
+                }
+            }
+            default -> {
+                // FAIL, or LAST_KNOWN_GOOD without claims to fall back on
+            }
+        }
+        throw new CustomClaimHookException(e);
+    }
+
+    private void revalidate(HookModel customClaimHook, String userId, String cacheKey) {
+        if (!revalidatingKeys.add(cacheKey))
+            return;
         try {
-            var requestEntity = createRequest(customClaimHook, userId);
-            var responseEntity = restTemplate.exchange(customClaimHook.endpoint(), HttpMethod.POST, requestEntity, JsonNode.class);
-            var objectMapper = new ObjectMapper();
-            return objectMapper.convertValue(responseEntity.getBody(), Map.class);
-        } catch (HttpServerErrorException e) {
-            throw new CustomClaimHookException(e);
+            revalidationExecutor.execute(() -> {
+                try {
+                    fetchCustomClaims(customClaimHook, userId, cacheKey);
+                } catch (RuntimeException e) {
+                    logger.warn("Revalidating custom claims of hook {} failed", customClaimHook.id(), e);
+                } finally {
+                    revalidatingKeys.remove(cacheKey);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            // the stale claims stay valid, a later request refreshes them
+            revalidatingKeys.remove(cacheKey);
+            logger.debug("Revalidation of custom claims of hook {} skipped, the executor is busy", customClaimHook.id());
         }
     }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> fetchCustomClaims(HookModel customClaimHook, String userId, String cacheKey) {
+        var requestEntity = createRequest(customClaimHook, userId);
+        var responseEntity = callHook(customClaimHook, () ->
+                restTemplate.exchange(customClaimHook.endpoint(), HttpMethod.POST, requestEntity, Map.class));
+        Map<String, Object> claims = responseEntity.getBody();
+
+        var cacheEntry = createCacheEntry(responseEntity.getHeaders(), claims);
+        if (cacheEntry != null)
+            customClaimsCache.put(cacheKey, cacheEntry);
+        else
+            customClaimsCache.evict(cacheKey);
+        if (fallback == CustomClaimFallback.LAST_KNOWN_GOOD && claims != null)
+            lastKnownGoodCustomClaimsCache.put(cacheKey, Collections.unmodifiableMap(new HashMap<>(claims)));
+        return claims;
+    }
+
+    @SuppressWarnings("rawtypes")
+    private ResponseEntity<Map> callHook(HookModel customClaimHook, Supplier<ResponseEntity<Map>> call) {
+        var name = ResilienceConfig.CUSTOM_CLAIM_HOOK_PREFIX + customClaimHook.id();
+        var bulkhead = bulkheadRegistry.bulkhead(name);
+        var circuitBreaker = circuitBreakerRegistry.circuitBreaker(name);
+        return CircuitBreaker.decorateSupplier(circuitBreaker, Bulkhead.decorateSupplier(bulkhead, call)).get();
+    }
 }
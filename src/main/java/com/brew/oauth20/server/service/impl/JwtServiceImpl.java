@@ -1,30 +1,85 @@
 package com.brew.oauth20.server.service.impl;
 
 import com.brew.oauth20.server.model.SignTokenOptions;
+import com.brew.oauth20.server.model.SigningKeyModel;
 import com.brew.oauth20.server.service.JwtService;
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
+import com.brew.oauth20.server.utils.EncryptionUtils;
+import com.brew.oauth20.server.utils.InstancePool;
+import com.brew.oauth20.server.utils.JsonUtils;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.jsonwebtoken.SignatureAlgorithm;
 import org.springframework.stereotype.Service;
 
+import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
-import java.security.Key;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Signature;
+import java.time.Duration;
 import java.time.Instant;
-import java.util.Date;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 @Service
 public class JwtServiceImpl implements JwtService {
+    private static final long MAXIMUM_CACHED_SIGNERS = 10_000;
+    private static final long MAXIMUM_CACHED_KEY_RING_SIGNERS = 100;
+    private static final Duration SIGNER_EXPIRE_AFTER_ACCESS = Duration.ofHours(1);
+    private static final Base64.Encoder BASE64_URL_ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    // keyed by client id, the secret itself is never held as a key
+    private final Cache<String, HmacSigner> signers = Caffeine.newBuilder()
+            .maximumSize(MAXIMUM_CACHED_SIGNERS)
+            .expireAfterAccess(SIGNER_EXPIRE_AFTER_ACCESS)
+            .build();
+    private final Cache<String, KeyRingSigner> keyRingSigners = Caffeine.newBuilder()
+            .maximumSize(MAXIMUM_CACHED_KEY_RING_SIGNERS)
+            .expireAfterAccess(SIGNER_EXPIRE_AFTER_ACCESS)
+            .build();
+
     @Override
     public String signToken(SignTokenOptions signTokenOptions) {
+        var keyDigest = EncryptionUtils.digestHex(signTokenOptions.signingKey());
+        var cacheKey = signTokenOptions.authorizedParty() != null ? signTokenOptions.authorizedParty() : keyDigest;
+        var signer = signers.getIfPresent(cacheKey);
+        // a secret rotated on another instance no longer matches the cached signer
+        if (signer == null || !signer.keyDigest.equals(keyDigest)) {
+            signer = new HmacSigner(signTokenOptions.signingKey(), keyDigest);
+            signers.put(cacheKey, signer);
+        }
+        return signer.sign(createClaims(signTokenOptions));
+    }
+
+    @Override
+    public String signToken(SignTokenOptions signTokenOptions, SigningKeyModel signingKey) {
+        return keyRingSigners.get(signingKey.keyId(), keyId -> new KeyRingSigner(signingKey)).sign(createClaims(signTokenOptions));
+    }
+
+    @Override
+    public void evictSigner(String clientId) {
+        signers.invalidate(clientId);
+    }
+
+    @Override
+    public void evictAllSigners() {
+        signers.invalidateAll();
+    }
+
+    private static byte[] createClaims(SignTokenOptions signTokenOptions) {
+        var now = Instant.now().getEpochSecond();
+
         // create claims for JWT token
-        Claims claims = Jwts.claims().
-                setAudience(signTokenOptions.audience()).
-                setIssuer(signTokenOptions.issuerUri()).
-                setIssuedAt(Date.from(Instant.now())).
-                setExpiration(Date.from(Instant.now().plusSeconds(signTokenOptions.expiresInSeconds())));
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("aud", signTokenOptions.audience());
+        claims.put("iss", signTokenOptions.issuerUri());
+        claims.put("iat", now);
+        claims.put("exp", now + signTokenOptions.expiresInSeconds());
 
         if (signTokenOptions.subject() != null)
-            claims.setSubject(signTokenOptions.subject());
+            claims.put("sub", signTokenOptions.subject());
 
         if (signTokenOptions.authorizedParty() != null)
             claims.put("azp", signTokenOptions.authorizedParty());
@@ -35,17 +90,104 @@ public class JwtServiceImpl implements JwtService {
         if (signTokenOptions.additionalClaims() != null)
             claims.putAll(signTokenOptions.additionalClaims());
 
-        // sign JWT token
-        return Jwts.builder()
-                .setClaims(claims)
-                .signWith(getSigningKey(signTokenOptions.signingKey()))
-                .compact();
+        return serialize(claims);
+    }
 
+    private static String encodeHeader(String algorithm, String keyId) {
+        Map<String, Object> header = new LinkedHashMap<>();
+        header.put("alg", algorithm);
+        if (keyId != null)
+            header.put("kid", keyId);
+        return BASE64_URL_ENCODER.encodeToString(serialize(header));
     }
 
-    private Key getSigningKey(String signingKey) {
-        byte[] keyBytes = signingKey.getBytes();
-        return new SecretKeySpec(keyBytes, SignatureAlgorithm.HS256.getJcaName());
+    private static byte[] serialize(Map<String, Object> value) {
+        try {
+            return JsonUtils.objectMapper().writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Unable to serialize token", e);
+        }
     }
-}
 
+    /**
+     * Signing material of a single key, resolved once: the HMAC algorithm (picked from the key length the same way
+     * jjwt does), the encoded JOSE header and an initialized {@link Mac} that is cloned into a pool.
+     */
+    private static final class HmacSigner {
+        private final String keyDigest;
+        private final String encodedHeader;
+        private final InstancePool<Mac> macs;
+
+        private HmacSigner(String signingKey, String keyDigest) {
+            this.keyDigest = keyDigest;
+            var keyBytes = signingKey.getBytes();
+            var algorithm = SignatureAlgorithm.forSigningKey(new SecretKeySpec(keyBytes, SignatureAlgorithm.HS256.getJcaName()));
+            this.encodedHeader = encodeHeader(algorithm.getValue(), null);
+            var prototype = createMac(new SecretKeySpec(keyBytes, algorithm.getJcaName()));
+            this.macs = new InstancePool<>(() -> cloneMac(prototype));
+        }
+
+        private String sign(byte[] claims) {
+            var signingInput = encodedHeader + '.' + BASE64_URL_ENCODER.encodeToString(claims);
+            var mac = macs.borrow();
+            var signature = mac.doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+            macs.release(mac);
+            return signingInput + '.' + BASE64_URL_ENCODER.encodeToString(signature);
+        }
+
+        private static Mac createMac(SecretKeySpec key) {
+            try {
+                var mac = Mac.getInstance(key.getAlgorithm());
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private static Mac cloneMac(Mac prototype) {
+            try {
+                return (Mac) prototype.clone();
+            } catch (CloneNotSupportedException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * Signs with a key ring key. {@link Signature} objects reset after each signature, so initialized instances are
+     * pooled and reused.
+     */
+    private static final class KeyRingSigner {
+        private final String encodedHeader;
+        private final InstancePool<Signature> signatures;
+
+        private KeyRingSigner(SigningKeyModel signingKey) {
+            this.encodedHeader = encodeHeader(signingKey.algorithm().getValue(), signingKey.keyId());
+            this.signatures = new InstancePool<>(() -> createSignature(signingKey));
+        }
+
+        private String sign(byte[] claims) {
+            var signingInput = encodedHeader + '.' + BASE64_URL_ENCODER.encodeToString(claims);
+            try {
+                var instance = signatures.borrow();
+                instance.update(signingInput.getBytes(StandardCharsets.US_ASCII));
+                var signature = instance.sign();
+                signatures.release(instance);
+                return signingInput + '.' + BASE64_URL_ENCODER.encodeToString(signature);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private static Signature createSignature(SigningKeyModel signingKey) {
+            try {
+                var instance = Signature.getInstance(signingKey.algorithm().getSignatureAlgorithm());
+                instance.initSign(signingKey.privateKey());
+                return instance;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
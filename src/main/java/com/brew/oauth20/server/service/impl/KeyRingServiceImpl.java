@@ -0,0 +1,231 @@
+package com.brew.oauth20.server.service.impl;
+
+import com.brew.oauth20.server.model.JwksModel;
+import com.brew.oauth20.server.model.SigningKeyModel;
+import com.brew.oauth20.server.model.enums.SigningAlgorithm;
+import com.brew.oauth20.server.service.KeyRingService;
+import com.brew.oauth20.server.utils.JsonUtils;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.*;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Holds the asymmetric keys tokens are signed with when {@code jwt.signing_algorithm} is not HS256.
+ * <p>
+ * Keys are loaded from a PKCS#12 key store when {@code jwt.key_ring.key_store_location} is set; the key named by
+ * {@code jwt.key_ring.active_key_id} (or the newest one) signs and every key is published. Without a key store startup
+ * fails, unless {@code jwt.key_ring.in_memory_keys_enabled} opts into keys generated in memory, e.g. for development;
+ * those are rotated every {@code jwt.key_ring.rotation_period_minutes}. The next key is published one period
+ * before it starts signing and retired keys stay published for {@code jwt.key_ring.retired_key_retention_minutes}, so
+ * resource servers that cache the JWKS always know the key of a token they receive.
+ */
+@Service
+public class KeyRingServiceImpl implements KeyRingService {
+    private static final Logger logger = LoggerFactory.getLogger(KeyRingServiceImpl.class);
+    private static final Base64.Encoder BASE64_URL_ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final int RSA_KEY_SIZE = 2048;
+    private static final int P256_COORDINATE_SIZE = 32;
+    private static final int ED25519_KEY_SIZE = 32;
+
+    private final SigningAlgorithm algorithm;
+    private final Duration rotationPeriod;
+    private final Duration retiredKeyRetention;
+    private final boolean rotating;
+    private volatile KeyRing keyRing;
+
+    @Autowired
+    public KeyRingServiceImpl(@Value("${jwt.signing_algorithm:HS256}") String algorithm,
+                              @Value("${jwt.key_ring.rotation_period_minutes:1440}") long rotationPeriodMinutes,
+                              @Value("${jwt.key_ring.retired_key_retention_minutes:1440}") long retiredKeyRetentionMinutes,
+                              @Value("${jwt.key_ring.key_store_location:}") String keyStoreLocation,
+                              @Value("${jwt.key_ring.key_store_password:}") String keyStorePassword,
+                              @Value("${jwt.key_ring.active_key_id:}") String activeKeyId,
+                              @Value("${jwt.key_ring.in_memory_keys_enabled:false}") boolean inMemoryKeysEnabled) {
+        this.algorithm = SigningAlgorithm.fromValue(algorithm);
+        this.rotationPeriod = Duration.ofMinutes(rotationPeriodMinutes);
+        this.retiredKeyRetention = Duration.ofMinutes(retiredKeyRetentionMinutes);
+        this.rotating = keyStoreLocation == null || keyStoreLocation.isBlank();
+
+        if (!this.algorithm.isAsymmetric())
+            this.keyRing = new KeyRing(null, null, List.of());
+        else if (rotating && !inMemoryKeysEnabled)
+            throw new IllegalStateException("jwt.key_ring.key_store_location must be set to sign tokens with " + this.algorithm.getValue()
+                    + ", or jwt.key_ring.in_memory_keys_enabled to generate keys in memory");
+        else if (rotating) {
+            logger.warn("jwt.key_ring.key_store_location is not set, generating {} keys in memory; every instance publishes its own keys", this.algorithm.getValue());
+            this.keyRing = new KeyRing(generateKey(), generateKey(), List.of());
+        } else
+            this.keyRing = loadKeyStore(keyStoreLocation, keyStorePassword, activeKeyId);
+    }
+
+    @Override
+    public Optional<SigningKeyModel> getActiveSigningKey() {
+        var current = keyRing;
+        if (current.active() == null)
+            return Optional.empty();
+        if (rotating && isDue(current))
+            current = rotate();
+        return Optional.of(current.active());
+    }
+
+    @Override
+    public JwksModel getJwks() {
+        var current = keyRing;
+        if (rotating && current.active() != null && isDue(current))
+            current = rotate();
+        return current.jwks();
+    }
+
+    private boolean isDue(KeyRing current) {
+        return !current.active().createdAt().plus(rotationPeriod).isAfter(Instant.now());
+    }
+
+    private synchronized KeyRing rotate() {
+        var current = keyRing;
+        if (!isDue(current))
+            return current;
+
+        var now = Instant.now();
+        var retired = Stream.concat(Stream.of(current.active()), current.retired().stream())
+                .filter(x -> x.createdAt().plus(rotationPeriod).plus(retiredKeyRetention).isAfter(now))
+                .toList();
+        var next = current.next();
+        var active = new SigningKeyModel(next.keyId(), next.algorithm(), next.privateKey(), next.publicKey(), now);
+        keyRing = new KeyRing(active, generateKey(), retired);
+        logger.info("Rotated token signing key, active key id {}", active.keyId());
+        return keyRing;
+    }
+
+    private SigningKeyModel generateKey() {
+        try {
+            var keyPairGenerator = KeyPairGenerator.getInstance(algorithm.getKeyAlgorithm());
+            switch (algorithm) {
+                case RS256 -> keyPairGenerator.initialize(RSA_KEY_SIZE);
+                case ES256 -> keyPairGenerator.initialize(new ECGenParameterSpec("secp256r1"));
+                default -> {
+                    // Ed25519 has a single parameter set
+                }
+            }
+            var keyPair = keyPairGenerator.generateKeyPair();
+            return new SigningKeyModel(UUID.randomUUID().toString(), algorithm, keyPair.getPrivate(), keyPair.getPublic(), Instant.now());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to generate " + algorithm.getValue() + " signing key", e);
+        }
+    }
+
+    private KeyRing loadKeyStore(String location, String password, String activeKeyId) {
+        try (var inputStream = new FileInputStream(location)) {
+            var keyStore = KeyStore.getInstance("PKCS12");
+            keyStore.load(inputStream, password.toCharArray());
+
+            var keys = new ArrayList<SigningKeyModel>();
+            for (var alias : Collections.list(keyStore.aliases())) {
+                if (!keyStore.isKeyEntry(alias))
+                    continue;
+                var privateKey = (PrivateKey) keyStore.getKey(alias, password.toCharArray());
+                var publicKey = keyStore.getCertificate(alias).getPublicKey();
+                if (!matchesAlgorithm(publicKey))
+                    continue;
+                keys.add(new SigningKeyModel(alias, algorithm, privateKey, publicKey, keyStore.getCreationDate(alias).toInstant()));
+            }
+            if (keys.isEmpty())
+                throw new IllegalStateException("Key store " + location + " contains no " + algorithm.getValue() + " keys");
+
+            var active = keys.stream()
+                    .filter(x -> activeKeyId.isBlank() || x.keyId().equals(activeKeyId))
+                    .max(Comparator.comparing(SigningKeyModel::createdAt))
+                    .orElseThrow(() -> new IllegalStateException("Key store " + location + " contains no key " + activeKeyId));
+            var published = keys.stream().filter(x -> x != active).toList();
+            logger.info("Loaded {} token signing keys, active key id {}", keys.size(), active.keyId());
+            return new KeyRing(active, null, published);
+        } catch (IOException | GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to load key store " + location, e);
+        }
+    }
+
+    private boolean matchesAlgorithm(PublicKey publicKey) {
+        return switch (algorithm) {
+            case RS256 -> publicKey instanceof RSAPublicKey;
+            case ES256 -> publicKey instanceof ECPublicKey ecPublicKey
+                    && ecPublicKey.getParams().getCurve().getField().getFieldSize() == 256;
+            case EdDSA -> publicKey.getAlgorithm().equals("EdDSA") || publicKey.getAlgorithm().equals("Ed25519");
+            default -> false;
+        };
+    }
+
+    private static JwksModel buildJwks(Stream<SigningKeyModel> keys) {
+        var jwks = Map.of("keys", keys.filter(Objects::nonNull).map(KeyRingServiceImpl::toJwk).toList());
+        try {
+            var document = JsonUtils.objectMapper().writeValueAsString(jwks);
+            var digest = MessageDigest.getInstance("SHA-256").digest(document.getBytes(StandardCharsets.UTF_8));
+            return new JwksModel(document, "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"");
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Unable to build JWKS", e);
+        }
+    }
+
+    private static Map<String, Object> toJwk(SigningKeyModel key) {
+        var jwk = new LinkedHashMap<String, Object>();
+        jwk.put("kid", key.keyId());
+        jwk.put("use", "sig");
+        jwk.put("alg", key.algorithm().getValue());
+        switch (key.algorithm()) {
+            case RS256 -> {
+                var publicKey = (RSAPublicKey) key.publicKey();
+                jwk.put("kty", "RSA");
+                jwk.put("n", encodeUnsigned(publicKey.getModulus(), 0));
+                jwk.put("e", encodeUnsigned(publicKey.getPublicExponent(), 0));
+            }
+            case ES256 -> {
+                var publicKey = (ECPublicKey) key.publicKey();
+                jwk.put("kty", "EC");
+                jwk.put("crv", "P-256");
+                jwk.put("x", encodeUnsigned(publicKey.getW().getAffineX(), P256_COORDINATE_SIZE));
+                jwk.put("y", encodeUnsigned(publicKey.getW().getAffineY(), P256_COORDINATE_SIZE));
+            }
+            case EdDSA -> {
+                // the X.509 encoding of an Ed25519 key ends with the raw 32 byte public key
+                var encoded = key.publicKey().getEncoded();
+                jwk.put("kty", "OKP");
+                jwk.put("crv", "Ed25519");
+                jwk.put("x", BASE64_URL_ENCODER.encodeToString(Arrays.copyOfRange(encoded, encoded.length - ED25519_KEY_SIZE, encoded.length)));
+            }
+            default -> throw new IllegalStateException("Unexpected algorithm " + key.algorithm());
+        }
+        return jwk;
+    }
+
+    private static String encodeUnsigned(BigInteger value, int length) {
+        var bytes = value.toByteArray();
+        if (bytes.length > 1 && bytes[0] == 0)
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        if (bytes.length < length) {
+            var padded = new byte[length];
+            System.arraycopy(bytes, 0, padded, length - bytes.length, bytes.length);
+            bytes = padded;
+        }
+        return BASE64_URL_ENCODER.encodeToString(bytes);
+    }
+
+    private record KeyRing(SigningKeyModel active, SigningKeyModel next, List<SigningKeyModel> retired, JwksModel jwks) {
+        private KeyRing(SigningKeyModel active, SigningKeyModel next, List<SigningKeyModel> retired) {
+            this(active, next, retired, buildJwks(Stream.concat(Stream.of(active, next), retired.stream())));
+        }
+    }
+}
@@ -1,31 +1,38 @@
 package com.brew.oauth20.server.service.impl;
 
+import com.brew.oauth20.server.component.TokenGenerator;
 import com.brew.oauth20.server.data.ClientUser;
 import com.brew.oauth20.server.data.RefreshToken;
 import com.brew.oauth20.server.exception.RefreshTokenNotFoundException;
-import com.brew.oauth20.server.mapper.RefreshTokenMapper;
-import com.brew.oauth20.server.repository.ActiveRefreshTokenRepository;
 import com.brew.oauth20.server.repository.RefreshTokenRepository;
 import com.brew.oauth20.server.service.RefreshTokenService;
-import com.brew.oauth20.server.utils.StringUtils;
+import com.brew.oauth20.server.utils.EncryptionUtils;
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.UUID;
 
 @Service
 public class RefreshTokenServiceImpl implements RefreshTokenService {
 
-    private static final int REFRESH_TOKEN_LENGTH = 64;
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenServiceImpl.class);
+    private static final String ID_SEPARATOR = ".";
     private final RefreshTokenRepository refreshTokenRepository;
-    private final ActiveRefreshTokenRepository activeRefreshTokenRepository;
+    private final TokenGenerator tokenGenerator;
 
     @Autowired
-    public RefreshTokenServiceImpl(RefreshTokenRepository refreshTokenRepository,
-                                   ActiveRefreshTokenRepository activeRefreshTokenRepository) {
+    public RefreshTokenServiceImpl(RefreshTokenRepository refreshTokenRepository, TokenGenerator tokenGenerator) {
         this.refreshTokenRepository = refreshTokenRepository;
-        this.activeRefreshTokenRepository = activeRefreshTokenRepository;
+        this.tokenGenerator = tokenGenerator;
     }
 
     @Override
@@ -33,11 +40,11 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
         OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
         OffsetDateTime expiresAt = now.plusDays(expirationTimeInDays);
 
-        String token = StringUtils.generateSecureRandomString(REFRESH_TOKEN_LENGTH);
+        String secret = tokenGenerator.generateRefreshTokenSecret();
 
         RefreshToken refreshToken = RefreshToken.builder()
                 .clientUser(clientUser)
-                .token(token)
+                .token(EncryptionUtils.hashSecret(secret))
                 .createdAt(OffsetDateTime.now())
                 .updatedAt(OffsetDateTime.now())
                 .expiresAt(expiresAt)
@@ -45,26 +52,83 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
 
         refreshTokenRepository.save(refreshToken);
 
+        // the id is assigned when the row is persisted, the issued value leads with it so redemption is a primary key probe
+        refreshToken.setIssuedToken(refreshToken.getId() + ID_SEPARATOR + secret);
+
         return refreshToken;
     }
 
+    /**
+     * Rotates the token in one transaction: the old row is locked, revoked and pointed at its replacement. A token
+     * that was already rotated is a replay, either of a stolen token or by a client that lost the response, and
+     * revokes every token issued from it.
+     */
     @Override
+    @Transactional(noRollbackFor = RefreshTokenNotFoundException.class)
     public RefreshToken revokeRefreshToken(String clientId, String token, int expirationTimeInDays) {
-        var activeRefreshToken = activeRefreshTokenRepository.findByToken(token);
-
-        if (activeRefreshToken.isEmpty())
+        var existingRefreshToken = findRefreshTokenForUpdate(token)
+                .orElseThrow(() -> new RefreshTokenNotFoundException(token));
+        var now = OffsetDateTime.now();
+
+        if (existingRefreshToken.getRevokedAt() != null) {
+            if (existingRefreshToken.getReplacedByToken() != null) {
+                logger.warn("Rotated refresh token {} was presented again, revoking the tokens issued from it", existingRefreshToken.getId());
+                revokeDescendants(existingRefreshToken, now);
+            }
+            throw new RefreshTokenNotFoundException(token);
+        }
+        if (!existingRefreshToken.getExpiresAt().isAfter(now))
             throw new RefreshTokenNotFoundException(token);
 
-        var existingRefreshToken = RefreshTokenMapper.INSTANCE.toRefreshToken(activeRefreshToken.get());
-
-        var newRefreshToken = createRefreshToken(activeRefreshToken.get().getClientUser(), expirationTimeInDays);
+        // the caller reads the user after the transaction has ended
+        Hibernate.initialize(existingRefreshToken.getClientUser());
+        var newRefreshToken = createRefreshToken(existingRefreshToken.getClientUser(), expirationTimeInDays);
 
         existingRefreshToken.setReplacedByToken(newRefreshToken);
-        existingRefreshToken.setRevokedAt(OffsetDateTime.now());
+        existingRefreshToken.setRevokedAt(now);
+        existingRefreshToken.setUpdatedAt(now);
 
         refreshTokenRepository.save(existingRefreshToken);
 
         return newRefreshToken;
     }
-}
 
+    /**
+     * Resolves {@code <id>.<secret>} by primary key and compares the digest of the secret in constant time. Tokens
+     * issued before the id prefix was introduced are looked up by the digest of the whole value.
+     */
+    private Optional<RefreshToken> findRefreshTokenForUpdate(String token) {
+        var separatorIndex = token.indexOf(ID_SEPARATOR);
+        if (separatorIndex < 0)
+            return refreshTokenRepository.findByTokenForUpdate(EncryptionUtils.hashSecret(token));
+
+        UUID id;
+        try {
+            id = UUID.fromString(token.substring(0, separatorIndex));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        var hash = EncryptionUtils.hashSecret(token.substring(separatorIndex + 1)).getBytes(StandardCharsets.US_ASCII);
+        return refreshTokenRepository.findByIdForUpdate(id)
+                .filter(refreshToken -> MessageDigest.isEqual(hash, refreshToken.getToken().getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    /**
+     * Walks the replacement chain, locking each token so a rotation of the current one in flight either completes
+     * first and its replacement is revoked too, or finds its token revoked.
+     */
+    private void revokeDescendants(RefreshToken refreshToken, OffsetDateTime now) {
+        var replacedByToken = refreshToken.getReplacedByToken();
+        while (replacedByToken != null) {
+            var descendant = refreshTokenRepository.findByIdForUpdate(replacedByToken.getId());
+            if (descendant.isEmpty())
+                return;
+            if (descendant.get().getRevokedAt() == null) {
+                descendant.get().setRevokedAt(now);
+                descendant.get().setUpdatedAt(now);
+                refreshTokenRepository.save(descendant.get());
+            }
+            replacedByToken = descendant.get().getReplacedByToken();
+        }
+    }
+}
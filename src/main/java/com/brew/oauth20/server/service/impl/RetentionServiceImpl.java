@@ -0,0 +1,97 @@
+package com.brew.oauth20.server.service.impl;
+
+import com.brew.oauth20.server.repository.AuthorizationCodeRepository;
+import com.brew.oauth20.server.repository.RefreshTokenRepository;
+import com.brew.oauth20.server.service.RetentionService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Keeps the history tables from growing without bound. Every batch is a delete of its own, so row locks are held
+ * briefly and replicas keep up. A run stops after {@code max_batches_per_run} batches and pauses between batches;
+ * whatever is left is deleted by the next run. Deleted rows are counted as {@code oauth.retention.deleted} per table.
+ */
+@Service
+@ConditionalOnProperty(name = "oauth.retention.enabled", havingValue = "true")
+public class RetentionServiceImpl implements RetentionService {
+    private static final Logger logger = LoggerFactory.getLogger(RetentionServiceImpl.class);
+    private static final String DELETED_METRIC = "oauth.retention.deleted";
+    private static final String RUN_METRIC = "oauth.retention.run";
+
+    private final AuthorizationCodeRepository authorizationCodeRepository;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${oauth.retention.grace_period_hours:168}")
+    private long gracePeriodHours = 168;
+
+    @Value("${oauth.retention.batch_size:1000}")
+    private int batchSize = 1000;
+
+    @Value("${oauth.retention.max_batches_per_run:100}")
+    private int maxBatchesPerRun = 100;
+
+    @Value("${oauth.retention.batch_pause_ms:100}")
+    private long batchPauseMs = 100;
+
+    @Autowired
+    public RetentionServiceImpl(AuthorizationCodeRepository authorizationCodeRepository,
+                                RefreshTokenRepository refreshTokenRepository,
+                                MeterRegistry meterRegistry) {
+        this.authorizationCodeRepository = authorizationCodeRepository;
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    @Scheduled(initialDelayString = "${oauth.retention.interval_ms:300000}", fixedDelayString = "${oauth.retention.interval_ms:300000}")
+    public void purge() {
+        var sample = Timer.start(meterRegistry);
+        var cutoff = OffsetDateTime.now(ZoneOffset.UTC).minusHours(gracePeriodHours);
+        try {
+            if (purge("authorization_codes", batch -> authorizationCodeRepository.deleteExpired(cutoff, batch)))
+                purge("refresh_tokens", batch -> refreshTokenRepository.deleteExpiredOrRevoked(cutoff, batch));
+        } finally {
+            sample.stop(meterRegistry.timer(RUN_METRIC));
+        }
+    }
+
+    /**
+     * @return false when the run was interrupted and should not go on with the next table
+     */
+    private boolean purge(String table, IntUnaryOperator deleteBatch) {
+        var deletedCounter = meterRegistry.counter(DELETED_METRIC, "table", table);
+        for (var batch = 0; batch < maxBatchesPerRun; batch++) {
+            int deleted;
+            try {
+                deleted = deleteBatch.applyAsInt(batchSize);
+            } catch (DataAccessException e) {
+                logger.warn("Retention purge of {} failed, retrying on the next run", table, e);
+                return true;
+            }
+            deletedCounter.increment(deleted);
+            if (deleted < batchSize)
+                return true;
+            try {
+                Thread.sleep(batchPauseMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        logger.info("Retention purge of {} stopped after {} batches, the rest is deleted on the next run", table, maxBatchesPerRun);
+        return true;
+    }
+}
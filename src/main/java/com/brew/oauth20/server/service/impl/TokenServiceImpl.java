@@ -3,6 +3,7 @@ package com.brew.oauth20.server.service.impl;
 import com.brew.oauth20.server.model.ClientModel;
 import com.brew.oauth20.server.model.SignTokenOptions;
 import com.brew.oauth20.server.service.JwtService;
+import com.brew.oauth20.server.service.KeyRingService;
 import com.brew.oauth20.server.service.TokenService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -13,10 +14,12 @@ import java.util.Map;
 public class TokenServiceImpl implements TokenService {
 
     private final JwtService jwtService;
+    private final KeyRingService keyRingService;
 
     @Autowired
-    public TokenServiceImpl(JwtService jwtService) {
+    public TokenServiceImpl(JwtService jwtService, KeyRingService keyRingService) {
         this.jwtService = jwtService;
+        this.keyRingService = keyRingService;
     }
 
     @Override
@@ -27,6 +30,9 @@ public class TokenServiceImpl implements TokenService {
     @Override
     public String generateToken(ClientModel client, String userId, String scope, Map<String, Object> additionalClaims) {
         var signTokenOptions = createSignTokenOptions(client, userId, scope, additionalClaims);
+        var signingKey = keyRingService.getActiveSigningKey();
+        if (signingKey.isPresent())
+            return jwtService.signToken(signTokenOptions, signingKey.get());
         return jwtService.signToken(signTokenOptions);
     }
 
@@ -1,33 +1,42 @@
 package com.brew.oauth20.server.service.impl;
 
+import com.brew.oauth20.server.config.ResilienceConfig;
 import com.brew.oauth20.server.exception.UserIdentityServiceException;
 import com.brew.oauth20.server.http.RestTemplateWrapper;
 import com.brew.oauth20.server.service.UserIdentityService;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
-import org.springframework.web.client.HttpServerErrorException;
 
 import java.util.Map;
 
 @Service
 public class UserIdentityServiceImpl implements UserIdentityService {
     private final RestTemplateWrapper restTemplate;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
 
     @Value("${id_token.user_identity_service_url}")
     String userIdentityServiceUrl;
 
     @Autowired
-    public UserIdentityServiceImpl(RestTemplateWrapper restTemplate) {
+    public UserIdentityServiceImpl(RestTemplateWrapper restTemplate,
+                                   CircuitBreakerRegistry circuitBreakerRegistry,
+                                   BulkheadRegistry bulkheadRegistry) {
         this.restTemplate = restTemplate;
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(ResilienceConfig.USER_IDENTITY_SERVICE);
+        this.bulkhead = bulkheadRegistry.bulkhead(ResilienceConfig.USER_IDENTITY_SERVICE);
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public Map<String, Object> getUserIdentityInfo(String accessToken) {
         try {
             HttpHeaders headers = new HttpHeaders();
@@ -35,10 +44,12 @@ public class UserIdentityServiceImpl implements UserIdentityService {
             headers.add("Authorization", accessToken);
             MultiValueMap<String, Object> requestBody = new LinkedMultiValueMap<>();
             HttpEntity<MultiValueMap<String, Object>> requestEntity = new HttpEntity<>(requestBody, headers);
-            ResponseEntity<JsonNode> responseEntity = restTemplate.exchange(userIdentityServiceUrl, HttpMethod.GET, requestEntity, JsonNode.class);
-            ObjectMapper objectMapper = new ObjectMapper();
-            return objectMapper.convertValue(responseEntity.getBody(), Map.class);
-        } catch (HttpServerErrorException e) {
+            // the message converter reads the body straight into a map, without a JsonNode tree in between
+            ResponseEntity<Map> responseEntity = CircuitBreaker.decorateSupplier(circuitBreaker, Bulkhead.decorateSupplier(bulkhead, () ->
+                    restTemplate.exchange(userIdentityServiceUrl, HttpMethod.GET, requestEntity, Map.class))).get();
+            return responseEntity.getBody();
+        } catch (RuntimeException e) {
+            // server and client errors, timeouts, a full bulkhead and an open circuit all fail the id token
             throw new UserIdentityServiceException(e);
         }
     }
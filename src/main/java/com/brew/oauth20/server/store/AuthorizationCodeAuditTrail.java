@@ -0,0 +1,15 @@
+package com.brew.oauth20.server.store;
+
+import com.brew.oauth20.server.data.AuthorizationCode;
+
+import java.time.OffsetDateTime;
+
+/**
+ * History of authorization codes kept outside the database, written to the authorization_codes table. The history is
+ * not needed to serve requests, so implementations may write it after the request has completed.
+ */
+public interface AuthorizationCodeAuditTrail {
+    void recordIssued(AuthorizationCode authorizationCode);
+
+    void recordRedeemed(String code, String redirectUri, OffsetDateTime usedAt);
+}
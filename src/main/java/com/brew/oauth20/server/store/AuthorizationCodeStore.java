@@ -0,0 +1,28 @@
+package com.brew.oauth20.server.store;
+
+import com.brew.oauth20.server.data.ActiveAuthorizationCode;
+import com.brew.oauth20.server.data.AuthorizationCode;
+
+import java.util.Optional;
+
+/**
+ * Keeps issued authorization codes until they are redeemed or expire. The implementation is chosen with
+ * {@code oauth.authorization_code_store}: {@code jpa} (default) keeps codes in the database, {@code memory} keeps them
+ * in process.
+ */
+public interface AuthorizationCodeStore {
+    void save(AuthorizationCode authorizationCode);
+
+    /**
+     * @return the code when it is unused and unexpired, without consuming it
+     */
+    Optional<ActiveAuthorizationCode> find(String code, String redirectUri);
+
+    /**
+     * Consumes the code. Of several concurrent redemptions of the same code at most one gets it.
+     *
+     * @return the code when this call redeemed it, empty when it is unknown, used, expired or issued for another
+     * redirect uri
+     */
+    Optional<ActiveAuthorizationCode> redeem(String code, String redirectUri);
+}
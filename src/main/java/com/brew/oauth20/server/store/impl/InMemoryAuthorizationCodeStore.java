@@ -0,0 +1,86 @@
+package com.brew.oauth20.server.store.impl;
+
+import com.brew.oauth20.server.data.ActiveAuthorizationCode;
+import com.brew.oauth20.server.data.AuthorizationCode;
+import com.brew.oauth20.server.mapper.AuthorizationCodeMapper;
+import com.brew.oauth20.server.store.AuthorizationCodeAuditTrail;
+import com.brew.oauth20.server.store.AuthorizationCodeStore;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Optional;
+
+/**
+ * Keeps authorization codes in process, so issuing and redeeming a code never touches the database. Codes expire on
+ * Caffeine's timer wheel at their own expiry time and are removed when redeemed. Codes are lost on restart and are not
+ * shared between instances, so this store needs a single instance or sticky routing of /oauth/token to the instance that
+ * served /oauth/authorize.
+ * <p>
+ * With {@code oauth.authorization_code_store.memory.audit_enabled} the codes and their redemption are also recorded in
+ * the {@link AuthorizationCodeAuditTrail}, to keep the history in the authorization_codes table.
+ */
+@Component
+@ConditionalOnProperty(name = "oauth.authorization_code_store", havingValue = "memory")
+public class InMemoryAuthorizationCodeStore implements AuthorizationCodeStore {
+    private final Cache<String, ActiveAuthorizationCode> authorizationCodes;
+    private final Optional<AuthorizationCodeAuditTrail> auditTrail;
+
+    @Autowired
+    public InMemoryAuthorizationCodeStore(Optional<AuthorizationCodeAuditTrail> auditTrail,
+                                          @Value("${oauth.authorization_code_store.memory.maximum_size:1000000}") long maximumSize) {
+        this.auditTrail = auditTrail;
+        this.authorizationCodes = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new AuthorizationCodeExpiry())
+                .scheduler(Scheduler.systemScheduler())
+                .build();
+    }
+
+    @Override
+    public void save(AuthorizationCode authorizationCode) {
+        // the stored copy is never handed to JPA, so the audit write cannot change it
+        authorizationCodes.put(authorizationCode.getCode(), AuthorizationCodeMapper.INSTANCE.toActiveAuthorizationCode(authorizationCode));
+        auditTrail.ifPresent(trail -> trail.recordIssued(authorizationCode));
+    }
+
+    @Override
+    public Optional<ActiveAuthorizationCode> find(String code, String redirectUri) {
+        return Optional.ofNullable(authorizationCodes.getIfPresent(code))
+                .filter(activeAuthorizationCode -> activeAuthorizationCode.getRedirectUri().equals(redirectUri));
+    }
+
+    @Override
+    public Optional<ActiveAuthorizationCode> redeem(String code, String redirectUri) {
+        // only the caller that removes the entry wins, a wrong redirect uri leaves the code usable
+        var redeemed = find(code, redirectUri)
+                .filter(activeAuthorizationCode -> authorizationCodes.asMap().remove(code, activeAuthorizationCode));
+        if (redeemed.isPresent())
+            auditTrail.ifPresent(trail -> trail.recordRedeemed(code, redirectUri, OffsetDateTime.now()));
+        return redeemed;
+    }
+
+    private static final class AuthorizationCodeExpiry implements Expiry<String, ActiveAuthorizationCode> {
+        @Override
+        public long expireAfterCreate(String code, ActiveAuthorizationCode activeAuthorizationCode, long currentTime) {
+            return Math.max(Duration.between(OffsetDateTime.now(), activeAuthorizationCode.getExpiresAt()).toNanos(), 0);
+        }
+
+        @Override
+        public long expireAfterUpdate(String code, ActiveAuthorizationCode activeAuthorizationCode, long currentTime, long currentDuration) {
+            return expireAfterCreate(code, activeAuthorizationCode, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String code, ActiveAuthorizationCode activeAuthorizationCode, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
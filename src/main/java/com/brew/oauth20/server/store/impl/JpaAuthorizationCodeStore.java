@@ -0,0 +1,44 @@
+package com.brew.oauth20.server.store.impl;
+
+import com.brew.oauth20.server.data.ActiveAuthorizationCode;
+import com.brew.oauth20.server.data.AuthorizationCode;
+import com.brew.oauth20.server.repository.ActiveAuthorizationCodeRepository;
+import com.brew.oauth20.server.repository.AuthorizationCodeRepository;
+import com.brew.oauth20.server.store.AuthorizationCodeStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.util.Optional;
+
+@Component
+@ConditionalOnProperty(name = "oauth.authorization_code_store", havingValue = "jpa", matchIfMissing = true)
+public class JpaAuthorizationCodeStore implements AuthorizationCodeStore {
+    private final AuthorizationCodeRepository authorizationCodeRepository;
+    private final ActiveAuthorizationCodeRepository activeAuthorizationCodeRepository;
+
+    @Autowired
+    public JpaAuthorizationCodeStore(AuthorizationCodeRepository authorizationCodeRepository,
+                                     ActiveAuthorizationCodeRepository activeAuthorizationCodeRepository) {
+        this.authorizationCodeRepository = authorizationCodeRepository;
+        this.activeAuthorizationCodeRepository = activeAuthorizationCodeRepository;
+    }
+
+    @Override
+    public void save(AuthorizationCode authorizationCode) {
+        authorizationCodeRepository.save(authorizationCode);
+    }
+
+    @Override
+    public Optional<ActiveAuthorizationCode> find(String code, String redirectUri) {
+        return activeAuthorizationCodeRepository.findByCodeAndRedirectUri(code, redirectUri);
+    }
+
+    @Override
+    public Optional<ActiveAuthorizationCode> redeem(String code, String redirectUri) {
+        // a concurrent redemption of the same code may win between the read and the update, in which case this one fails
+        return find(code, redirectUri)
+                .filter(activeAuthorizationCode -> authorizationCodeRepository.markAsUsed(code, redirectUri, OffsetDateTime.now()) > 0);
+    }
+}
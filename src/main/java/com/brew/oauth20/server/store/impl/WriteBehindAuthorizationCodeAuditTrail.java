@@ -0,0 +1,205 @@
+package com.brew.oauth20.server.store.impl;
+
+import com.brew.oauth20.server.data.AuthorizationCode;
+import com.brew.oauth20.server.repository.AuthorizationCodeRepository;
+import com.brew.oauth20.server.store.AuthorizationCodeAuditTrail;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queues audit rows and writes them from a single background thread in batches, so request threads never wait for the
+ * insert. A batch is written when {@code oauth.audit.batch_size} rows are queued or {@code oauth.audit.flush_interval_ms}
+ * after its first row, in one transaction, and the inserts go out as JDBC batches. When the queue is full a request
+ * thread waits up to {@code oauth.audit.enqueue_timeout_ms} and then writes its row itself, so history is slowed down
+ * but never dropped. A batch that fails is written again one row per transaction, so only the rows that cannot be
+ * written at all are lost.
+ * <p>
+ * A redemption written on a request thread can overtake the insert of its code that is still queued. It is kept as
+ * pending until that insert is committed and then applied to the inserted row.
+ */
+@Component
+@ConditionalOnProperty(name = "oauth.authorization_code_store.memory.audit_enabled", havingValue = "true")
+public class WriteBehindAuthorizationCodeAuditTrail implements AuthorizationCodeAuditTrail {
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindAuthorizationCodeAuditTrail.class);
+    private final AuthorizationCodeRepository authorizationCodeRepository;
+    private final TransactionOperations transactionOperations;
+    private final BlockingQueue<AuditEvent> queue;
+    private final Map<String, AuditEvent> pendingRedemptions = new ConcurrentHashMap<>();
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long enqueueTimeoutMs;
+    private final Thread writer = new Thread(this::run, "authorization-code-audit");
+    private volatile boolean running;
+
+    @Autowired
+    public WriteBehindAuthorizationCodeAuditTrail(AuthorizationCodeRepository authorizationCodeRepository,
+                                                  TransactionOperations transactionOperations,
+                                                  @Value("${oauth.audit.queue_capacity:10000}") int queueCapacity,
+                                                  @Value("${oauth.audit.batch_size:100}") int batchSize,
+                                                  @Value("${oauth.audit.flush_interval_ms:200}") long flushIntervalMs,
+                                                  @Value("${oauth.audit.enqueue_timeout_ms:1000}") long enqueueTimeoutMs) {
+        this.authorizationCodeRepository = authorizationCodeRepository;
+        this.transactionOperations = transactionOperations;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.enqueueTimeoutMs = enqueueTimeoutMs;
+        this.writer.setDaemon(true);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writer.start();
+    }
+
+    /**
+     * Stops taking new batches and writes what is still queued.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    @Override
+    public void recordIssued(AuthorizationCode authorizationCode) {
+        enqueue(new AuditEvent(authorizationCode, authorizationCode.getCode(), authorizationCode.getRedirectUri(), null));
+    }
+
+    @Override
+    public void recordRedeemed(String code, String redirectUri, OffsetDateTime usedAt) {
+        enqueue(new AuditEvent(null, code, redirectUri, usedAt));
+    }
+
+    private void enqueue(AuditEvent event) {
+        try {
+            if (queue.offer(event, enqueueTimeoutMs, TimeUnit.MILLISECONDS))
+                return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.warn("Authorization code audit queue is full, writing on the request thread");
+        write(List.of(event));
+    }
+
+    private void run() {
+        var batch = new ArrayList<AuditEvent>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                var first = running ? queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS) : queue.poll();
+                if (first == null)
+                    continue;
+                batch.add(first);
+                var flushAt = System.nanoTime() + flushIntervalNanos;
+                while (running && batch.size() < batchSize) {
+                    var next = queue.poll(flushAt - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null)
+                        break;
+                    batch.add(next);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+            } catch (InterruptedException e) {
+                // stop() interrupts the wait, the loop then drains the queue without waiting
+            }
+            queue.drainTo(batch, batchSize - batch.size());
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<AuditEvent> batch) {
+        if (batch.isEmpty())
+            return;
+        // a code redeemed before its insert was written is inserted as used instead of being updated afterwards
+        var issued = new LinkedHashMap<String, AuthorizationCode>();
+        var redeemed = new ArrayList<AuditEvent>();
+        for (var event : batch) {
+            if (event.authorizationCode() != null)
+                issued.put(event.code(), event.authorizationCode());
+            else if (issued.containsKey(event.code()))
+                issued.get(event.code()).setUsedAt(event.usedAt());
+            else
+                redeemed.add(event);
+        }
+        try {
+            transactionOperations.executeWithoutResult(status -> {
+                authorizationCodeRepository.saveAll(issued.values());
+                redeemed.forEach(this::markAsUsed);
+            });
+        } catch (RuntimeException e) {
+            logger.warn("Writing {} authorization code audit rows failed, writing them one at a time", batch.size(), e);
+            writeOneByOne(issued, redeemed);
+        }
+        applyPendingRedemptions(issued.keySet());
+    }
+
+    private void writeOneByOne(Map<String, AuthorizationCode> issued, List<AuditEvent> redeemed) {
+        for (var iterator = issued.values().iterator(); iterator.hasNext(); ) {
+            var authorizationCode = iterator.next();
+            // the id generated by the rolled back insert would turn the save into a merge
+            authorizationCode.setId(null);
+            try {
+                transactionOperations.executeWithoutResult(status -> authorizationCodeRepository.save(authorizationCode));
+            } catch (RuntimeException e) {
+                logger.error("Writing the audit row of an authorization code failed", e);
+                pendingRedemptions.remove(authorizationCode.getCode());
+                iterator.remove();
+            }
+        }
+        for (var event : redeemed) {
+            try {
+                transactionOperations.executeWithoutResult(status -> markAsUsed(event));
+            } catch (RuntimeException e) {
+                logger.error("Writing the redemption of an authorization code failed", e);
+            }
+        }
+    }
+
+    /**
+     * The redemption is registered as pending before the update, so either the update sees the committed insert or
+     * the writer sees the pending redemption once the insert is committed.
+     */
+    private void markAsUsed(AuditEvent event) {
+        pendingRedemptions.put(event.code(), event);
+        if (authorizationCodeRepository.markAsUsed(event.code(), event.redirectUri(), event.usedAt()) > 0)
+            pendingRedemptions.remove(event.code(), event);
+    }
+
+    private void applyPendingRedemptions(Iterable<String> insertedCodes) {
+        if (pendingRedemptions.isEmpty())
+            return;
+        for (var code : insertedCodes) {
+            var event = pendingRedemptions.remove(code);
+            if (event == null)
+                continue;
+            try {
+                authorizationCodeRepository.markAsUsed(event.code(), event.redirectUri(), event.usedAt());
+            } catch (RuntimeException e) {
+                logger.error("Writing the redemption of an authorization code failed", e);
+            }
+        }
+    }
+
+    private record AuditEvent(AuthorizationCode authorizationCode, String code, String redirectUri,
+                              OffsetDateTime usedAt) {
+    }
+}
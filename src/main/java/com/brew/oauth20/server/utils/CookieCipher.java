@@ -0,0 +1,129 @@
+package com.brew.oauth20.server.utils;
+
+import javax.crypto.Cipher;
+import javax.crypto.NoSuchPaddingException;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * AES-GCM engine for the encrypted user cookie. Keys are built once, when the cipher is created, and {@link Cipher}
+ * instances are pooled, so decrypting a cookie neither looks the algorithm up in the providers nor rebuilds the key.
+ * The ciphertext is decrypted in place, in the buffer it was decoded into.
+ * <p>
+ * A cookie is the Base64 encoding of the 12 byte IV followed by the ciphertext. To rotate keys, the application that
+ * issues the cookie prefixes it with a key id and a dot ({@code <key id>.<Base64>}); cookies without a prefix are
+ * decrypted with the default key.
+ */
+public final class CookieCipher {
+    public static final char KEY_ID_SEPARATOR = '.';
+    private static final String AES_CIPHER_SPEC = "AES/GCM/NoPadding";
+    private static final String ALGORITHM = "AES";
+    private static final int IV_SIZE = 12; // Recommended IV size for GCM mode
+    private static final int TAG_LENGTH_BITS = 128;
+    private static final SecureRandom secureRandom = new SecureRandom();
+    private static final InstancePool<Cipher> ciphers = new InstancePool<>(CookieCipher::createCipher);
+
+    private final SecretKeySpec defaultKey;
+    private final Map<String, SecretKeySpec> keys;
+
+    /**
+     * @param defaultSecret secret of cookies without a key id prefix
+     * @param secrets       secrets of prefixed cookies by key id
+     */
+    public CookieCipher(String defaultSecret, Map<String, String> secrets) {
+        this.defaultKey = defaultSecret == null || defaultSecret.isEmpty() ? null : toKey(defaultSecret);
+        this.keys = new HashMap<>();
+        secrets.forEach((keyId, secret) -> {
+            if (keyId.indexOf(KEY_ID_SEPARATOR) >= 0)
+                throw new IllegalArgumentException("Cookie key id must not contain '" + KEY_ID_SEPARATOR + "': " + keyId);
+            keys.put(keyId, toKey(secret));
+        });
+    }
+
+    /**
+     * Parses the {@code <key id>:<secret>} pairs of a comma separated list.
+     */
+    public static Map<String, String> parseSecrets(String value) {
+        var secrets = new HashMap<String, String>();
+        if (value == null || value.isBlank())
+            return secrets;
+        for (var entry : value.split(",")) {
+            var separatorIndex = entry.indexOf(':');
+            if (separatorIndex <= 0)
+                throw new IllegalArgumentException("Cookie key must be given as <key id>:<secret>");
+            secrets.put(entry.substring(0, separatorIndex).trim(), entry.substring(separatorIndex + 1).trim());
+        }
+        return secrets;
+    }
+
+    private static SecretKeySpec toKey(String secret) {
+        return new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+    }
+
+    private static Cipher createCipher() {
+        try {
+            return Cipher.getInstance(AES_CIPHER_SPEC);
+        } catch (NoSuchAlgorithmException | NoSuchPaddingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Encrypts with the default key, without a key id prefix.
+     */
+    public String encrypt(String data) throws GeneralSecurityException {
+        return encrypt(data, null);
+    }
+
+    /**
+     * @param keyId id of the key to encrypt with, or null for the default key
+     */
+    public String encrypt(String data, String keyId) throws GeneralSecurityException {
+        var key = resolveKey(keyId);
+        var plainText = data.getBytes(StandardCharsets.UTF_8);
+        var iv = new byte[IV_SIZE];
+        secureRandom.nextBytes(iv); // Generate a new IV for this encryption
+
+        var cipher = ciphers.borrow();
+        cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH_BITS, iv));
+        var encryptedDataWithIv = new byte[IV_SIZE + cipher.getOutputSize(plainText.length)];
+        System.arraycopy(iv, 0, encryptedDataWithIv, 0, IV_SIZE);
+        cipher.doFinal(plainText, 0, plainText.length, encryptedDataWithIv, IV_SIZE);
+        ciphers.release(cipher);
+
+        var encoded = Base64.getEncoder().encodeToString(encryptedDataWithIv);
+        return keyId == null ? encoded : keyId + KEY_ID_SEPARATOR + encoded;
+    }
+
+    public String decrypt(String encryptedData) throws GeneralSecurityException {
+        var separatorIndex = encryptedData.indexOf(KEY_ID_SEPARATOR);
+        var key = resolveKey(separatorIndex < 0 ? null : encryptedData.substring(0, separatorIndex));
+
+        var decodedData = Base64.getDecoder().decode(separatorIndex < 0
+                ? encryptedData
+                : encryptedData.substring(separatorIndex + 1));
+        if (decodedData.length <= IV_SIZE)
+            throw new GeneralSecurityException("Encrypted data is shorter than the IV");
+
+        var cipher = ciphers.borrow();
+        cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH_BITS, decodedData, 0, IV_SIZE));
+        // the plain text is written over the IV, the input and output may share the buffer
+        var length = cipher.doFinal(decodedData, IV_SIZE, decodedData.length - IV_SIZE, decodedData, 0);
+        ciphers.release(cipher);
+        return new String(decodedData, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private SecretKeySpec resolveKey(String keyId) throws GeneralSecurityException {
+        var key = keyId == null ? defaultKey : keys.get(keyId);
+        if (key == null)
+            throw new GeneralSecurityException(keyId == null ? "No default cookie key" : "Unknown cookie key id: " + keyId);
+        return key;
+    }
+}
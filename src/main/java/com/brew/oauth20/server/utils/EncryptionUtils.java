@@ -1,58 +1,69 @@
 package com.brew.oauth20.server.utils;
 
-import javax.crypto.BadPaddingException;
-import javax.crypto.Cipher;
-import javax.crypto.IllegalBlockSizeException;
-import javax.crypto.NoSuchPaddingException;
-import javax.crypto.spec.GCMParameterSpec;
-import javax.crypto.spec.SecretKeySpec;
-import java.security.InvalidAlgorithmParameterException;
-import java.security.InvalidKeyException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.security.SecureRandom;
-import java.util.Arrays;
-import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Map;
 
 public class EncryptionUtils {
-    private static final String AES_CIPHER_SPEC = "AES/GCM/NoPadding";
-    private static final String ALGORITHM = "AES";
-    private static final int IV_SIZE = 12; // Recommended IV size for GCM mode
-    private static final SecureRandom secureRandom = new SecureRandom();
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    private static final InstancePool<MessageDigest> messageDigests = new InstancePool<>(EncryptionUtils::createMessageDigest);
 
     private EncryptionUtils() {
         throw new IllegalStateException("Utility class");
     }
 
-    public static String encrypt(String data, String secret) throws NoSuchPaddingException, NoSuchAlgorithmException, InvalidKeyException, IllegalBlockSizeException, BadPaddingException, InvalidAlgorithmParameterException {
-        var cipher = Cipher.getInstance(AES_CIPHER_SPEC);
-        var encryptionKey = secret.getBytes();
-
-        byte[] iv = new byte[IV_SIZE];
-        secureRandom.nextBytes(iv); // Generate a new IV for this encryption
-
-        GCMParameterSpec paramSpec = new GCMParameterSpec(128, iv); // 128-bit auth tag length
-        cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(encryptionKey, ALGORITHM), paramSpec);
-
-        byte[] encryptedData = cipher.doFinal(data.getBytes());
+    public static String encrypt(String data, String secret) throws GeneralSecurityException {
+        return new CookieCipher(secret, Map.of()).encrypt(data);
+    }
 
-        // Prepend IV to encrypted data and encode the result as Base64
-        byte[] encryptedDataWithIv = new byte[iv.length + encryptedData.length];
-        System.arraycopy(iv, 0, encryptedDataWithIv, 0, iv.length);
-        System.arraycopy(encryptedData, 0, encryptedDataWithIv, iv.length, encryptedData.length);
+    /**
+     * Builds the key on every call, callers that decrypt repeatedly with the same secret should hold a
+     * {@link CookieCipher} instead.
+     */
+    public static String decrypt(String encryptedData, String secret) throws GeneralSecurityException {
+        return new CookieCipher(secret, Map.of()).decrypt(encryptedData);
+    }
 
-        return java.util.Base64.getEncoder().encodeToString(encryptedDataWithIv);
+    /**
+     * Compares the SHA-256 digests of both secrets in constant time, so neither the content nor the length of the
+     * expected secret leaks through the comparison time.
+     */
+    public static boolean verifySecret(String presentedSecret, String expectedSecret) {
+        if (presentedSecret == null || expectedSecret == null)
+            return false;
+        var messageDigest = messageDigests.borrow();
+        var presentedDigest = messageDigest.digest(presentedSecret.getBytes(StandardCharsets.UTF_8));
+        var expectedDigest = messageDigest.digest(expectedSecret.getBytes(StandardCharsets.UTF_8));
+        messageDigests.release(messageDigest);
+        return MessageDigest.isEqual(presentedDigest, expectedDigest);
     }
 
-    public static String decrypt(String encryptedData, String secret) throws NoSuchPaddingException, NoSuchAlgorithmException, InvalidKeyException, IllegalBlockSizeException, BadPaddingException, InvalidAlgorithmParameterException {
-        var cipher = Cipher.getInstance(AES_CIPHER_SPEC);
-        var encryptionKey = secret.getBytes();
+    /**
+     * @return the hex encoded SHA-256 digest of the secret, the form in which issued secrets are stored
+     */
+    public static String hashSecret(String secret) {
+        return digestHex(secret);
+    }
 
-        byte[] decodedData = Base64.getDecoder().decode(encryptedData);
-        GCMParameterSpec paramSpec = new GCMParameterSpec(128, Arrays.copyOfRange(decodedData, 0, IV_SIZE));
+    /**
+     * Hex encoded SHA-256 digest of the value, e.g. to key a cache by a value that should not be held as is. The
+     * digest is taken with a pooled {@link MessageDigest}, so no provider lookup happens per call.
+     */
+    public static String digestHex(String value) {
+        var messageDigest = messageDigests.borrow();
+        var digest = messageDigest.digest(value.getBytes(StandardCharsets.UTF_8));
+        messageDigests.release(messageDigest);
+        return HexFormat.of().formatHex(digest);
+    }
 
-        cipher.init(Cipher.DECRYPT_MODE, new SecretKeySpec(encryptionKey, ALGORITHM), paramSpec);
-        byte[] decryptedDataBytes =
-                cipher.doFinal(Arrays.copyOfRange(decodedData, IV_SIZE, decodedData.length));
-        return new String(decryptedDataBytes);
+    private static MessageDigest createMessageDigest() {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 }
@@ -0,0 +1,41 @@
+package com.brew.oauth20.server.utils;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.function.Supplier;
+
+/**
+ * Bounded pool of reusable instances that are not thread safe, such as {@link javax.crypto.Mac},
+ * {@link java.security.Signature} or {@link javax.crypto.Cipher}. A {@link ThreadLocal} would create one instance per
+ * thread, which is one per request once requests run on virtual threads; the pool keeps as many as are used at once.
+ * <p>
+ * Borrowed instances are released only after a successful use, so an instance left in an unknown state by an
+ * exception is dropped rather than handed to the next caller.
+ */
+public final class InstancePool<T> {
+    private final Supplier<T> factory;
+    private final ArrayBlockingQueue<T> idle;
+
+    public InstancePool(Supplier<T> factory) {
+        this(factory, Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    public InstancePool(Supplier<T> factory, int capacity) {
+        this.factory = factory;
+        this.idle = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * @return an idle instance, or a new one when every pooled instance is in use
+     */
+    public T borrow() {
+        var instance = idle.poll();
+        return instance != null ? instance : factory.get();
+    }
+
+    /**
+     * Returns the instance to the pool, or drops it when the pool is already full.
+     */
+    public void release(T instance) {
+        idle.offer(instance);
+    }
+}
@@ -0,0 +1,40 @@
+package com.brew.oauth20.server.utils;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+
+/**
+ * Shared JSON codec of the request path. An {@link ObjectMapper} is thread safe once configured and caches its
+ * serializers, so one instance is built here instead of one per call.
+ */
+public class JsonUtils {
+    private static final ObjectMapper OBJECT_MAPPER = JsonMapper.builder()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+
+    private JsonUtils() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * @return the shared mapper, which must not be reconfigured by callers
+     */
+    public static ObjectMapper objectMapper() {
+        return OBJECT_MAPPER;
+    }
+
+    /**
+     * Streaming parser for fixed-shape documents that are read field by field without building a tree.
+     */
+    public static JsonParser createParser(String content) throws IOException {
+        return OBJECT_MAPPER.getFactory().createParser(content);
+    }
+
+    public static JsonParser createParser(byte[] content) throws IOException {
+        return OBJECT_MAPPER.getFactory().createParser(content);
+    }
+}
@@ -6,6 +6,8 @@ public class StringUtils {
 
     private static final String DEFAULT_GENERATOR_CHARS = "0123456789abcdefghijklmnopqrstuvwxyz-_ABCDEFGHIJKLMNOPQRSTUVWXYZ";
 
+    private static final SecureRandom secureRandom = new SecureRandom();
+
     private StringUtils() {
     }
 
@@ -28,9 +30,9 @@ public class StringUtils {
     }
 
     private static String generate(int length, String chars) {
-        SecureRandom secureRandom = new SecureRandom();
-        return secureRandom.ints(length, 0, chars.length())
-                .mapToObj(chars::charAt)
-                .collect(StringBuilder::new, StringBuilder::append, StringBuilder::append).toString();
+        var generated = new char[length];
+        for (var i = 0; i < length; i++)
+            generated[i] = chars.charAt(secureRandom.nextInt(chars.length()));
+        return new String(generated);
     }
 }
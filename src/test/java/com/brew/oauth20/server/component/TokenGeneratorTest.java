@@ -0,0 +1,69 @@
+package com.brew.oauth20.server.component;
+
+import com.brew.oauth20.server.component.impl.TokenGeneratorImpl;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.HashSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class TokenGeneratorTest {
+
+    @Test
+    void should_derive_token_length_from_entropy_bits() {
+        // Arrange
+        var tokenGenerator = new TokenGeneratorImpl(192, 385, 2);
+
+        // Act
+        var authorizationCode = tokenGenerator.generateAuthorizationCode();
+        var refreshTokenSecret = tokenGenerator.generateRefreshTokenSecret();
+
+        // Assert
+        assertThat(authorizationCode).hasSize(32).matches("[0-9a-zA-Z-_]+");
+        assertThat(refreshTokenSecret).hasSize(65).matches("[0-9a-zA-Z-_]+");
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 4, 5, 63, 64})
+    void should_generate_tokens_of_any_length(int length) {
+        // Arrange
+        var tokenGenerator = new TokenGeneratorImpl(128, 128, 1);
+
+        // Act
+        var token = tokenGenerator.generate(length);
+
+        // Assert
+        assertThat(token).hasSize(length).matches("[0-9a-zA-Z-_]+");
+    }
+
+    @Test
+    void should_use_every_character_of_the_alphabet() {
+        // Arrange
+        var tokenGenerator = new TokenGeneratorImpl(128, 128, 4);
+        var tokens = new HashSet<String>();
+        var characters = new HashSet<Character>();
+
+        // Act
+        for (var i = 0; i < 1000; i++) {
+            var token = tokenGenerator.generateAuthorizationCode();
+            tokens.add(token);
+            token.chars().forEach(c -> characters.add((char) c));
+        }
+
+        // Assert
+        assertThat(tokens).hasSize(1000);
+        assertThat(characters).hasSize(64);
+    }
+
+    @Test
+    void should_not_accept_less_than_128_bits_of_entropy() {
+        assertThatThrownBy(() -> new TokenGeneratorImpl(127, 384, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
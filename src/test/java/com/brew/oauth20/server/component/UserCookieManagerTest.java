@@ -1,7 +1,10 @@
 package com.brew.oauth20.server.component;
 
 import com.brew.oauth20.server.component.impl.UserCookieManagerImpl;
+import com.brew.oauth20.server.config.CacheConfig;
+import com.brew.oauth20.server.model.UserSessionCacheEntry;
 import com.brew.oauth20.server.service.CookieService;
+import com.brew.oauth20.server.utils.CookieCipher;
 import com.brew.oauth20.server.utils.EncryptionUtils;
 import com.github.javafaker.Faker;
 import org.junit.jupiter.api.*;
@@ -12,14 +15,17 @@ import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.mock.web.MockHttpServletRequest;
-import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.Instant;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
 
 
 @ExtendWith(MockitoExtension.class)
@@ -31,6 +37,8 @@ class UserCookieManagerTest {
     private static Faker faker;
     @Mock
     CookieService cookieService;
+    CookieCipher cookieCipher;
+    ConcurrentMapCacheManager cacheManager;
     UserCookieManagerImpl userCookieManager;
 
     private static Stream<Arguments> should_get_null_value_if_cookie_does_not_exist() {
@@ -48,8 +56,9 @@ class UserCookieManagerTest {
     void Setup() {
         faker = new Faker();
         Mockito.reset(cookieService);
-        userCookieManager = new UserCookieManagerImpl(cookieService);
-        ReflectionTestUtils.setField(userCookieManager, "cookieEncryptionSecret", ENCRYPTION_SECRET);
+        cookieCipher = Mockito.spy(new CookieCipher(ENCRYPTION_SECRET, Map.of()));
+        cacheManager = new ConcurrentMapCacheManager(CacheConfig.USER_SESSIONS_CACHE);
+        userCookieManager = new UserCookieManagerImpl(cookieService, cookieCipher, cacheManager);
     }
 
     @Test
@@ -126,4 +135,60 @@ class UserCookieManagerTest {
         // Assert
         assertThat(actualUserId).isNotPresent();
     }
-}
\ No newline at end of file
+
+    @Test
+    void should_get_user_id_from_verified_cookie_without_decrypting_it_again() throws Exception {
+        // Arrange
+        var userId = faker.letterify("?").repeat(20);
+        var request = new MockHttpServletRequest();
+        var cookieValue = "{"
+                + "\"user_id\": \"" + userId + "\","
+                + "\"expires_at\": " + faker.date().future(5, TimeUnit.DAYS).toInstant().getEpochSecond()
+                + "}";
+        var encryptedCookieValue = EncryptionUtils.encrypt(cookieValue, ENCRYPTION_SECRET);
+        when(cookieService.getCookie(request, USER_COOKIE_KEY))
+                .thenReturn(encryptedCookieValue);
+
+        // Act
+        var firstUserId = userCookieManager.getUser(request);
+        var secondUserId = userCookieManager.getUser(request);
+
+        // Assert
+        assertThat(firstUserId).isPresent().contains(userId);
+        assertThat(secondUserId).isPresent().contains(userId);
+        verify(cookieCipher, times(1)).decrypt(any());
+    }
+
+    @Test
+    void should_get_null_value_if_cached_session_is_expired() throws Exception {
+        // Arrange
+        var request = new MockHttpServletRequest();
+        var encryptedCookieValue = EncryptionUtils.encrypt("{}", ENCRYPTION_SECRET);
+        cacheManager.getCache(CacheConfig.USER_SESSIONS_CACHE).put(EncryptionUtils.digestHex(encryptedCookieValue),
+                new UserSessionCacheEntry(faker.letterify("?").repeat(20), Instant.now().minusSeconds(1)));
+        when(cookieService.getCookie(request, USER_COOKIE_KEY))
+                .thenReturn(encryptedCookieValue);
+
+        // Act
+        var actualUserId = userCookieManager.getUser(request);
+
+        // Assert
+        assertThat(actualUserId).isNotPresent();
+        verify(cookieCipher, never()).decrypt(any());
+    }
+
+    @Test
+    void should_not_cache_cookie_that_cannot_be_decrypted() throws Exception {
+        // Arrange
+        var request = new MockHttpServletRequest();
+        when(cookieService.getCookie(request, USER_COOKIE_KEY))
+                .thenReturn("123");
+
+        // Act
+        userCookieManager.getUser(request);
+        userCookieManager.getUser(request);
+
+        // Assert
+        verify(cookieCipher, times(2)).decrypt(any());
+    }
+}
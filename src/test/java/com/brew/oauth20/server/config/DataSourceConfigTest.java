@@ -0,0 +1,125 @@
+package com.brew.oauth20.server.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class DataSourceConfigTest {
+
+    @Test
+    void should_default_to_size_of_connection_pool() {
+        // Arrange
+        var environment = new MockEnvironment().withProperty("oauth.db.max_concurrent_connections", "");
+        try (var dataSource = new HikariDataSource()) {
+            dataSource.setMaximumPoolSize(25);
+
+            // Act
+            var maxConcurrentConnections = DataSourceConfig.maxConcurrentConnections(environment, dataSource);
+
+            // Assert
+            assertThat(maxConcurrentConnections).isEqualTo(25);
+        }
+    }
+
+    @Test
+    void should_use_configured_limit() {
+        // Arrange
+        var environment = new MockEnvironment().withProperty("oauth.db.max_concurrent_connections", "5");
+        try (var dataSource = new HikariDataSource()) {
+            dataSource.setMaximumPoolSize(25);
+
+            // Act
+            var maxConcurrentConnections = DataSourceConfig.maxConcurrentConnections(environment, dataSource);
+
+            // Assert
+            assertThat(maxConcurrentConnections).isEqualTo(5);
+        }
+    }
+
+    @Test
+    void should_fail_fast_when_every_connection_is_in_use() throws Exception {
+        // Arrange
+        var dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        var limitedDataSource = new DataSourceConfig.ConcurrencyLimitedDataSource(dataSource, 1, 10);
+
+        // Act
+        var connection = limitedDataSource.getConnection();
+
+        // Assert
+        assertThatThrownBy(limitedDataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+        verify(dataSource, times(1)).getConnection();
+        connection.close();
+    }
+
+    @Test
+    void should_release_permit_once_when_connection_is_closed() throws Exception {
+        // Arrange
+        var dataSource = mock(DataSource.class);
+        var targetConnection = mock(Connection.class);
+        when(dataSource.getConnection()).thenReturn(targetConnection);
+        var limitedDataSource = new DataSourceConfig.ConcurrencyLimitedDataSource(dataSource, 1, 10);
+
+        // Act
+        var connection = limitedDataSource.getConnection();
+        connection.close();
+        connection.close();
+        var nextConnection = limitedDataSource.getConnection();
+
+        // Assert
+        assertThat(nextConnection).isNotNull();
+        assertThatThrownBy(limitedDataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+        verify(targetConnection, times(2)).close();
+    }
+
+    @Test
+    void should_release_permit_when_unwrapped_connection_is_closed() throws Exception {
+        // Arrange
+        var dataSource = mock(DataSource.class);
+        var targetConnection = mock(Connection.class);
+        when(dataSource.getConnection()).thenReturn(targetConnection);
+        var limitedDataSource = new DataSourceConfig.ConcurrencyLimitedDataSource(dataSource, 1, 10);
+
+        // Act
+        var connection = limitedDataSource.getConnection();
+        var unwrappedConnection = connection.unwrap(Connection.class);
+        unwrappedConnection.close();
+        var nextConnection = limitedDataSource.getConnection();
+
+        // Assert
+        assertThat(unwrappedConnection).isSameAs(connection);
+        assertThat(connection.isWrapperFor(Connection.class)).isTrue();
+        assertThat(nextConnection).isNotNull();
+        assertThat(connection).isEqualTo(connection).isNotEqualTo(targetConnection).isNotEqualTo(nextConnection);
+        assertThat(connection.hashCode()).isEqualTo(System.identityHashCode(connection));
+        verify(targetConnection, never()).unwrap(any());
+        verify(targetConnection).close();
+    }
+
+    @Test
+    void should_release_permit_when_target_data_source_fails() throws Exception {
+        // Arrange
+        var dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenThrow(new SQLTransientConnectionException("pool exhausted"))
+                .thenReturn(mock(Connection.class));
+        var limitedDataSource = new DataSourceConfig.ConcurrencyLimitedDataSource(dataSource, 1, 10);
+
+        // Act
+        assertThatThrownBy(limitedDataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+        var connection = limitedDataSource.getConnection();
+
+        // Assert
+        assertThat(connection).isNotNull();
+    }
+}
@@ -2,21 +2,24 @@ package com.brew.oauth20.server.filter;
 
 import com.brew.oauth20.server.exception.ClientAuthenticationFailedException;
 import com.brew.oauth20.server.fixture.WebOriginModelFixture;
+import com.brew.oauth20.server.model.WebOriginMatcher;
 import com.brew.oauth20.server.model.WebOriginModel;
 import com.brew.oauth20.server.service.ClientService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
-import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletRequest;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
-import org.springframework.mock.web.DelegatingServletInputStream;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
@@ -27,6 +30,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -34,6 +38,7 @@ import static org.mockito.Mockito.*;
 class CORSFilterTest {
 
     private final List<WebOriginModel> webOriginModels;
+    private final WebOriginMatcher webOriginMatcher;
     @Mock
     private ClientService clientService;
     @InjectMocks
@@ -42,6 +47,7 @@ class CORSFilterTest {
     public CORSFilterTest() {
         var webOriginModelFixture = new WebOriginModelFixture();
         webOriginModels = webOriginModelFixture.createRandomList(2);
+        webOriginMatcher = new WebOriginMatcher(webOriginModels.stream().map(WebOriginModel::webOrigin).toList());
     }
 
     @BeforeEach
@@ -86,7 +92,7 @@ class CORSFilterTest {
         when(request.getHeaders("Origin")).thenReturn(headerValuesEnum);
 
         // Mocking the clientService behavior
-        when(clientService.getWebOrigins(clientId)).thenReturn(webOriginModels);
+        when(clientService.getWebOriginMatcher(clientId)).thenReturn(webOriginMatcher);
 
         // Act
         // Perform the filter operation
@@ -104,9 +110,7 @@ class CORSFilterTest {
         var requestBody = "{\"client_id\": \"" + clientId + "\"}";
         byte[] inputStreamBytes = requestBody.getBytes();
 
-        HttpServletRequest request = mock(HttpServletRequest.class);
-        ServletInputStream servletInputStream = new DelegatingServletInputStream(new ByteArrayInputStream(inputStreamBytes));
-        when(request.getInputStream()).thenReturn(servletInputStream);
+        HttpServletRequest request = new CachedBodyHttpServletRequest(mock(HttpServletRequest.class), inputStreamBytes);
 
         // Access the private method readClientIdFromBody using reflection
         Method readClientIdFromBodyMethod = CORSFilter.class.getDeclaredMethod("readClientIdFromBody", HttpServletRequest.class);
@@ -119,6 +123,78 @@ class CORSFilterTest {
         assertEquals(clientId, result, "The extracted clientId should match the expected value");
     }
 
+    @Test
+    void should_pass_captured_body_and_parsed_parameters_downstream() throws ServletException, IOException {
+        // Arrange
+        var clientId = "testClient";
+        var requestBody = "{\"client_id\": \"" + clientId + "\", \"state\": 42, \"claims\": {\"client_id\": \"other\"}, \"nonce\": null}";
+        var request = new MockHttpServletRequest("POST", "/oauth/authorize");
+        request.addHeader("Origin", webOriginModels.get(0).webOrigin());
+        request.setContent(requestBody.getBytes());
+        var response = new MockHttpServletResponse();
+        FilterChain filterChain = mock(FilterChain.class);
+        when(clientService.getWebOriginMatcher(clientId)).thenReturn(webOriginMatcher);
+
+        // Act
+        corsFilter.doFilterInternal(request, response, filterChain);
+
+        // Assert
+        var requestCaptor = ArgumentCaptor.forClass(ServletRequest.class);
+        verify(filterChain).doFilter(requestCaptor.capture(), eq(response));
+        var filteredRequest = (CachedBodyHttpServletRequest) requestCaptor.getValue();
+        assertEquals(requestBody, new String(filteredRequest.getInputStream().readAllBytes()));
+        assertEquals(requestBody, new String(filteredRequest.getInputStream().readAllBytes()));
+        assertEquals(Map.of("client_id", clientId, "state", "42"), filteredRequest.getRequestParameters());
+        assertSame(filteredRequest.getRequestParameters(), filteredRequest.getRequestParameters());
+        assertEquals(webOriginModels.get(0).webOrigin(), response.getHeader("Access-Control-Allow-Origin"));
+        assertEquals("Origin", response.getHeader("Vary"));
+    }
+
+    @Test
+    void should_not_allow_origin_missing_from_the_client_web_origins() throws ServletException, IOException {
+        // Arrange
+        var clientId = "testClient";
+        var request = new MockHttpServletRequest("POST", "/oauth/token");
+        request.addHeader("Origin", "https://attacker.example.org");
+        request.setParameter("client_id", clientId);
+        var response = new MockHttpServletResponse();
+        FilterChain filterChain = mock(FilterChain.class);
+        when(clientService.getWebOriginMatcher(clientId)).thenReturn(webOriginMatcher);
+
+        // Act
+        corsFilter.doFilterInternal(request, response, filterChain);
+
+        // Assert
+        assertNull(response.getHeader("Access-Control-Allow-Origin"));
+        assertEquals("Origin", response.getHeader("Vary"));
+        verify(filterChain).doFilter(any(), eq(response));
+    }
+
+    @Test
+    void should_reject_request_body_larger_than_the_limit() throws ServletException, IOException {
+        // Arrange
+        ReflectionTestUtils.setField(corsFilter, "maxBodyBytes", 16);
+        var request = new MockHttpServletRequest("POST", "/oauth/token");
+        request.setContent("{\"client_id\": \"testClientId\"}".getBytes());
+        var response = new MockHttpServletResponse();
+        FilterChain filterChain = mock(FilterChain.class);
+
+        // Act
+        corsFilter.doFilterInternal(request, response, filterChain);
+
+        // Assert
+        assertEquals(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE, response.getStatus());
+        assertEquals("Origin", response.getHeader("Vary"));
+        verifyNoInteractions(filterChain, clientService);
+    }
+
+    @Test
+    void should_not_parse_body_that_is_not_a_json_object() {
+        assertNull(CachedBodyHttpServletRequest.parseRequestParameters(new byte[0]));
+        assertNull(CachedBodyHttpServletRequest.parseRequestParameters("[\"client_id\"]".getBytes()));
+        assertNull(CachedBodyHttpServletRequest.parseRequestParameters("{\"client_id\": ".getBytes()));
+    }
+
     @Test
     void should_set_response_status_to_200_for_options_request() throws ServletException, IOException {
         // Arrange
@@ -144,6 +220,8 @@ class CORSFilterTest {
         assertEquals("GET, POST, OPTIONS, HEAD", response.getHeader("Access-Control-Allow-Methods"));
         assertEquals("Authorization, Content-Type", response.getHeader("Access-Control-Allow-Headers"));
         assertEquals("true", response.getHeader("Access-Control-Allow-Credentials"));
+        assertEquals("600", response.getHeader("Access-Control-Max-Age"));
+        assertEquals("Origin", response.getHeader("Vary"));
         // Verify that no other method is called on the response object
         assertNull(response.getContentType());
 
@@ -194,6 +272,7 @@ class CORSFilterTest {
 
         // Verify that no CorsConfiguration was added to the response
         verify(response, never()).setHeader(anyString(), anyString());
+        verify(response).addHeader("Vary", "Origin");
         verify(filterChain).doFilter(any(), eq(response));
     }
 
@@ -211,7 +290,7 @@ class CORSFilterTest {
 
         // Mocking the clientService behavior
         String clientId = "nonExistentClient";
-        when(clientService.getWebOrigins(clientId)).thenReturn(Collections.emptyList());
+        when(clientService.getWebOriginMatcher(clientId)).thenReturn(new WebOriginMatcher(Collections.emptyList()));
 
         // Perform the filter operation and check for the IllegalStateException
         assertThrows(ClientAuthenticationFailedException.class, () -> corsFilter.doFilterInternal(request, response, filterChain));
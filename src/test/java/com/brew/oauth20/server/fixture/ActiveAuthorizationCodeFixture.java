@@ -45,6 +45,7 @@ public class ActiveAuthorizationCodeFixture extends Fixture<ActiveAuthorizationC
                 .supply(field(ActiveAuthorizationCode::getId), UUID::randomUUID)
                 .supply(field(ActiveAuthorizationCode::getExpiresAt), () ->
                         OffsetDateTime.ofInstant(faker.date().future(5, TimeUnit.HOURS).toInstant(), ZoneOffset.UTC))
+                .set(field(ActiveAuthorizationCode::getUsedAt), null)
                 .supply(field(ActiveAuthorizationCode::getRedirectUri), () -> url != null ? url : faker.internet().url())
                 .supply(field(ActiveAuthorizationCode::getClientUser), () -> clientUser != null ? clientUser : clientUserFixture.createRandomOne())
                 .supply(field(ActiveAuthorizationCode::getScope), () -> ScopeUtils.createScopeString(FakerUtils.createRandomEnumList(faker, Scope.values())))
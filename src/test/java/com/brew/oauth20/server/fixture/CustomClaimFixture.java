@@ -1,8 +1,6 @@
 package com.brew.oauth20.server.fixture;
 
 import com.brew.oauth20.server.fixture.abstracts.Fixture;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.http.ResponseEntity;
 
 import java.util.Map;
@@ -17,11 +15,9 @@ public class CustomClaimFixture extends Fixture<Map<String, Object>> {
         return customClaim();
     }
 
-    public ResponseEntity<JsonNode> createRandomOneJsonResponse() {
-        var customClaim = customClaim();
-        var objectMapper = new ObjectMapper();
-        var customClaimJson = objectMapper.convertValue(customClaim, JsonNode.class);
-        return ResponseEntity.ok(customClaimJson);
+    @SuppressWarnings("rawtypes")
+    public ResponseEntity<Map> createRandomOneJsonResponse() {
+        return ResponseEntity.ok(customClaim());
     }
 
     private Map<String, Object> customClaim() {
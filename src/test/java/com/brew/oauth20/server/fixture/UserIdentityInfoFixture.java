@@ -1,8 +1,6 @@
 package com.brew.oauth20.server.fixture;
 
 import com.brew.oauth20.server.fixture.abstracts.Fixture;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.http.ResponseEntity;
 
 import java.util.Map;
@@ -17,11 +15,9 @@ public class UserIdentityInfoFixture extends Fixture<Map<String, Object>> {
         return userIdentityInfo();
     }
 
-    public ResponseEntity<JsonNode> createRandomOneJsonResponse() {
-        var userIdentityInfo = userIdentityInfo();
-        var objectMapper = new ObjectMapper();
-        var userIdentityInfoJson = objectMapper.convertValue(userIdentityInfo, JsonNode.class);
-        return ResponseEntity.ok(userIdentityInfoJson);
+    @SuppressWarnings("rawtypes")
+    public ResponseEntity<Map> createRandomOneJsonResponse() {
+        return ResponseEntity.ok(userIdentityInfo());
     }
 
     private Map<String, Object> userIdentityInfo() {
@@ -0,0 +1,87 @@
+package com.brew.oauth20.server.http;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class OutboundConnectionPoolTest {
+    private static final int REQUEST_COUNT = 400;
+    private static final int THREAD_COUNT = 8;
+
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    @Autowired
+    private RestTemplateWrapper restTemplateWrapper;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    private HttpServer stubServer;
+    private ExecutorService stubServerExecutor;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stubServerExecutor = Executors.newFixedThreadPool(THREAD_COUNT);
+        stubServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        stubServer.createContext("/claims", exchange -> {
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            exchange.getRequestBody().readAllBytes();
+            var body = "{\"role\":\"admin\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        stubServer.setExecutor(stubServerExecutor);
+        stubServer.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stubServer.stop(0);
+        stubServerExecutor.shutdownNow();
+    }
+
+    @Test
+    void should_reuse_pooled_connections_across_calls() throws Exception {
+        // Arrange
+        var url = "http://127.0.0.1:" + stubServer.getAddress().getPort() + "/claims";
+        var headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        var requestEntity = new HttpEntity<>("{\"userId\":\"1\"}", headers);
+        var executor = Executors.newFixedThreadPool(THREAD_COUNT);
+
+        // Act
+        var futures = new ArrayList<Future<Integer>>();
+        try {
+            for (var i = 0; i < REQUEST_COUNT; i++)
+                futures.add(executor.submit(() -> restTemplateWrapper.exchange(url, HttpMethod.POST, requestEntity, String.class).getStatusCode().value()));
+            for (var future : futures)
+                assertThat(future.get(30, TimeUnit.SECONDS)).isEqualTo(200);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Assert
+        assertThat(clientPorts).hasSizeLessThanOrEqualTo(THREAD_COUNT);
+        assertThat(meterRegistry.find("httpcomponents.httpclient.pool.total.connections").gauges()).isNotEmpty();
+    }
+}
@@ -23,7 +23,7 @@ class RestTemplateWrapperImplTest {
     private RestTemplate restTemplate;
 
     public RestTemplateWrapperImplTest() {
-        restTemplateWrapper = new RestTemplateWrapperImpl();
+        restTemplateWrapper = new RestTemplateWrapperImpl(new RestTemplate());
     }
 
     @Test
@@ -0,0 +1,109 @@
+package com.brew.oauth20.server.integration;
+
+import com.brew.oauth20.server.data.ActiveAuthorizationCode;
+import com.brew.oauth20.server.data.ClientUser;
+import com.brew.oauth20.server.fixture.ActiveAuthorizationCodeFixture;
+import com.brew.oauth20.server.fixture.ClientUserFixture;
+import com.brew.oauth20.server.mapper.AuthorizationCodeMapper;
+import com.brew.oauth20.server.repository.ActiveAuthorizationCodeRepository;
+import com.brew.oauth20.server.repository.AuthorizationCodeRepository;
+import com.brew.oauth20.server.repository.ClientRepository;
+import com.brew.oauth20.server.repository.ClientUserRepository;
+import com.brew.oauth20.server.service.AuthorizationCodeService;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Objects;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class AuthorizationCodeRedemptionTest {
+    private static final int THREAD_COUNT = 16;
+
+    @Autowired
+    private AuthorizationCodeService authorizationCodeService;
+    @Autowired
+    private AuthorizationCodeRepository authorizationCodeRepository;
+    @Autowired
+    private ActiveAuthorizationCodeRepository activeAuthorizationCodeRepository;
+    @Autowired
+    private ClientRepository clientRepository;
+    @Autowired
+    private ClientUserRepository clientUserRepository;
+
+    private ClientUser clientUser;
+
+    @BeforeAll
+    void setup() {
+        var clientsUser = new ClientUserFixture().createRandomOne();
+        clientRepository.save(clientsUser.getClient());
+        clientUser = clientUserRepository.save(clientsUser);
+    }
+
+    @AfterAll
+    void emptyData() {
+        authorizationCodeRepository.deleteAll();
+        activeAuthorizationCodeRepository.deleteAll();
+        clientUserRepository.delete(clientUser);
+        clientRepository.delete(clientUser.getClient());
+    }
+
+    @Test
+    void should_redeem_authorization_code_exactly_once_under_concurrent_requests() throws Exception {
+        // Arrange
+        var activeAuthorizationCode = saveAuthorizationCode();
+        var startGate = new CountDownLatch(1);
+        var executor = Executors.newFixedThreadPool(THREAD_COUNT);
+
+        // Act
+        var redemptions = new ArrayList<Future<ActiveAuthorizationCode>>();
+        try {
+            for (var i = 0; i < THREAD_COUNT; i++) {
+                redemptions.add(executor.submit(() -> {
+                    startGate.await();
+                    return authorizationCodeService.getAuthorizationCode(activeAuthorizationCode.getCode(), activeAuthorizationCode.getRedirectUri(), true);
+                }));
+            }
+            startGate.countDown();
+            var redeemed = new ArrayList<ActiveAuthorizationCode>();
+            for (var redemption : redemptions)
+                redeemed.add(redemption.get(30, TimeUnit.SECONDS));
+
+            // Assert
+            assertThat(redeemed.stream().filter(Objects::nonNull)).hasSize(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void should_not_redeem_authorization_code_twice() {
+        // Arrange
+        var activeAuthorizationCode = saveAuthorizationCode();
+
+        // Act
+        var first = authorizationCodeService.getAuthorizationCode(activeAuthorizationCode.getCode(), activeAuthorizationCode.getRedirectUri(), true);
+        var second = authorizationCodeService.getAuthorizationCode(activeAuthorizationCode.getCode(), activeAuthorizationCode.getRedirectUri(), true);
+
+        // Assert
+        assertThat(first).isNotNull();
+        assertThat(second).isNull();
+    }
+
+    private ActiveAuthorizationCode saveAuthorizationCode() {
+        // the test schema has no authorization_codes__active view, so the active row is stored next to the code
+        var activeAuthorizationCode = new ActiveAuthorizationCodeFixture().createRandomOne();
+        activeAuthorizationCode.setClientUser(clientUser);
+        activeAuthorizationCodeRepository.save(activeAuthorizationCode);
+        var authorizationCode = AuthorizationCodeMapper.INSTANCE.toAuthorizationCode(activeAuthorizationCode);
+        authorizationCode.setClientUser(clientUser);
+        authorizationCodeRepository.save(authorizationCode);
+        return activeAuthorizationCode;
+    }
+}
@@ -51,7 +51,6 @@ abstract class BaseAuthorizeControllerTest {
     protected ClientScopeFixture clientScopeFixture;
     protected ClientUserFixture clientUserFixture;
     protected ActiveAuthorizationCodeFixture activeAuthorizationCodeFixture;
-    protected ActiveRefreshTokenFixture activeRefreshTokenFixture;
     protected ClientUserScopeFixture clientUserScopeFixture;
     @Value("${cookie.encryption.secret}")
     protected String cookieEncryptionSecret;
@@ -196,7 +195,6 @@ abstract class BaseAuthorizeControllerTest {
         this.clientUserFixture = new ClientUserFixture();
         this.hookFixture = new HookFixture();
         this.activeAuthorizationCodeFixture = new ActiveAuthorizationCodeFixture();
-        this.activeRefreshTokenFixture = new ActiveRefreshTokenFixture();
         this.clientUserScopeFixture = new ClientUserScopeFixture();
     }
 
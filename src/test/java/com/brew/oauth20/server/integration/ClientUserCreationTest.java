@@ -0,0 +1,109 @@
+package com.brew.oauth20.server.integration;
+
+import com.brew.oauth20.server.data.Client;
+import com.brew.oauth20.server.data.ClientUser;
+import com.brew.oauth20.server.data.enums.Scope;
+import com.brew.oauth20.server.fixture.ClientFixture;
+import com.brew.oauth20.server.fixture.ClientUserScopeFixture;
+import com.brew.oauth20.server.model.ClientUserModel;
+import com.brew.oauth20.server.repository.ClientRepository;
+import com.brew.oauth20.server.repository.ClientUserRepository;
+import com.brew.oauth20.server.repository.ClientUserScopeRepository;
+import com.brew.oauth20.server.service.ClientUserService;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ClientUserCreationTest {
+    private static final int THREAD_COUNT = 16;
+
+    @Autowired
+    private ClientUserService clientUserService;
+    @Autowired
+    private ClientUserRepository clientUserRepository;
+    @Autowired
+    private ClientUserScopeRepository clientUserScopeRepository;
+    @Autowired
+    private ClientRepository clientRepository;
+
+    private Client client;
+
+    @BeforeAll
+    void setup() {
+        client = clientRepository.save(new ClientFixture().createRandomOne(false));
+    }
+
+    @AfterAll
+    void emptyData() {
+        var clientUsers = clientUserRepository.findAll().stream()
+                .filter(clientUser -> clientUser.getClient().getId().equals(client.getId()))
+                .toList();
+        var clientUserIds = clientUsers.stream().map(ClientUser::getId).toList();
+        clientUserScopeRepository.deleteAll(clientUserScopeRepository.findAll().stream()
+                .filter(clientUserScope -> clientUserIds.contains(clientUserScope.getClientUser().getId()))
+                .toList());
+        clientUserRepository.deleteAll(clientUsers);
+        clientRepository.delete(client);
+    }
+
+    @Test
+    void should_create_one_client_user_for_concurrent_first_authorizations() throws Exception {
+        // Arrange
+        var userId = "did:tmrwid:concurrent";
+        var startGate = new CountDownLatch(1);
+        var executor = Executors.newFixedThreadPool(THREAD_COUNT);
+
+        // Act
+        var creations = new ArrayList<Future<ClientUserModel>>();
+        var clientUsers = new ArrayList<ClientUserModel>();
+        try {
+            for (var i = 0; i < THREAD_COUNT; i++) {
+                creations.add(executor.submit(() -> {
+                    startGate.await();
+                    return clientUserService.getOrCreate(client.getClientId(), userId);
+                }));
+            }
+            startGate.countDown();
+            for (var creation : creations)
+                clientUsers.add(creation.get(30, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Assert
+        assertThat(clientUsers.stream().map(ClientUserModel::id).distinct()).hasSize(1);
+        assertThat(clientUserRepository.findByClientIdAndUserId(client.getClientId(), userId)).isPresent();
+        assertThat(clientUserRepository.findAll().stream()
+                .filter(clientUser -> clientUser.getClient().getId().equals(client.getId()) && clientUser.getUserId().equals(userId)))
+                .hasSize(1);
+    }
+
+    @Test
+    void should_reload_granted_scopes_after_client_user_is_evicted() {
+        // Arrange
+        var userId = "did:tmrwid:consent";
+        var clientUser = clientUserService.getOrCreate(client.getClientId(), userId);
+        var clientUserScope = new ClientUserScopeFixture().createRandomOne(clientUserRepository.findById(clientUser.id()).orElseThrow(), Scope.email);
+        clientUserScope.setId(null);
+
+        // Act
+        clientUserScopeRepository.save(clientUserScope);
+        clientUserService.evictClientUser(client.getClientId(), userId);
+        var reloadedClientUser = clientUserService.getOrCreate(client.getClientId(), userId);
+
+        // Assert
+        assertThat(clientUser.grantedScopes().contains(Scope.email)).isFalse();
+        assertThat(reloadedClientUser.grantedScopes().contains(Scope.email)).isTrue();
+    }
+}
@@ -0,0 +1,61 @@
+package com.brew.oauth20.server.integration;
+
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class JwksControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void should_serve_jwks_with_cache_headers() throws Exception {
+        mockMvc.perform(get("/.well-known/jwks.json"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(header().string("Cache-Control", "max-age=300, public"))
+                .andExpect(jsonPath("$.keys").isArray());
+    }
+
+    @Test
+    void should_return_not_modified_for_matching_etag() throws Exception {
+        var eTag = mockMvc.perform(get("/.well-known/jwks.json"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/.well-known/jwks.json").header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void should_return_not_modified_for_etag_in_list_compared_weakly() throws Exception {
+        var eTag = mockMvc.perform(get("/.well-known/jwks.json"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/.well-known/jwks.json").header("If-None-Match", "\"other\", W/" + eTag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void should_return_not_modified_for_wildcard() throws Exception {
+        mockMvc.perform(get("/.well-known/jwks.json").header("If-None-Match", "*"))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void should_serve_jwks_for_non_matching_etag() throws Exception {
+        mockMvc.perform(get("/.well-known/jwks.json").header("If-None-Match", "\"other\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.keys").isArray());
+    }
+}
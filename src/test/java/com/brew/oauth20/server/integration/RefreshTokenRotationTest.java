@@ -0,0 +1,128 @@
+package com.brew.oauth20.server.integration;
+
+import com.brew.oauth20.server.data.ClientUser;
+import com.brew.oauth20.server.data.RefreshToken;
+import com.brew.oauth20.server.exception.RefreshTokenNotFoundException;
+import com.brew.oauth20.server.fixture.ClientUserFixture;
+import com.brew.oauth20.server.repository.ClientRepository;
+import com.brew.oauth20.server.repository.ClientUserRepository;
+import com.brew.oauth20.server.repository.RefreshTokenRepository;
+import com.brew.oauth20.server.service.RefreshTokenService;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class RefreshTokenRotationTest {
+    private static final int THREAD_COUNT = 16;
+    private static final int EXPIRATION_TIME_IN_DAYS = 30;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+    @Autowired
+    private ClientRepository clientRepository;
+    @Autowired
+    private ClientUserRepository clientUserRepository;
+
+    private ClientUser clientUser;
+    private String clientId;
+
+    @BeforeAll
+    void setup() {
+        var clientsUser = new ClientUserFixture().createRandomOne();
+        clientRepository.save(clientsUser.getClient());
+        clientUser = clientUserRepository.save(clientsUser);
+        clientId = clientsUser.getClient().getClientId();
+    }
+
+    @AfterAll
+    void emptyData() {
+        var refreshTokens = refreshTokenRepository.findAll();
+        refreshTokens.forEach(refreshToken -> refreshToken.setReplacedByToken(null));
+        refreshTokenRepository.saveAll(refreshTokens);
+        refreshTokenRepository.deleteAll();
+        clientUserRepository.delete(clientUser);
+        clientRepository.findByClientId(clientId).ifPresent(clientRepository::delete);
+    }
+
+    @Test
+    void should_rotate_refresh_token_exactly_once_under_concurrent_replays() throws Exception {
+        // Arrange
+        var refreshToken = refreshTokenService.createRefreshToken(clientUser, EXPIRATION_TIME_IN_DAYS);
+        var startGate = new CountDownLatch(1);
+        var executor = Executors.newFixedThreadPool(THREAD_COUNT);
+
+        // Act
+        var rotations = new ArrayList<Future<RefreshToken>>();
+        var rotated = new ArrayList<RefreshToken>();
+        var rejected = 0;
+        try {
+            for (var i = 0; i < THREAD_COUNT; i++) {
+                rotations.add(executor.submit(() -> {
+                    startGate.await();
+                    return refreshTokenService.revokeRefreshToken(clientId, refreshToken.getIssuedToken(), EXPIRATION_TIME_IN_DAYS);
+                }));
+            }
+            startGate.countDown();
+            for (var rotation : rotations) {
+                try {
+                    rotated.add(rotation.get(30, TimeUnit.SECONDS));
+                } catch (ExecutionException e) {
+                    assertThat(e).hasCauseInstanceOf(RefreshTokenNotFoundException.class);
+                    rejected++;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Assert
+        assertThat(rotated).hasSize(1);
+        assertThat(rejected).isEqualTo(THREAD_COUNT - 1);
+        var original = refreshTokenRepository.findById(refreshToken.getId()).orElseThrow();
+        assertThat(original.getRevokedAt()).isNotNull();
+        assertThat(original.getReplacedByToken().getId()).isEqualTo(rotated.get(0).getId());
+        // the replays that lost the race revoke the token that won it
+        assertThat(refreshTokenRepository.findById(rotated.get(0).getId()).orElseThrow().getRevokedAt()).isNotNull();
+    }
+
+    @Test
+    void should_revoke_token_family_when_rotated_refresh_token_is_replayed() {
+        // Arrange
+        var first = refreshTokenService.createRefreshToken(clientUser, EXPIRATION_TIME_IN_DAYS);
+        var second = refreshTokenService.revokeRefreshToken(clientId, first.getIssuedToken(), EXPIRATION_TIME_IN_DAYS);
+        var third = refreshTokenService.revokeRefreshToken(clientId, second.getIssuedToken(), EXPIRATION_TIME_IN_DAYS);
+
+        // Act & Assert
+        assertThatThrownBy(() -> refreshTokenService.revokeRefreshToken(clientId, first.getIssuedToken(), EXPIRATION_TIME_IN_DAYS))
+                .isInstanceOf(RefreshTokenNotFoundException.class);
+        assertThat(refreshTokenRepository.findById(third.getId()).orElseThrow().getRevokedAt()).isNotNull();
+        assertThatThrownBy(() -> refreshTokenService.revokeRefreshToken(clientId, third.getIssuedToken(), EXPIRATION_TIME_IN_DAYS))
+                .isInstanceOf(RefreshTokenNotFoundException.class);
+    }
+
+    @Test
+    void should_rotate_replacement_of_rotated_refresh_token() {
+        // Arrange
+        var first = refreshTokenService.createRefreshToken(clientUser, EXPIRATION_TIME_IN_DAYS);
+        var second = refreshTokenService.revokeRefreshToken(clientId, first.getIssuedToken(), EXPIRATION_TIME_IN_DAYS);
+
+        // Act
+        var third = refreshTokenService.revokeRefreshToken(clientId, second.getIssuedToken(), EXPIRATION_TIME_IN_DAYS);
+
+        // Assert
+        assertThat(third.getIssuedToken()).startsWith(third.getId() + ".");
+        assertThat(third.getClientUser().getUserId()).isEqualTo(clientUser.getUserId());
+        assertThat(refreshTokenRepository.findById(second.getId()).orElseThrow().getReplacedByToken().getId()).isEqualTo(third.getId());
+    }
+}
@@ -0,0 +1,122 @@
+package com.brew.oauth20.server.integration;
+
+import com.brew.oauth20.server.data.AuthorizationCode;
+import com.brew.oauth20.server.data.ClientUser;
+import com.brew.oauth20.server.data.RefreshToken;
+import com.brew.oauth20.server.fixture.AuthorizationCodeFixture;
+import com.brew.oauth20.server.fixture.ClientUserFixture;
+import com.brew.oauth20.server.fixture.RefreshTokenFixture;
+import com.brew.oauth20.server.repository.AuthorizationCodeRepository;
+import com.brew.oauth20.server.repository.ClientRepository;
+import com.brew.oauth20.server.repository.ClientUserRepository;
+import com.brew.oauth20.server.repository.RefreshTokenRepository;
+import com.brew.oauth20.server.service.impl.RetentionServiceImpl;
+import com.brew.oauth20.server.utils.EncryptionUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class RetentionPurgeTest {
+    @Autowired
+    private AuthorizationCodeRepository authorizationCodeRepository;
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+    @Autowired
+    private ClientRepository clientRepository;
+    @Autowired
+    private ClientUserRepository clientUserRepository;
+
+    private ClientUser clientUser;
+    private RetentionServiceImpl retentionService;
+
+    @BeforeAll
+    void setup() {
+        var clientsUser = new ClientUserFixture().createRandomOne();
+        clientRepository.save(clientsUser.getClient());
+        clientUser = clientUserRepository.save(clientsUser);
+    }
+
+    @BeforeEach
+    void init() {
+        // one row per batch, so the purge has to go through several of them
+        retentionService = new RetentionServiceImpl(authorizationCodeRepository, refreshTokenRepository, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(retentionService, "gracePeriodHours", 24L);
+        ReflectionTestUtils.setField(retentionService, "batchSize", 1);
+        ReflectionTestUtils.setField(retentionService, "batchPauseMs", 0L);
+    }
+
+    @AfterAll
+    void emptyData() {
+        refreshTokenRepository.deleteAll(refreshTokenRepository.findAll().stream()
+                .filter(refreshToken -> refreshToken.getReplacedByToken() != null).toList());
+        refreshTokenRepository.deleteAll();
+        authorizationCodeRepository.deleteAll();
+        clientUserRepository.delete(clientUser);
+        clientRepository.delete(clientUser.getClient());
+    }
+
+    @Test
+    void should_delete_authorization_codes_expired_before_the_grace_period() {
+        // Arrange
+        var now = OffsetDateTime.now();
+        var longExpired = saveAuthorizationCode(now.minusDays(30));
+        var recentlyExpired = saveAuthorizationCode(now.minusHours(1));
+        var valid = saveAuthorizationCode(now.plusMinutes(5));
+
+        // Act
+        retentionService.purge();
+
+        // Assert
+        assertThat(authorizationCodeRepository.existsById(longExpired.getId())).isFalse();
+        assertThat(authorizationCodeRepository.existsById(recentlyExpired.getId())).isTrue();
+        assertThat(authorizationCodeRepository.existsById(valid.getId())).isTrue();
+    }
+
+    @Test
+    void should_delete_rotated_refresh_tokens_before_their_replacements() {
+        // Arrange
+        var now = OffsetDateTime.now();
+        var expiredReplacement = saveRefreshToken(now.minusDays(20), null, null);
+        var revoked = saveRefreshToken(now.plusDays(10), now.minusDays(30), expiredReplacement);
+        var recentlyRevoked = saveRefreshToken(now.plusDays(10), now.minusHours(1), null);
+        var active = saveRefreshToken(now.plusDays(10), null, null);
+
+        // Act
+        retentionService.purge();
+
+        // Assert
+        assertThat(refreshTokenRepository.existsById(revoked.getId())).isFalse();
+        assertThat(refreshTokenRepository.existsById(expiredReplacement.getId())).isFalse();
+        assertThat(refreshTokenRepository.existsById(recentlyRevoked.getId())).isTrue();
+        assertThat(refreshTokenRepository.existsById(active.getId())).isTrue();
+    }
+
+    private AuthorizationCode saveAuthorizationCode(OffsetDateTime expiresAt) {
+        var authorizationCode = new AuthorizationCodeFixture().createRandomOne();
+        authorizationCode.setId(null);
+        authorizationCode.setClientUser(clientUser);
+        authorizationCode.setExpiresAt(expiresAt);
+        return authorizationCodeRepository.save(authorizationCode);
+    }
+
+    private RefreshToken saveRefreshToken(OffsetDateTime expiresAt, OffsetDateTime revokedAt, RefreshToken replacedByToken) {
+        var refreshToken = new RefreshTokenFixture().createRandomOne();
+        refreshToken.setId(null);
+        refreshToken.setClientUser(clientUser);
+        refreshToken.setToken(EncryptionUtils.hashSecret(UUID.randomUUID().toString()));
+        refreshToken.setExpiresAt(expiresAt);
+        refreshToken.setRevokedAt(revokedAt);
+        refreshToken.setReplacedByToken(replacedByToken);
+        return refreshTokenRepository.save(refreshToken);
+    }
+}
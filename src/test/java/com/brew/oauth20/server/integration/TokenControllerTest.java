@@ -1,15 +1,14 @@
 package com.brew.oauth20.server.integration;
 
-import com.brew.oauth20.server.data.ActiveRefreshToken;
+import com.brew.oauth20.server.data.RefreshToken;
 import com.brew.oauth20.server.data.enums.GrantType;
 import com.brew.oauth20.server.data.enums.HookType;
 import com.brew.oauth20.server.data.enums.ResponseType;
 import com.brew.oauth20.server.fixture.*;
 import com.brew.oauth20.server.http.RestTemplateWrapper;
 import com.brew.oauth20.server.mapper.AuthorizationCodeMapper;
-import com.brew.oauth20.server.mapper.RefreshTokenMapper;
 import com.brew.oauth20.server.repository.*;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.brew.oauth20.server.utils.EncryptionUtils;
 import com.github.javafaker.Faker;
 import org.junit.jupiter.api.*;
 import org.mockito.Mockito;
@@ -26,7 +25,10 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
+import java.time.OffsetDateTime;
 import java.util.Base64;
+import java.util.Map;
+import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
@@ -52,10 +54,11 @@ class TokenControllerTest {
     private String authorizedClientId;
     private String authorizedClientSecret;
     private String authorizedRefreshToken;
+    private UUID authorizedRefreshTokenId;
     private String authorizedState;
     private String authorizedAuthorizationHeader;
-    private ResponseEntity<JsonNode> userIdentityResponse;
-    private ResponseEntity<JsonNode> customClaimResponse;
+    private ResponseEntity<Map> userIdentityResponse;
+    private ResponseEntity<Map> customClaimResponse;
     @Autowired
     private MockMvc mockMvc;
     @Autowired
@@ -73,8 +76,6 @@ class TokenControllerTest {
     @Autowired
     private ClientUserRepository clientUserRepository;
     @Autowired
-    private ActiveRefreshTokenRepository activeRefreshTokenRepository;
-    @Autowired
     private RefreshTokenRepository refreshTokenRepository;
     @MockBean
     private RestTemplateWrapper restTemplate;
@@ -91,7 +92,6 @@ class TokenControllerTest {
         var authorizationCodeFixture = new AuthorizationCodeFixture();
         var activeAuthorizationCodeFixture = new ActiveAuthorizationCodeFixture();
         var clientsUserFixture = new ClientUserFixture();
-        var activeRefreshTokenFixture = new ActiveRefreshTokenFixture();
         var userIdentityInfoFixture = new UserIdentityInfoFixture();
         var customClaimFixture = new CustomClaimFixture();
 
@@ -113,15 +113,21 @@ class TokenControllerTest {
 
         var savedClientUser = clientUserRepository.save(clientsUser);
 
-        ActiveRefreshToken activeRefreshToken = activeRefreshTokenFixture.createRandomOne(savedClientUser);
-
-        authorizedRefreshToken = activeRefreshToken.getToken();
+        var refreshTokenSecret = faker.regexify("[A-Za-z0-9]{64}");
 
-        activeRefreshTokenRepository.save(activeRefreshToken);
+        var now = OffsetDateTime.now();
+        var existingRefreshToken = RefreshToken.builder()
+                .clientUser(savedClientUser)
+                .token(EncryptionUtils.hashSecret(refreshTokenSecret))
+                .createdAt(now)
+                .updatedAt(now)
+                .expiresAt(now.plusDays(1))
+                .build();
 
-        var existingRefreshToken = RefreshTokenMapper.INSTANCE.toRefreshToken(activeRefreshToken);
+        var savedRefreshToken = refreshTokenRepository.save(existingRefreshToken);
 
-        refreshTokenRepository.save(existingRefreshToken);
+        authorizedRefreshTokenId = savedRefreshToken.getId();
+        authorizedRefreshToken = savedRefreshToken.getId() + "." + refreshTokenSecret;
 
         activeAuthorizationCode.setClientUser(savedClientUser);
         activeAuthorizationCodeRepository.save(activeAuthorizationCode);
@@ -177,12 +183,21 @@ class TokenControllerTest {
     @BeforeEach
     void reset() {
         Mockito.reset(restTemplate);
+        // several tests redeem the same authorization code, so each one starts from an unused code
+        var authorizationCodes = authorizationCodeRepository.findAll();
+        authorizationCodes.forEach(authorizationCode -> authorizationCode.setUsedAt(null));
+        authorizationCodeRepository.saveAll(authorizationCodes);
+        // the same goes for the refresh token
+        var refreshToken = refreshTokenRepository.findById(authorizedRefreshTokenId).orElseThrow();
+        refreshToken.setRevokedAt(null);
+        refreshToken.setReplacedByToken(null);
+        refreshTokenRepository.save(refreshToken);
     }
 
     @Test
     void should_return_token_grant_type_authorization_code_ok_test() throws Exception {
-        when(restTemplate.exchange(eq(userIdentityServiceUrl), eq(HttpMethod.GET), any(), eq(JsonNode.class))).thenReturn(userIdentityResponse);
-        when(restTemplate.exchange(eq(authorizedCustomClaimHookEndpoint), eq(HttpMethod.POST), any(), eq(JsonNode.class))).thenReturn(customClaimResponse);
+        when(restTemplate.exchange(eq(userIdentityServiceUrl), eq(HttpMethod.GET), any(), eq(Map.class))).thenReturn(userIdentityResponse);
+        when(restTemplate.exchange(eq(authorizedCustomClaimHookEndpoint), eq(HttpMethod.POST), any(), eq(Map.class))).thenReturn(customClaimResponse);
 
         ResultActions resultActions = this.mockMvc.perform(post("/oauth/token")
                 .contentType(MediaType.APPLICATION_JSON)
@@ -211,8 +226,8 @@ class TokenControllerTest {
 
     @Test
     void should_return_token_with_authorization_header_test() throws Exception {
-        when(restTemplate.exchange(eq(userIdentityServiceUrl), eq(HttpMethod.GET), any(), eq(JsonNode.class))).thenReturn(userIdentityResponse);
-        when(restTemplate.exchange(eq(authorizedCustomClaimHookEndpoint), eq(HttpMethod.POST), any(), eq(JsonNode.class))).thenReturn(customClaimResponse);
+        when(restTemplate.exchange(eq(userIdentityServiceUrl), eq(HttpMethod.GET), any(), eq(Map.class))).thenReturn(userIdentityResponse);
+        when(restTemplate.exchange(eq(authorizedCustomClaimHookEndpoint), eq(HttpMethod.POST), any(), eq(Map.class))).thenReturn(customClaimResponse);
 
         ResultActions resultActions = this.mockMvc.perform(post("/oauth/token")
                 .contentType(MediaType.APPLICATION_JSON)
@@ -273,7 +288,7 @@ class TokenControllerTest {
 
     @Test
     void should_return_token_grant_type_client_credentials_ok_test() throws Exception {
-        when(restTemplate.exchange(eq(authorizedCustomClaimHookEndpoint), eq(HttpMethod.POST), any(), eq(JsonNode.class))).thenReturn(customClaimResponse);
+        when(restTemplate.exchange(eq(authorizedCustomClaimHookEndpoint), eq(HttpMethod.POST), any(), eq(Map.class))).thenReturn(customClaimResponse);
         
         ResultActions resultActions = this.mockMvc.perform(post("/oauth/token")
                 .contentType(MediaType.APPLICATION_JSON)
@@ -298,7 +313,7 @@ class TokenControllerTest {
 
     @Test
     void should_return_token_grant_type_client_credentials_ok_test_without_redirect_url() throws Exception {
-        when(restTemplate.exchange(eq(authorizedCustomClaimHookEndpoint), eq(HttpMethod.POST), any(), eq(JsonNode.class))).thenReturn(customClaimResponse);
+        when(restTemplate.exchange(eq(authorizedCustomClaimHookEndpoint), eq(HttpMethod.POST), any(), eq(Map.class))).thenReturn(customClaimResponse);
 
         ResultActions resultActions = this.mockMvc.perform(post("/oauth/token")
                 .contentType(MediaType.APPLICATION_JSON)
@@ -322,8 +337,8 @@ class TokenControllerTest {
 
     @Test
     void should_return_token_grant_type_refresh_token_ok_test() throws Exception {
-        when(restTemplate.exchange(eq(userIdentityServiceUrl), eq(HttpMethod.GET), any(), eq(JsonNode.class))).thenReturn(userIdentityResponse);
-        when(restTemplate.exchange(eq(authorizedCustomClaimHookEndpoint), eq(HttpMethod.POST), any(), eq(JsonNode.class))).thenReturn(customClaimResponse);
+        when(restTemplate.exchange(eq(userIdentityServiceUrl), eq(HttpMethod.GET), any(), eq(Map.class))).thenReturn(userIdentityResponse);
+        when(restTemplate.exchange(eq(authorizedCustomClaimHookEndpoint), eq(HttpMethod.POST), any(), eq(Map.class))).thenReturn(customClaimResponse);
 
         ResultActions resultActions = this.mockMvc.perform(post("/oauth/token")
                 .contentType(MediaType.APPLICATION_JSON)
@@ -352,8 +367,8 @@ class TokenControllerTest {
 
     @Test
     void should_return_token_grant_type_refresh_token_ok_test_without_redirect_url() throws Exception {
-        when(restTemplate.exchange(eq(userIdentityServiceUrl), eq(HttpMethod.GET), any(), eq(JsonNode.class))).thenReturn(userIdentityResponse);
-        when(restTemplate.exchange(eq(authorizedCustomClaimHookEndpoint), eq(HttpMethod.POST), any(), eq(JsonNode.class))).thenReturn(customClaimResponse);
+        when(restTemplate.exchange(eq(userIdentityServiceUrl), eq(HttpMethod.GET), any(), eq(Map.class))).thenReturn(userIdentityResponse);
+        when(restTemplate.exchange(eq(authorizedCustomClaimHookEndpoint), eq(HttpMethod.POST), any(), eq(Map.class))).thenReturn(customClaimResponse);
 
         ResultActions resultActions = this.mockMvc.perform(post("/oauth/token")
                 .contentType(MediaType.APPLICATION_JSON)
@@ -446,7 +461,7 @@ class TokenControllerTest {
 
     @Test
     void should_return_server_error_when_an_unexpected_exception_occurs_test() throws Exception {
-        when(restTemplate.exchange(eq(userIdentityServiceUrl), eq(HttpMethod.GET), any(), eq(JsonNode.class))).thenThrow(new RuntimeException("Intentional exception for testing"));
+        when(restTemplate.exchange(eq(userIdentityServiceUrl), eq(HttpMethod.GET), any(), eq(Map.class))).thenThrow(new RuntimeException("Intentional exception for testing"));
 
         this.mockMvc.perform(post("/oauth/token")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -0,0 +1,55 @@
+package com.brew.oauth20.server.model;
+
+import com.brew.oauth20.server.data.enums.Scope;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class ScopeSetTest {
+
+    @Test
+    void should_contain_requested_scopes_when_all_are_granted() {
+        var grantedScopes = ScopeSet.of(List.of(Scope.openid, Scope.profile, Scope.email));
+
+        assertThat(grantedScopes.containsAll(ScopeSet.parse("email"))).isTrue();
+        assertThat(grantedScopes.containsAll(ScopeSet.parse("openid profile email"))).isTrue();
+        assertThat(grantedScopes.containsAll(ScopeSet.parse("email email"))).isTrue();
+    }
+
+    @Test
+    void should_not_contain_requested_scopes_when_one_is_missing() {
+        var grantedScopes = ScopeSet.of(List.of(Scope.openid, Scope.profile));
+
+        assertThat(grantedScopes.containsAll(ScopeSet.parse("email"))).isFalse();
+        assertThat(grantedScopes.containsAll(ScopeSet.parse("openid email"))).isFalse();
+        assertThat(ScopeSet.EMPTY.containsAll(ScopeSet.parse("openid"))).isFalse();
+    }
+
+    @Test
+    void should_parse_blank_scope_as_empty() {
+        assertThat(ScopeSet.parse("")).isEqualTo(ScopeSet.EMPTY);
+        assertThat(ScopeSet.parse("     ")).isEqualTo(ScopeSet.EMPTY);
+        assertThat(ScopeSet.EMPTY.containsAll(ScopeSet.parse(" "))).isTrue();
+    }
+
+    @Test
+    void should_not_parse_unknown_or_differently_cased_scope() {
+        assertThat(ScopeSet.parse("offline_access")).isNull();
+        assertThat(ScopeSet.parse("openid address")).isNull();
+        assertThat(ScopeSet.parse("EMAIL")).isNull();
+    }
+
+    @Test
+    void should_set_one_bit_per_scope() {
+        var scopeSet = ScopeSet.of(List.of(Scope.profile));
+
+        assertThat(scopeSet.contains(Scope.profile)).isTrue();
+        assertThat(scopeSet.contains(Scope.openid)).isFalse();
+        assertThat(Integer.bitCount(ScopeSet.parse("openid profile email").bits())).isEqualTo(Scope.values().length);
+    }
+}
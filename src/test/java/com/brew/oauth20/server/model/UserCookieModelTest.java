@@ -32,6 +32,13 @@ class UserCookieModelTest {
                         + "\"email\": \"" + model3.email() + "\","
                         + "\"expires_at\": " + date.toEpochSecond()
                         + "}", model3),
+                Arguments.of("{"
+                        + "\"country_code\": \"90\","
+                        + "\"user_id\": \"" + model3.user_id() + "\","
+                        + "\"profile\": {\"emails\": [\"other@email.com\"]},"
+                        + "\"email\": \"" + model3.email() + "\","
+                        + "\"expires_at\": " + date.toEpochSecond()
+                        + "}", model3),
                 Arguments.of("", null),
                 Arguments.of(null, null)
         );
@@ -40,10 +47,15 @@ class UserCookieModelTest {
     private static Stream<Arguments> should_throw_exception_for_invalid_value_format() {
 
         return Stream.of(
-                Arguments.of(
-                        "invalid_value",
-                        "12345:"
-                )
+                Arguments.of("invalid_value"),
+                Arguments.of("12345:"),
+                Arguments.of("[]"),
+                Arguments.of("{\"user_id\": \"12345\"}"),
+                Arguments.of("{\"expires_at\": 1681809664}"),
+                Arguments.of("{\"user_id\": {\"user_id\": \"12345\", \"expires_at\": 1681809664}}"),
+                Arguments.of("{\"user_id\": [\"12345\"], \"expires_at\": 1681809664}"),
+                Arguments.of("{\"user_id\": \"12345\", \"expires_at\": {\"expires_at\": 1681809664}}"),
+                Arguments.of("{\"user_id\": \"12345\", \"email\": {}, \"expires_at\": 1681809664}")
         );
     }
 
@@ -0,0 +1,54 @@
+package com.brew.oauth20.server.model;
+
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class WebOriginMatcherTest {
+
+    @Test
+    void should_match_registered_origin_regardless_of_trailing_slash_and_case() {
+        var matcher = new WebOriginMatcher(List.of("https://App.Example.com/", "http://localhost:3000"));
+
+        assertThat(matcher.matches("https://app.example.com")).isTrue();
+        assertThat(matcher.matches("HTTPS://APP.EXAMPLE.COM/")).isTrue();
+        assertThat(matcher.matches("http://localhost:3000")).isTrue();
+    }
+
+    @Test
+    void should_not_match_other_scheme_port_or_host() {
+        var matcher = new WebOriginMatcher(List.of("https://app.example.com", "http://localhost:3000"));
+
+        assertThat(matcher.matches("http://app.example.com")).isFalse();
+        assertThat(matcher.matches("http://localhost:3001")).isFalse();
+        assertThat(matcher.matches("https://app.example.com.attacker.org")).isFalse();
+        assertThat(matcher.matches(null)).isFalse();
+    }
+
+    @Test
+    void should_match_any_subdomain_of_wildcard_origin() {
+        var matcher = new WebOriginMatcher(List.of("https://*.example.com", "https://*.tenant.io:8443"));
+
+        assertThat(matcher.matches("https://app.example.com")).isTrue();
+        assertThat(matcher.matches("https://a.b.example.com")).isTrue();
+        assertThat(matcher.matches("https://app.tenant.io:8443")).isTrue();
+        assertThat(matcher.matches("https://example.com")).isFalse();
+        assertThat(matcher.matches("https://app.tenant.io")).isFalse();
+        assertThat(matcher.matches("http://app.example.com")).isFalse();
+        assertThat(matcher.matches("https://app.example.com.attacker.org")).isFalse();
+        assertThat(matcher.matches("https://appexample.com")).isFalse();
+    }
+
+    @Test
+    void should_be_empty_without_web_origins() {
+        var matcher = new WebOriginMatcher(List.of());
+
+        assertThat(matcher.isEmpty()).isTrue();
+        assertThat(matcher.matches("https://app.example.com")).isFalse();
+    }
+}
@@ -22,8 +22,11 @@ import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.core.env.Environment;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import java.util.HashMap;
@@ -60,6 +63,8 @@ class TokenGrantProviderAuthorizationCodeTest {
     UserIdentityService userIdentityService;
     @Mock
     Environment env;
+    @Spy
+    TaskExecutor tokenIssuanceExecutor = new SyncTaskExecutor();
     @InjectMocks
     private TokenGrantProviderAuthorizationCode tokenGrantProviderAuthorizationCode;
 
@@ -131,7 +136,7 @@ class TokenGrantProviderAuthorizationCodeTest {
 
         var tokenModelWithIdTokenAndRefreshToken = TokenModel.builder()
                 .accessToken(accessToken)
-                .refreshToken(refreshToken.getToken())
+                .refreshToken(refreshToken.getIssuedToken())
                 .state(validTokenRequest.getState())
                 .expiresIn(clientModel.tokenExpiresInSeconds())
                 .tokenType("Bearer")
@@ -140,7 +145,7 @@ class TokenGrantProviderAuthorizationCodeTest {
 
         var tokenModelWithRefreshTokenOnly = TokenModel.builder()
                 .accessToken(accessToken)
-                .refreshToken(refreshToken.getToken())
+                .refreshToken(refreshToken.getIssuedToken())
                 .state(validTokenRequest.getState())
                 .expiresIn(clientModel.tokenExpiresInSeconds())
                 .tokenType("Bearer")
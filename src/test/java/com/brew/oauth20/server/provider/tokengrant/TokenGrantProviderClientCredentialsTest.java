@@ -22,7 +22,10 @@ import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import java.util.Map;
@@ -50,6 +53,8 @@ class TokenGrantProviderClientCredentialsTest {
     ClientService clientService;
     @Mock
     CustomClaimService customClaimService;
+    @Spy
+    TaskExecutor tokenIssuanceExecutor = new SyncTaskExecutor();
 
     @InjectMocks
     private TokenGrantProviderClientCredentials tokenGrantProviderClientCredentials;
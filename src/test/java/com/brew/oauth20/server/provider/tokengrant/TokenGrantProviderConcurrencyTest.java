@@ -0,0 +1,267 @@
+package com.brew.oauth20.server.provider.tokengrant;
+
+import com.brew.oauth20.server.data.ActiveAuthorizationCode;
+import com.brew.oauth20.server.data.enums.GrantType;
+import com.brew.oauth20.server.data.enums.HookType;
+import com.brew.oauth20.server.data.enums.ResponseType;
+import com.brew.oauth20.server.exception.CustomClaimHookException;
+import com.brew.oauth20.server.fixture.ActiveAuthorizationCodeFixture;
+import com.brew.oauth20.server.fixture.RefreshTokenFixture;
+import com.brew.oauth20.server.model.*;
+import com.brew.oauth20.server.service.*;
+import com.brew.oauth20.server.service.impl.JwtServiceImpl;
+import com.brew.oauth20.server.service.impl.KeyRingServiceImpl;
+import com.brew.oauth20.server.service.impl.TokenServiceImpl;
+import com.github.javafaker.Faker;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.Environment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class TokenGrantProviderConcurrencyTest {
+    private static final int CLIENT_COUNT = 64;
+    private static final int TOKEN_COUNT = 4000;
+    private static final int THREAD_COUNT = 16;
+
+    private final Faker faker = new Faker();
+    private final Map<String, ClientModel> clients = new HashMap<>();
+    private final Map<String, ActiveAuthorizationCode> authorizationCodes = new HashMap<>();
+    private ClientService clientService;
+    private AuthorizationCodeService authorizationCodeService;
+    private TokenService tokenService;
+    private CustomClaimService customClaimService;
+    private UserIdentityService userIdentityService;
+    private Environment env;
+
+    @BeforeEach
+    void setUp() {
+        clientService = mock(ClientService.class);
+        authorizationCodeService = mock(AuthorizationCodeService.class);
+        customClaimService = mock(CustomClaimService.class);
+        userIdentityService = mock(UserIdentityService.class);
+        env = mock(Environment.class);
+        tokenService = new TokenServiceImpl(new JwtServiceImpl(), new KeyRingServiceImpl("HS256", 1440, 1440, "", "", "", false));
+
+        var activeAuthorizationCodeFixture = new ActiveAuthorizationCodeFixture();
+        for (var i = 0; i < CLIENT_COUNT; i++) {
+            var client = createClient();
+            clients.put(client.clientId(), client);
+            var activeAuthorizationCode = activeAuthorizationCodeFixture.createRandomOne();
+            authorizationCodes.put(client.clientId(), activeAuthorizationCode);
+        }
+
+        when(clientService.getClient(anyString(), anyString()))
+                .thenAnswer(invocation -> clients.get(invocation.<String>getArgument(0)));
+        when(authorizationCodeService.getAuthorizationCode(anyString(), anyString(), anyBoolean()))
+                .thenAnswer(invocation -> authorizationCodes.get(invocation.<String>getArgument(0)));
+        when(env.getProperty(eq("id_token.enabled"), anyString())).thenReturn("false");
+    }
+
+    @Test
+    void should_mint_client_credentials_tokens_for_the_requesting_client_in_parallel() throws Exception {
+        var provider = new TokenGrantProviderClientCredentials(clientService, tokenService, customClaimService, userIdentityService, env, ForkJoinPool.commonPool());
+
+        var failures = mintInParallel(provider, GrantType.client_credentials);
+
+        assertThat(failures).isEmpty();
+    }
+
+    @Test
+    void should_mint_authorization_code_tokens_for_the_requesting_client_in_parallel() throws Exception {
+        var refreshTokenService = mock(RefreshTokenService.class);
+        var provider = new TokenGrantProviderAuthorizationCode(clientService, tokenService, customClaimService, userIdentityService, env, authorizationCodeService, refreshTokenService, ForkJoinPool.commonPool());
+
+        var failures = mintInParallel(provider, GrantType.authorization_code);
+
+        assertThat(failures).isEmpty();
+    }
+
+    @Test
+    void should_store_refresh_token_while_custom_claim_hook_is_in_flight() {
+        // Arrange
+        var client = createClientWithCustomClaimHook(true);
+        var refreshTokenService = mock(RefreshTokenService.class);
+        var refreshTokenStored = new CountDownLatch(1);
+        when(refreshTokenService.createRefreshToken(any(), anyInt())).thenAnswer(invocation -> {
+            refreshTokenStored.countDown();
+            return new RefreshTokenFixture().createRandomOne();
+        });
+        // the hook only answers once the refresh token is stored, which never happens if the two run one after another
+        when(customClaimService.getCustomClaims(any(), anyString())).thenAnswer(invocation -> {
+            if (!refreshTokenStored.await(5, TimeUnit.SECONDS))
+                throw new IllegalStateException("refresh token was not stored while the hook call was in flight");
+            return new HashMap<>(Map.of("role", "admin"));
+        });
+        when(clientService.getClient(client.clientId(), client.clientSecret())).thenReturn(client);
+        var provider = new TokenGrantProviderAuthorizationCode(clientService, tokenService, customClaimService, userIdentityService, env, authorizationCodeService, refreshTokenService, ForkJoinPool.commonPool());
+
+        // Act
+        var token = provider.generateToken(new ClientCredentialsModel(client.clientId(), client.clientSecret()), createTokenRequest(client, GrantType.authorization_code));
+
+        // Assert
+        assertThat(token.getRefreshToken()).isNotBlank();
+        assertThat(parseClaims(client, token.getAccessToken())).containsEntry("role", "admin");
+    }
+
+    @Test
+    void should_fail_when_custom_claim_hook_misses_the_deadline() {
+        // Arrange
+        var client = createClientWithCustomClaimHook(false);
+        when(customClaimService.getCustomClaims(any(), any())).thenAnswer(invocation -> {
+            Thread.sleep(2000);
+            return new HashMap<>();
+        });
+        when(customClaimService.getFallbackCustomClaims(any(), any(), any())).thenAnswer(invocation -> {
+            throw new CustomClaimHookException(invocation.getArgument(2));
+        });
+        when(clientService.getClient(client.clientId(), client.clientSecret())).thenReturn(client);
+        var provider = new TokenGrantProviderClientCredentials(clientService, tokenService, customClaimService, userIdentityService, env, ForkJoinPool.commonPool());
+        ReflectionTestUtils.setField(provider, "tokenIssuanceTimeoutMs", 100L);
+        var clientCredentials = new ClientCredentialsModel(client.clientId(), client.clientSecret());
+        var tokenRequest = createTokenRequest(client, GrantType.client_credentials);
+
+        // Act & Assert
+        assertThatThrownBy(() -> provider.generateToken(clientCredentials, tokenRequest))
+                .isInstanceOf(CustomClaimHookException.class)
+                .hasCauseInstanceOf(TimeoutException.class);
+    }
+
+    @Test
+    void should_issue_fallback_claims_when_custom_claim_hook_misses_the_deadline() {
+        // Arrange
+        var client = createClientWithCustomClaimHook(false);
+        when(customClaimService.getCustomClaims(any(), any())).thenAnswer(invocation -> {
+            Thread.sleep(2000);
+            return new HashMap<>(Map.of("role", "admin"));
+        });
+        when(customClaimService.getFallbackCustomClaims(any(), any(), any(TimeoutException.class)))
+                .thenReturn(new HashMap<>(Map.of("role", "guest")));
+        when(clientService.getClient(client.clientId(), client.clientSecret())).thenReturn(client);
+        var provider = new TokenGrantProviderClientCredentials(clientService, tokenService, customClaimService, userIdentityService, env, ForkJoinPool.commonPool());
+        ReflectionTestUtils.setField(provider, "tokenIssuanceTimeoutMs", 100L);
+
+        // Act
+        var token = provider.generateToken(new ClientCredentialsModel(client.clientId(), client.clientSecret()), createTokenRequest(client, GrantType.client_credentials));
+
+        // Assert
+        assertThat(parseClaims(client, token.getAccessToken())).containsEntry("role", "guest");
+    }
+
+    @Test
+    void should_issue_fallback_claims_without_calling_hook_when_executor_rejects_the_call() {
+        // Arrange
+        var client = createClientWithCustomClaimHook(false);
+        when(customClaimService.getFallbackCustomClaims(any(), any(), any(RejectedExecutionException.class)))
+                .thenReturn(new HashMap<>(Map.of("role", "guest")));
+        when(clientService.getClient(client.clientId(), client.clientSecret())).thenReturn(client);
+        Executor saturatedExecutor = task -> {
+            throw new RejectedExecutionException("saturated");
+        };
+        var provider = new TokenGrantProviderClientCredentials(clientService, tokenService, customClaimService, userIdentityService, env, saturatedExecutor);
+
+        // Act
+        var token = provider.generateToken(new ClientCredentialsModel(client.clientId(), client.clientSecret()), createTokenRequest(client, GrantType.client_credentials));
+
+        // Assert
+        assertThat(parseClaims(client, token.getAccessToken())).containsEntry("role", "guest");
+        verify(customClaimService, never()).getCustomClaims(any(), any());
+    }
+
+    private List<String> mintInParallel(BaseTokenGrantProvider provider, GrantType grantType) throws InterruptedException {
+        var clientIds = new ArrayList<>(clients.keySet());
+        var failures = new ConcurrentLinkedQueue<String>();
+        var startGate = new CountDownLatch(1);
+        var executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        try {
+            var futures = new ArrayList<Future<?>>();
+            for (var i = 0; i < TOKEN_COUNT; i++) {
+                var client = clients.get(clientIds.get(i % clientIds.size()));
+                futures.add(executor.submit(() -> {
+                    startGate.await();
+                    var tokenRequest = createTokenRequest(client, grantType);
+                    var clientCredentials = new ClientCredentialsModel(client.clientId(), client.clientSecret());
+                    var token = provider.generateToken(clientCredentials, tokenRequest);
+                    var claims = parseClaims(client, token.getAccessToken());
+                    if (!client.clientId().equals(claims.get("azp")) || !client.audience().equals(claims.getAudience()))
+                        failures.add(client.clientId() + " received a token issued for " + claims.get("azp"));
+                    return null;
+                }));
+            }
+            startGate.countDown();
+            for (var future : futures) {
+                try {
+                    future.get(30, TimeUnit.SECONDS);
+                } catch (ExecutionException | TimeoutException e) {
+                    failures.add(e.toString());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return new ArrayList<>(failures);
+    }
+
+    private TokenRequestModel createTokenRequest(ClientModel client, GrantType grantType) {
+        // the code is keyed by client id so that each request redeems a code of its own client
+        return TokenRequestModel.builder()
+                .grantType(grantType.getGrantType())
+                .clientId(client.clientId())
+                .clientSecret(client.clientSecret())
+                .redirectUri(client.redirectUriList().get(0).redirectUri())
+                .code(client.clientId())
+                .build();
+    }
+
+    private Claims parseClaims(ClientModel client, String token) {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(client.clientSecretDecoded().getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    private ClientModel createClient() {
+        return createClient(false, List.of());
+    }
+
+    private ClientModel createClientWithCustomClaimHook(boolean issueRefreshTokens) {
+        var client = createClient(issueRefreshTokens, List.of(new HookModel(UUID.randomUUID(), faker.internet().url(), HookType.custom_claim, List.of())));
+        authorizationCodes.put(client.clientId(), new ActiveAuthorizationCodeFixture().createRandomOne());
+        return client;
+    }
+
+    private ClientModel createClient(boolean issueRefreshTokens, List<HookModel> hookList) {
+        var clientSecret = Base64.getUrlEncoder().encodeToString(faker.letterify("?".repeat(64)).getBytes(StandardCharsets.UTF_8));
+        return ClientModel.builder()
+                .id(UUID.randomUUID())
+                .clientId(faker.letterify("?".repeat(16)))
+                .clientSecret(clientSecret)
+                .audience(faker.internet().url())
+                .issuerUri(faker.internet().url())
+                .issueRefreshTokens(issueRefreshTokens)
+                .tokenExpiresInMinutes(60)
+                .refreshTokenExpiresInDays(30)
+                .grantList(List.of(
+                        new GrantModel(1, ResponseType.code, GrantType.client_credentials),
+                        new GrantModel(2, ResponseType.code, GrantType.authorization_code)))
+                .redirectUriList(List.of(new RedirectUriModel(UUID.randomUUID(), faker.internet().url())))
+                .scopeList(List.of())
+                .hookList(hookList)
+                .build();
+    }
+}
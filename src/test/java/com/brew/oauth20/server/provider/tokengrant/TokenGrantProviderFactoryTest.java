@@ -13,6 +13,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.ApplicationContext;
 import org.springframework.core.env.Environment;
+import org.springframework.core.task.SyncTaskExecutor;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.when;
@@ -41,7 +42,7 @@ class TokenGrantProviderFactoryTest {
     void should_return_token_grant_refresh_token_provider_object() {
         Mockito.reset(context);
         Class<?> classType = TokenGrantProviderRefreshToken.class;
-        TokenGrantProviderRefreshToken mockTokenProvider = new TokenGrantProviderRefreshToken(clientService, tokenService, customClaimService, userIdentityService, env, refreshTokenService);
+        TokenGrantProviderRefreshToken mockTokenProvider = new TokenGrantProviderRefreshToken(clientService, tokenService, customClaimService, userIdentityService, env, refreshTokenService, new SyncTaskExecutor());
         when((BaseTokenGrantProvider) context.getBean(classType)).thenReturn(mockTokenProvider);
         when((BaseTokenGrantProvider) context.getBean(classType)).thenReturn(mockTokenProvider);
 
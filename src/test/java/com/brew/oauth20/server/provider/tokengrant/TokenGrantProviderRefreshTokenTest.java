@@ -4,6 +4,7 @@ import com.brew.oauth20.server.data.RefreshToken;
 import com.brew.oauth20.server.data.enums.GrantType;
 import com.brew.oauth20.server.exception.ClientAuthenticationFailedException;
 import com.brew.oauth20.server.exception.OAuthException;
+import com.brew.oauth20.server.exception.RefreshTokenNotFoundException;
 import com.brew.oauth20.server.fixture.*;
 import com.brew.oauth20.server.model.*;
 import com.brew.oauth20.server.model.enums.OAuthError;
@@ -13,6 +14,7 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayNameGeneration;
 import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
@@ -20,8 +22,11 @@ import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.core.env.Environment;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import java.util.HashMap;
@@ -55,6 +60,8 @@ class TokenGrantProviderRefreshTokenTest {
     UserIdentityService userIdentityService;
     @Mock
     Environment env;
+    @Spy
+    TaskExecutor tokenIssuanceExecutor = new SyncTaskExecutor();
     @InjectMocks
     private TokenGrantProviderRefreshToken tokenGrantProviderRefreshToken;
 
@@ -135,7 +142,7 @@ class TokenGrantProviderRefreshTokenTest {
 
         var tokenModelWithIdToken = TokenModel.builder()
                 .accessToken(accessToken)
-                .refreshToken(refreshToken.getToken())
+                .refreshToken(refreshToken.getIssuedToken())
                 .state(validTokenRequest.getState())
                 .expiresIn(client.tokenExpiresInSeconds())
                 .tokenType("Bearer")
@@ -144,7 +151,7 @@ class TokenGrantProviderRefreshTokenTest {
 
         var tokenModelWithoutIdToken = TokenModel.builder()
                 .accessToken(accessToken)
-                .refreshToken(refreshToken.getToken())
+                .refreshToken(refreshToken.getIssuedToken())
                 .state(validTokenRequest.getState())
                 .expiresIn(client.tokenExpiresInSeconds())
                 .tokenType("Bearer")
@@ -263,4 +270,23 @@ class TokenGrantProviderRefreshTokenTest {
         // Assert
         assertThat(result).usingRecursiveComparison().isEqualTo(tokenModel);
     }
+
+    @Test
+    void should_return_invalid_grant_when_refresh_token_is_not_found() {
+        // Arrange
+        var client = clientModelFixture.createRandomOne(1, new GrantType[]{GrantType.refresh_token});
+        var tokenRequest = tokenRequestModelFixture.createRandomOne(new GrantType[]{GrantType.refresh_token});
+        tokenRequest.setClientId(client.clientId());
+        tokenRequest.setClientSecret(client.clientSecret());
+        var clientCredentials = new ClientCredentialsModel(client.clientId(), client.clientSecret());
+        when(clientService.getClient(client.clientId(), client.clientSecret()))
+                .thenReturn(client);
+        when(refreshTokenService.revokeRefreshToken(client.clientId(), tokenRequest.getRefreshToken(), client.refreshTokenExpiresInDays()))
+                .thenThrow(new RefreshTokenNotFoundException(tokenRequest.getRefreshToken()));
+
+        // Act && Assert
+        assertThatThrownBy(() -> tokenGrantProviderRefreshToken.generateToken(clientCredentials, tokenRequest))
+                .isInstanceOf(OAuthException.class)
+                .hasMessage(OAuthError.INVALID_GRANT.getValue());
+    }
 }
@@ -1,10 +1,13 @@
 package com.brew.oauth20.server.service;
 
+import com.brew.oauth20.server.component.TokenGenerator;
+import com.brew.oauth20.server.component.impl.TokenGeneratorImpl;
 import com.brew.oauth20.server.fixture.ActiveAuthorizationCodeFixture;
 import com.brew.oauth20.server.fixture.AuthorizationCodeFixture;
 import com.brew.oauth20.server.repository.ActiveAuthorizationCodeRepository;
 import com.brew.oauth20.server.repository.AuthorizationCodeRepository;
 import com.brew.oauth20.server.service.impl.AuthorizationCodeServiceImpl;
+import com.brew.oauth20.server.store.impl.JpaAuthorizationCodeStore;
 import org.junit.jupiter.api.DisplayNameGeneration;
 import org.junit.jupiter.api.DisplayNameGenerator;
 import org.junit.jupiter.api.Test;
@@ -23,6 +26,7 @@ import static org.mockito.Mockito.*;
 @DataJpaTest
 @DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
 class AuthorizationCodeServiceTest {
+    private final TokenGenerator tokenGenerator = new TokenGeneratorImpl(192, 384, 1);
     @Mock
     private ActiveAuthorizationCodeRepository activeAuthorizationCodeRepository;
     @Mock
@@ -37,7 +41,7 @@ class AuthorizationCodeServiceTest {
 
         var activeAuthorizationCode = activeAuthorizationCodeFixture.createRandomOne();
 
-        var authorizationCodeService = new AuthorizationCodeServiceImpl(authorizationCodeRepository, activeAuthorizationCodeRepository);
+        var authorizationCodeService = new AuthorizationCodeServiceImpl(new JpaAuthorizationCodeStore(authorizationCodeRepository, activeAuthorizationCodeRepository), tokenGenerator);
 
         var result = authorizationCodeService.createAuthorizationCode(
                 activeAuthorizationCode.getRedirectUri(),
@@ -66,7 +70,7 @@ class AuthorizationCodeServiceTest {
         when(activeAuthorizationCodeRepository.findByCodeAndRedirectUri(activeAuthorizationCode.getCode(), activeAuthorizationCode.getRedirectUri()))
                 .thenReturn(Optional.of(activeAuthorizationCode));
 
-        var authorizationCodeService = new AuthorizationCodeServiceImpl(authorizationCodeRepository, activeAuthorizationCodeRepository);
+        var authorizationCodeService = new AuthorizationCodeServiceImpl(new JpaAuthorizationCodeStore(authorizationCodeRepository, activeAuthorizationCodeRepository), tokenGenerator);
 
         var result = authorizationCodeService.getAuthorizationCode(activeAuthorizationCode.getCode(), activeAuthorizationCode.getRedirectUri(), false);
 
@@ -81,7 +85,7 @@ class AuthorizationCodeServiceTest {
 
         var authorizationCode = authorizationCodeFixture.createRandomOne();
 
-        var authorizationCodeService = new AuthorizationCodeServiceImpl(authorizationCodeRepository, activeAuthorizationCodeRepository);
+        var authorizationCodeService = new AuthorizationCodeServiceImpl(new JpaAuthorizationCodeStore(authorizationCodeRepository, activeAuthorizationCodeRepository), tokenGenerator);
 
         var result = authorizationCodeService.getAuthorizationCode(authorizationCode.getCode(), authorizationCode.getRedirectUri(), false);
 
@@ -98,17 +102,34 @@ class AuthorizationCodeServiceTest {
 
         when(activeAuthorizationCodeRepository.findByCodeAndRedirectUri(activeAuthorizationCode.getCode(), activeAuthorizationCode.getRedirectUri()))
                 .thenReturn(Optional.of(activeAuthorizationCode));
+        when(authorizationCodeRepository.markAsUsed(eq(activeAuthorizationCode.getCode()), eq(activeAuthorizationCode.getRedirectUri()), any()))
+                .thenReturn(1);
 
-        var authorizationCodeService = new AuthorizationCodeServiceImpl(authorizationCodeRepository, activeAuthorizationCodeRepository);
+        var authorizationCodeService = new AuthorizationCodeServiceImpl(new JpaAuthorizationCodeStore(authorizationCodeRepository, activeAuthorizationCodeRepository), tokenGenerator);
 
         var result = authorizationCodeService.getAuthorizationCode(activeAuthorizationCode.getCode(), activeAuthorizationCode.getRedirectUri(), true);
 
         assertThat(result).isEqualTo(activeAuthorizationCode);
-        verify(authorizationCodeRepository).save(argThat(x ->
-                x.getClientUser().getUserId().equals(activeAuthorizationCode.getClientUser().getUserId())
-                        && x.getRedirectUri().equals(activeAuthorizationCode.getRedirectUri())
-                        && x.getClientUser().getClient().equals(activeAuthorizationCode.getClientUser().getClient())
-                        && x.getExpiresAt().getDayOfYear() == activeAuthorizationCode.getExpiresAt().getDayOfYear()
-        ));
+        verify(authorizationCodeRepository).markAsUsed(eq(activeAuthorizationCode.getCode()), eq(activeAuthorizationCode.getRedirectUri()), any());
+        verify(authorizationCodeRepository, never()).save(any());
+    }
+
+    @Test
+    void should_not_return_authorization_code_redeemed_by_concurrent_request() {
+
+        activeAuthorizationCodeFixture = new ActiveAuthorizationCodeFixture();
+
+        var activeAuthorizationCode = activeAuthorizationCodeFixture.createRandomOne();
+
+        when(activeAuthorizationCodeRepository.findByCodeAndRedirectUri(activeAuthorizationCode.getCode(), activeAuthorizationCode.getRedirectUri()))
+                .thenReturn(Optional.of(activeAuthorizationCode));
+        when(authorizationCodeRepository.markAsUsed(eq(activeAuthorizationCode.getCode()), eq(activeAuthorizationCode.getRedirectUri()), any()))
+                .thenReturn(0);
+
+        var authorizationCodeService = new AuthorizationCodeServiceImpl(new JpaAuthorizationCodeStore(authorizationCodeRepository, activeAuthorizationCodeRepository), tokenGenerator);
+
+        var result = authorizationCodeService.getAuthorizationCode(activeAuthorizationCode.getCode(), activeAuthorizationCode.getRedirectUri(), true);
+
+        assertThat(result).isNull();
     }
 }
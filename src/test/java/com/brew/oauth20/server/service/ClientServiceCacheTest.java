@@ -0,0 +1,84 @@
+package com.brew.oauth20.server.service;
+
+import com.brew.oauth20.server.config.CacheConfig;
+import com.brew.oauth20.server.fixture.ClientFixture;
+import com.brew.oauth20.server.repository.ClientRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+
+import java.util.Objects;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class ClientServiceCacheTest {
+
+    @MockBean
+    private ClientRepository clientRepository;
+    @Autowired
+    private ClientService clientService;
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        Objects.requireNonNull(cacheManager.getCache(CacheConfig.CLIENTS_CACHE)).clear();
+    }
+
+    @Test
+    void should_serve_repeated_lookups_from_cache() {
+        var client = new ClientFixture().createRandomOne(false);
+        when(clientRepository.findByClientId(client.getClientId())).thenReturn(Optional.of(client));
+
+        var first = clientService.getClient(client.getClientId());
+        var second = clientService.getClient(client.getClientId());
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.clientId()).isEqualTo(client.getClientId());
+        verify(clientRepository, times(1)).findByClientId(client.getClientId());
+    }
+
+    @Test
+    void should_reload_client_after_eviction() {
+        var client = new ClientFixture().createRandomOne(false);
+        when(clientRepository.findByClientId(client.getClientId())).thenReturn(Optional.of(client));
+
+        clientService.getClient(client.getClientId());
+        clientService.evictClient(client.getClientId());
+        clientService.getClient(client.getClientId());
+
+        verify(clientRepository, times(2)).findByClientId(client.getClientId());
+    }
+
+    @Test
+    void should_not_cache_missing_client() {
+        when(clientRepository.findByClientId("missing")).thenReturn(Optional.empty());
+
+        assertThat(clientService.getClient("missing")).isNull();
+        assertThat(clientService.getClient("missing")).isNull();
+
+        verify(clientRepository, times(2)).findByClientId("missing");
+    }
+
+    @Test
+    void should_return_immutable_snapshot() {
+        var client = new ClientFixture().createRandomOne(false);
+        when(clientRepository.findByClientId(client.getClientId())).thenReturn(Optional.of(client));
+
+        var clientModel = clientService.getClient(client.getClientId());
+
+        var redirectUriList = clientModel.redirectUriList();
+        assertThatThrownBy(redirectUriList::clear)
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+}
@@ -1,5 +1,6 @@
 package com.brew.oauth20.server.service;
 
+import com.brew.oauth20.server.config.CacheConfig;
 import com.brew.oauth20.server.data.Client;
 import com.brew.oauth20.server.data.WebOrigin;
 import com.brew.oauth20.server.fixture.ClientFixture;
@@ -14,9 +15,13 @@ import org.junit.jupiter.api.DisplayNameGeneration;
 import org.junit.jupiter.api.DisplayNameGenerator;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mapstruct.factory.Mappers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import java.util.Base64;
@@ -24,7 +29,7 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(SpringExtension.class)
 @DataJpaTest
@@ -39,6 +44,10 @@ class ClientServiceTest {
     private WebOriginRepository webOriginRepository;
     @Mock
     private WebOriginMapper webOriginMapper;
+    @Mock
+    private JwtService jwtService;
+    @Spy
+    private CacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.CLIENTS_CACHE, CacheConfig.WEB_ORIGINS_CACHE);
 
 
     private ClientFixture clientFixture;
@@ -70,17 +79,54 @@ class ClientServiceTest {
         clientFixture = new ClientFixture();
 
         var client = clientFixture.createRandomOne(true);
+        var clientModel = Mappers.getMapper(ClientMapper.class).toDTO(client);
 
-        Optional<Client> optionalClient = Optional.of(client);
+        when(clientRepository.findByClientId(client.getClientId()))
+                .thenReturn(Optional.of(client));
+        when(clientMapper.toDTO(client))
+                .thenReturn(clientModel);
 
-        when(clientRepository.findByClientIdAndClientSecret(client.getClientId(), client.getClientSecret()))
-                .thenReturn(optionalClient);
+        var result = clientService.getClient(client.getClientId(), client.getClientSecret());
 
-        var expected = optionalClient.map(clientMapper::toDTO).orElse(null);
+        assertThat(result).isEqualTo(clientModel);
+    }
 
+    @Test
+    void should_not_get_client_with_wrong_client_secret() {
+
+        clientFixture = new ClientFixture();
+
+        var client = clientFixture.createRandomOne(true);
+        var clientModel = Mappers.getMapper(ClientMapper.class).toDTO(client);
+
+        when(clientRepository.findByClientId(client.getClientId()))
+                .thenReturn(Optional.of(client));
+        when(clientMapper.toDTO(client))
+                .thenReturn(clientModel);
+
+        var result = clientService.getClient(client.getClientId(), client.getClientSecret() + "x");
+
+        assertThat(result).isNull();
+    }
+
+    @Test
+    void should_verify_client_secret_against_cached_client() {
+
+        clientFixture = new ClientFixture();
+
+        var client = clientFixture.createRandomOne(true);
+        var clientModel = Mappers.getMapper(ClientMapper.class).toDTO(client);
+
+        when(clientRepository.findByClientId(client.getClientId()))
+                .thenReturn(Optional.of(client));
+        when(clientMapper.toDTO(client))
+                .thenReturn(clientModel);
+
+        clientService.getClient(client.getClientId(), client.getClientSecret());
         var result = clientService.getClient(client.getClientId(), client.getClientSecret());
 
-        assertThat(expected).isEqualTo(result);
+        assertThat(result).isEqualTo(clientModel);
+        verify(clientRepository, times(1)).findByClientId(client.getClientId());
     }
 
     @Test
@@ -131,6 +177,54 @@ class ClientServiceTest {
                 .containsExactlyElementsOf(expectedWebOriginModels);
     }
 
+    @Test
+    void should_serve_web_origin_matcher_from_cache_until_client_is_evicted() {
+        // Arrange
+        String clientId = "testClient";
+        stubClient(clientId);
+        List<WebOrigin> webOrigins = new WebOriginFixture().createRandomList(2);
+        var webOriginModels = webOrigins.stream().map(WebOriginMapper.INSTANCE::toModel).toList();
+        when(webOriginRepository.findByClientId(clientId)).thenReturn(webOrigins);
+        when(webOriginMapper.toModelList(webOrigins)).thenReturn(webOriginModels);
+
+        // Act
+        var first = clientService.getWebOriginMatcher(clientId);
+        var second = clientService.getWebOriginMatcher(clientId);
+        clientService.evictClient(clientId);
+        clientService.getWebOriginMatcher(clientId);
+
+        // Assert
+        assertThat(second).isSameAs(first);
+        assertThat(first.matches(webOriginModels.get(0).webOrigin())).isTrue();
+        verify(webOriginRepository, times(2)).findByClientId(clientId);
+    }
+
+    @Test
+    void should_evict_signer_with_client() {
+        // Act
+        clientService.evictClient("testClient");
+        clientService.evictAllClients();
+
+        // Assert
+        verify(jwtService).evictSigner("testClient");
+        verify(jwtService).evictAllSigners();
+    }
+
+    @Test
+    void should_not_cache_web_origin_matcher_of_unknown_client() {
+        // Arrange
+        String clientId = "unknownClient";
+        when(clientRepository.findByClientId(clientId)).thenReturn(Optional.empty());
+
+        // Act
+        var webOriginMatcher = clientService.getWebOriginMatcher(clientId);
+
+        // Assert
+        assertThat(webOriginMatcher.matches("https://example.com")).isFalse();
+        assertThat(cacheManager.getCache(CacheConfig.WEB_ORIGINS_CACHE).get(clientId)).isNull();
+        verify(webOriginRepository, never()).findByClientId(clientId);
+    }
+
     @Test
     void should_check_if_client_exists_by_client_id() {
         // Arrange
@@ -146,5 +240,10 @@ class ClientServiceTest {
         assertThat(result).isTrue();
     }
 
+    private void stubClient(String clientId) {
+        var client = new ClientFixture().createRandomOne(true);
+        client.setClientId(clientId);
+        when(clientRepository.findByClientId(clientId)).thenReturn(Optional.of(client));
+        when(clientMapper.toDTO(client)).thenReturn(Mappers.getMapper(ClientMapper.class).toDTO(client));
+    }
 }
-
@@ -1,17 +1,25 @@
 package com.brew.oauth20.server.service;
 
+import com.brew.oauth20.server.config.CacheConfig;
+import com.brew.oauth20.server.data.Client;
+import com.brew.oauth20.server.data.enums.Scope;
 import com.brew.oauth20.server.exception.ClientNotFoundException;
 import com.brew.oauth20.server.fixture.ClientUserFixture;
+import com.brew.oauth20.server.fixture.ClientUserScopeFixture;
+import com.brew.oauth20.server.model.ClientModel;
+import com.brew.oauth20.server.model.ScopeSet;
 import com.brew.oauth20.server.repository.ClientRepository;
 import com.brew.oauth20.server.repository.ClientUserRepository;
 import com.brew.oauth20.server.service.impl.ClientUserServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayNameGeneration;
 import org.junit.jupiter.api.DisplayNameGenerator;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import java.util.Optional;
@@ -32,71 +40,117 @@ class ClientUserServiceTest {
     @Mock
     private ClientUserRepository clientUserRepository;
 
-    @InjectMocks
+    @Mock
+    private ClientService clientService;
+
     private ClientUserServiceImpl clientUserService;
 
     private ClientUserFixture clientUserFixture;
 
+    @BeforeEach
+    void init() {
+        reset(clientRepository, clientUserRepository, clientService);
+        clientUserFixture = new ClientUserFixture();
+        clientUserService = new ClientUserServiceImpl(clientUserRepository, clientRepository, clientService,
+                new ConcurrentMapCacheManager(CacheConfig.CLIENT_USERS_CACHE));
+    }
+
     @Test
     void should_create_client_user() {
 
-        clientUserFixture = new ClientUserFixture();
-
         var clientUser = clientUserFixture.createRandomOne();
+        var client = clientUser.getClient();
 
-        when(clientUserRepository.findByClientIdAndUserId(clientUser.getClient().getClientId(), clientUser.getUserId()))
+        when(clientUserRepository.findByClientIdAndUserId(client.getClientId(), clientUser.getUserId()))
                 .thenReturn(Optional.empty());
-        when(clientRepository.findByClientId(clientUser.getClient().getClientId()))
-                .thenReturn(Optional.of(clientUser.getClient()));
-        when(clientUserRepository.save(argThat(x -> x.getUserId().equals(clientUser.getUserId()) && x.getClient().equals(clientUser.getClient()))))
+        stubClient(client);
+        when(clientRepository.getReferenceById(client.getId()))
+                .thenReturn(client);
+        when(clientUserRepository.saveAndFlush(argThat(x -> x.getUserId().equals(clientUser.getUserId()) && x.getClient().equals(client))))
                 .thenReturn(clientUser);
 
-        var result = clientUserService.getOrCreate(clientUser.getClient().getClientId(), clientUser.getUserId());
+        var result = clientUserService.getOrCreate(client.getClientId(), clientUser.getUserId());
 
-        assertThat(clientUser).isEqualTo(result);
+        assertThat(result.id()).isEqualTo(clientUser.getId());
+        assertThat(result.userId()).isEqualTo(clientUser.getUserId());
+        assertThat(result.grantedScopes()).isEqualTo(ScopeSet.EMPTY);
+        verify(clientRepository, never()).findByClientId(any());
     }
 
     @Test
     void should_create_return_existing_client_user() {
 
-        clientUserFixture = new ClientUserFixture();
+        var existingClientUser = clientUserFixture.createRandomOne();
+        existingClientUser.getClientUserScopes().add(new ClientUserScopeFixture().createRandomOne(existingClientUser, Scope.openid));
+        var clientId = existingClientUser.getClient().getClientId();
 
-        var clientUser = clientUserFixture.createRandomOne();
+        stubClient(existingClientUser.getClient());
+        when(clientUserRepository.findByClientIdAndUserId(clientId, existingClientUser.getUserId()))
+                .thenReturn(Optional.of(existingClientUser));
 
-        var existingClientUser = clientUserFixture.createRandomOne();
+        var result = clientUserService.getOrCreate(clientId, existingClientUser.getUserId());
 
-        existingClientUser.setClient(clientUser.getClient());
+        assertThat(result.id()).isEqualTo(existingClientUser.getId());
+        assertThat(result.grantedScopes().contains(Scope.openid)).isTrue();
+        assertThat(result.grantedScopes().contains(Scope.email)).isFalse();
+        verify(clientUserRepository, never()).saveAndFlush(any());
+    }
 
-        existingClientUser.setUserId(clientUser.getUserId());
+    @Test
+    void should_return_cached_client_user_until_evicted() {
 
-        when(clientUserRepository.findByClientIdAndUserId(clientUser.getClient().getClientId(), clientUser.getUserId()))
+        var existingClientUser = clientUserFixture.createRandomOne();
+        var clientId = existingClientUser.getClient().getClientId();
+        var userId = existingClientUser.getUserId();
+
+        stubClient(existingClientUser.getClient());
+        when(clientUserRepository.findByClientIdAndUserId(clientId, userId))
                 .thenReturn(Optional.of(existingClientUser));
-        when(clientRepository.findByClientId(clientUser.getClient().getClientId()))
-                .thenReturn(Optional.of(existingClientUser.getClient()));
-        when(clientUserRepository.save(argThat(x -> x.getUserId().equals(clientUser.getUserId()) && x.getClient().equals(clientUser.getClient()))))
-                .thenReturn(existingClientUser);
 
-        var result = clientUserService.getOrCreate(clientUser.getClient().getClientId(), clientUser.getUserId());
+        var first = clientUserService.getOrCreate(clientId, userId);
+        var second = clientUserService.getOrCreate(clientId, userId);
+        clientUserService.evictClientUser(clientId, userId);
+        var third = clientUserService.getOrCreate(clientId, userId);
 
-        assertThat(existingClientUser).isEqualTo(result);
+        assertThat(second).isSameAs(first);
+        assertThat(third).isEqualTo(first);
+        verify(clientUserRepository, times(2)).findByClientIdAndUserId(clientId, userId);
     }
 
     @Test
-    void should_create_throw_client_not_found() {
+    void should_return_client_user_created_by_concurrent_authorization() {
 
-        clientUserFixture = new ClientUserFixture();
+        var existingClientUser = clientUserFixture.createRandomOne();
+        var client = existingClientUser.getClient();
+
+        when(clientUserRepository.findByClientIdAndUserId(client.getClientId(), existingClientUser.getUserId()))
+                .thenReturn(Optional.empty(), Optional.of(existingClientUser));
+        stubClient(client);
+        when(clientUserRepository.saveAndFlush(any()))
+                .thenThrow(new DataIntegrityViolationException("clients_users_client_id_user_id_key"));
+
+        var result = clientUserService.getOrCreate(client.getClientId(), existingClientUser.getUserId());
+
+        assertThat(result.id()).isEqualTo(existingClientUser.getId());
+    }
+
+    @Test
+    void should_create_throw_client_not_found() {
 
         var clientUser = clientUserFixture.createRandomOne();
 
-        when(clientUserRepository.findByClientIdAndUserId(clientUser.getClient().getClientId(), clientUser.getUserId()))
-                .thenReturn(Optional.empty());
-        when(clientRepository.findByClientId(clientUser.getClient().getClientId()))
-                .thenReturn(Optional.empty());
+        when(clientService.getClient(clientUser.getClient().getClientId()))
+                .thenReturn(null);
 
         Throwable thrown = catchThrowable(() -> clientUserService.getOrCreate(clientUser.getClient().getClientId(), clientUser.getUserId()));
 
         assertThat(thrown).isInstanceOf(ClientNotFoundException.class);
-        verify(clientRepository, never()).save(any());
+        verify(clientUserRepository, never()).findByClientIdAndUserId(any(), any());
+        verify(clientUserRepository, never()).saveAndFlush(any());
     }
 
-}
\ No newline at end of file
+    private void stubClient(Client client) {
+        when(clientService.getClient(client.getClientId()))
+                .thenReturn(ClientModel.builder().id(client.getId()).clientId(client.getClientId()).build());
+    }
+}
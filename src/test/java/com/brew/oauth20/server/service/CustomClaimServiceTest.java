@@ -1,31 +1,49 @@
 package com.brew.oauth20.server.service;
 
+import com.brew.oauth20.server.config.CacheConfig;
+import com.brew.oauth20.server.config.ResilienceConfig;
 import com.brew.oauth20.server.data.enums.HookType;
 import com.brew.oauth20.server.exception.CustomClaimHookException;
 import com.brew.oauth20.server.fixture.CustomClaimFixture;
 import com.brew.oauth20.server.fixture.HookModelFixture;
 import com.brew.oauth20.server.http.RestTemplateWrapper;
+import com.brew.oauth20.server.model.CustomClaimsCacheEntry;
 import com.brew.oauth20.server.model.CustomClaimsRequestModel;
 import com.brew.oauth20.server.model.HookModel;
+import com.brew.oauth20.server.model.enums.CustomClaimFallback;
 import com.brew.oauth20.server.service.impl.CustomClaimServiceImpl;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.javafaker.Faker;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.*;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
 
+import java.time.Instant;
+import java.util.HashMap;
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 @DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
@@ -35,6 +53,14 @@ class CustomClaimServiceTest {
     private CustomClaimFixture customClaimFixture;
     @Mock
     private RestTemplateWrapper restTemplate;
+    @Spy
+    private CacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.CUSTOM_CLAIMS_CACHE, CacheConfig.LAST_KNOWN_GOOD_CUSTOM_CLAIMS_CACHE);
+    @Spy
+    private TaskExecutor revalidationExecutor = new SyncTaskExecutor();
+    @Spy
+    private CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+    @Spy
+    private BulkheadRegistry bulkheadRegistry = BulkheadRegistry.ofDefaults();
     @InjectMocks
     private CustomClaimServiceImpl customClaimService;
 
@@ -58,15 +84,23 @@ class CustomClaimServiceTest {
     }
 
     @NotNull
-    private static ResponseEntity<JsonNode> createValidResponse(Map<String, Object> expectedModel) {
-        var objectMapper = new ObjectMapper();
-        var responseJson = objectMapper.valueToTree(expectedModel);
-        return new ResponseEntity<>(responseJson, HttpStatus.OK);
+    private static ResponseEntity<Map> createValidResponse(Map<String, Object> expectedModel) {
+        return createValidResponse(expectedModel, null);
+    }
+
+    @NotNull
+    private static ResponseEntity<Map> createValidResponse(Map<String, Object> expectedModel, String cacheControl) {
+        var headers = new HttpHeaders();
+        if (cacheControl != null)
+            headers.setCacheControl(cacheControl);
+        return new ResponseEntity<>(new HashMap<>(expectedModel), headers, HttpStatus.OK);
     }
 
     @BeforeEach
     void setUp() {
         Mockito.reset(restTemplate);
+        cacheManager.getCache(CacheConfig.CUSTOM_CLAIMS_CACHE).clear();
+        cacheManager.getCache(CacheConfig.LAST_KNOWN_GOOD_CUSTOM_CLAIMS_CACHE).clear();
         hookModelFixture = new HookModelFixture();
         customClaimFixture = new CustomClaimFixture();
     }
@@ -79,9 +113,9 @@ class CustomClaimServiceTest {
         var expectedModel = customClaimFixture.createRandomOne();
 
         var requestEntity = createValidRequest(hookModel, userId);
-        ResponseEntity<JsonNode> responseEntity = createValidResponse(expectedModel);
+        ResponseEntity<Map> responseEntity = createValidResponse(expectedModel);
 
-        when(restTemplate.exchange(hookModel.endpoint(), HttpMethod.POST, requestEntity, JsonNode.class))
+        when(restTemplate.exchange(hookModel.endpoint(), HttpMethod.POST, requestEntity, Map.class))
                 .thenReturn(responseEntity);
 
         // Act
@@ -102,11 +136,170 @@ class CustomClaimServiceTest {
 
         var requestEntity = createValidRequest(hookModel, userId);
 
-        when(restTemplate.exchange(hookModel.endpoint(), HttpMethod.POST, requestEntity, JsonNode.class))
+        when(restTemplate.exchange(hookModel.endpoint(), HttpMethod.POST, requestEntity, Map.class))
                 .thenThrow(new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR, "Internal Server Error"));
 
         // Act & Assert
         assertThatThrownBy(() -> customClaimService.getCustomClaims(hookModel, userId))
                 .isInstanceOf(CustomClaimHookException.class);
     }
+
+    @Test
+    void should_call_hook_on_every_request_without_cache_control() {
+        // Arrange
+        var hookModel = hookModelFixture.createRandomOne(HookType.custom_claim, 1);
+        var userId = faker.letterify("?").repeat(20);
+        when(restTemplate.exchange(eq(hookModel.endpoint()), eq(HttpMethod.POST), any(), eq(Map.class)))
+                .thenReturn(createValidResponse(customClaimFixture.createRandomOne()));
+
+        // Act
+        customClaimService.getCustomClaims(hookModel, userId);
+        customClaimService.getCustomClaims(hookModel, userId);
+
+        // Assert
+        verify(restTemplate, times(2)).exchange(eq(hookModel.endpoint()), eq(HttpMethod.POST), any(), eq(Map.class));
+    }
+
+    @Test
+    void should_serve_claims_from_cache_while_fresh() {
+        // Arrange
+        var hookModel = hookModelFixture.createRandomOne(HookType.custom_claim, 1);
+        var userId = faker.letterify("?").repeat(20);
+        var expectedModel = customClaimFixture.createRandomOne();
+        // every call reads a new body, as a real response would
+        when(restTemplate.exchange(eq(hookModel.endpoint()), eq(HttpMethod.POST), any(), eq(Map.class)))
+                .thenAnswer(invocation -> createValidResponse(expectedModel, "private, max-age=60"));
+
+        // Act
+        var first = customClaimService.getCustomClaims(hookModel, userId);
+        first.put("mutated_by_caller", true);
+        var second = customClaimService.getCustomClaims(hookModel, userId);
+        var otherUser = customClaimService.getCustomClaims(hookModel, userId + "x");
+
+        // Assert
+        verify(restTemplate, times(2)).exchange(eq(hookModel.endpoint()), eq(HttpMethod.POST), any(), eq(Map.class));
+        assertThat(second).usingRecursiveComparison().isEqualTo(expectedModel);
+        assertThat(otherUser).usingRecursiveComparison().isEqualTo(expectedModel);
+    }
+
+    @Test
+    void should_not_cache_claims_marked_no_store() {
+        // Arrange
+        var hookModel = hookModelFixture.createRandomOne(HookType.custom_claim, 1);
+        var userId = faker.letterify("?").repeat(20);
+        when(restTemplate.exchange(eq(hookModel.endpoint()), eq(HttpMethod.POST), any(), eq(Map.class)))
+                .thenReturn(createValidResponse(customClaimFixture.createRandomOne(), "max-age=60, no-store"));
+
+        // Act
+        customClaimService.getCustomClaims(hookModel, userId);
+        customClaimService.getCustomClaims(hookModel, userId);
+
+        // Assert
+        verify(restTemplate, times(2)).exchange(eq(hookModel.endpoint()), eq(HttpMethod.POST), any(), eq(Map.class));
+    }
+
+    @Test
+    void should_serve_stale_claims_and_revalidate_in_background() {
+        // Arrange
+        var hookModel = hookModelFixture.createRandomOne(HookType.custom_claim, 1);
+        var userId = faker.letterify("?").repeat(20);
+        var staleModel = customClaimFixture.createRandomOne();
+        var revalidatedModel = customClaimFixture.createRandomOne();
+        var cache = cacheManager.getCache(CacheConfig.CUSTOM_CLAIMS_CACHE);
+        cache.put(hookModel.id() + ":" + userId, new CustomClaimsCacheEntry(staleModel, Instant.now().minusSeconds(1), Instant.now().plusSeconds(60)));
+        when(restTemplate.exchange(eq(hookModel.endpoint()), eq(HttpMethod.POST), any(), eq(Map.class)))
+                .thenReturn(createValidResponse(revalidatedModel, "max-age=60, stale-while-revalidate=30"));
+
+        // Act
+        var stale = customClaimService.getCustomClaims(hookModel, userId);
+        var revalidated = customClaimService.getCustomClaims(hookModel, userId);
+
+        // Assert
+        assertThat(stale).usingRecursiveComparison().isEqualTo(staleModel);
+        assertThat(revalidated).usingRecursiveComparison().isEqualTo(revalidatedModel);
+        verify(revalidationExecutor).execute(any());
+        verify(restTemplate, times(1)).exchange(eq(hookModel.endpoint()), eq(HttpMethod.POST), any(), eq(Map.class));
+    }
+
+    @Test
+    void should_serve_stale_claims_when_revalidation_is_rejected() {
+        // Arrange
+        var hookModel = hookModelFixture.createRandomOne(HookType.custom_claim, 1);
+        var userId = faker.letterify("?").repeat(20);
+        var staleModel = customClaimFixture.createRandomOne();
+        var revalidatedModel = customClaimFixture.createRandomOne();
+        var cache = cacheManager.getCache(CacheConfig.CUSTOM_CLAIMS_CACHE);
+        cache.put(hookModel.id() + ":" + userId, new CustomClaimsCacheEntry(staleModel, Instant.now().minusSeconds(1), Instant.now().plusSeconds(60)));
+        when(restTemplate.exchange(eq(hookModel.endpoint()), eq(HttpMethod.POST), any(), eq(Map.class)))
+                .thenReturn(createValidResponse(revalidatedModel, "max-age=60, stale-while-revalidate=30"));
+        doThrow(new TaskRejectedException("busy")).doCallRealMethod().when(revalidationExecutor).execute(any());
+
+        // Act
+        var rejected = customClaimService.getCustomClaims(hookModel, userId);
+        var stale = customClaimService.getCustomClaims(hookModel, userId);
+        var revalidated = customClaimService.getCustomClaims(hookModel, userId);
+
+        // Assert
+        assertThat(rejected).usingRecursiveComparison().isEqualTo(staleModel);
+        assertThat(stale).usingRecursiveComparison().isEqualTo(staleModel);
+        assertThat(revalidated).usingRecursiveComparison().isEqualTo(revalidatedModel);
+        verify(revalidationExecutor, times(2)).execute(any());
+        verify(restTemplate, times(1)).exchange(eq(hookModel.endpoint()), eq(HttpMethod.POST), any(), eq(Map.class));
+    }
+
+    @Test
+    void should_issue_without_custom_claims_when_hook_fails_and_fallback_omits_claims() {
+        // Arrange
+        var hookModel = hookModelFixture.createRandomOne(HookType.custom_claim, 1);
+        var userId = faker.letterify("?").repeat(20);
+        ReflectionTestUtils.setField(customClaimService, "fallback", CustomClaimFallback.OMIT_CLAIMS);
+        when(restTemplate.exchange(eq(hookModel.endpoint()), eq(HttpMethod.POST), any(), eq(Map.class)))
+                .thenThrow(new HttpClientErrorException(HttpStatus.NOT_FOUND));
+
+        // Act
+        var result = customClaimService.getCustomClaims(hookModel, userId);
+
+        // Assert
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    void should_serve_last_known_good_claims_when_hook_fails() {
+        // Arrange
+        var hookModel = hookModelFixture.createRandomOne(HookType.custom_claim, 1);
+        var userId = faker.letterify("?").repeat(20);
+        var expectedModel = customClaimFixture.createRandomOne();
+        ReflectionTestUtils.setField(customClaimService, "fallback", CustomClaimFallback.LAST_KNOWN_GOOD);
+        when(restTemplate.exchange(eq(hookModel.endpoint()), eq(HttpMethod.POST), any(), eq(Map.class)))
+                .thenReturn(createValidResponse(expectedModel))
+                .thenThrow(new ResourceAccessException("Read timed out"));
+
+        // Act
+        customClaimService.getCustomClaims(hookModel, userId);
+        var result = customClaimService.getCustomClaims(hookModel, userId);
+
+        // Assert
+        assertThat(result).usingRecursiveComparison().isEqualTo(expectedModel);
+    }
+
+    @Test
+    void should_stop_calling_failing_hook_once_circuit_opens() {
+        // Arrange
+        var hookModel = hookModelFixture.createRandomOne(HookType.custom_claim, 1);
+        var userId = faker.letterify("?").repeat(20);
+        circuitBreakerRegistry.circuitBreaker(ResilienceConfig.CUSTOM_CLAIM_HOOK_PREFIX + hookModel.id(), CircuitBreakerConfig.custom()
+                .slidingWindowSize(4)
+                .minimumNumberOfCalls(4)
+                .build());
+        when(restTemplate.exchange(eq(hookModel.endpoint()), eq(HttpMethod.POST), any(), eq(Map.class)))
+                .thenThrow(new HttpServerErrorException(HttpStatus.BAD_GATEWAY));
+
+        // Act
+        for (var i = 0; i < 10; i++)
+            assertThatThrownBy(() -> customClaimService.getCustomClaims(hookModel, userId))
+                    .isInstanceOf(CustomClaimHookException.class);
+
+        // Assert
+        verify(restTemplate, times(4)).exchange(eq(hookModel.endpoint()), eq(HttpMethod.POST), any(), eq(Map.class));
+    }
 }
@@ -6,9 +6,12 @@ import com.github.javafaker.Faker;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.WeakKeyException;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.DisplayNameGeneration;
 import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -19,6 +22,7 @@ import java.util.HashMap;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
 class JwtServiceTest {
@@ -156,6 +160,57 @@ class JwtServiceTest {
                 assertThat(claims).containsEntry(entry.getKey(), entry.getValue());
     }
 
+    @ParameterizedTest
+    @MethodSource
+    void should_pick_signature_algorithm_from_signing_key_length(int keyLength, SignatureAlgorithm expectedAlgorithm) {
+        // Arrange
+        var signingKey = faker.letterify("?".repeat(keyLength));
+        var signTokenOptions = new SignTokenOptions(null, null, null, faker.internet().url(), faker.internet().url(), 60, signingKey, null);
+        var jwtService = new JwtServiceImpl();
+
+        // Act
+        var first = jwtService.signToken(signTokenOptions);
+        var second = jwtService.signToken(signTokenOptions);
+
+        // Assert
+        var parser = Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(signingKey.getBytes())).build();
+        assertThat(parser.parseClaimsJws(first).getHeader().getAlgorithm()).isEqualTo(expectedAlgorithm.getValue());
+        assertThat(parser.parseClaimsJws(second).getHeader().getAlgorithm()).isEqualTo(expectedAlgorithm.getValue());
+    }
+
+    private static Stream<Arguments> should_pick_signature_algorithm_from_signing_key_length() {
+        return Stream.of(
+                Arguments.of(32, SignatureAlgorithm.HS256),
+                Arguments.of(48, SignatureAlgorithm.HS384),
+                Arguments.of(64, SignatureAlgorithm.HS512)
+        );
+    }
+
+    @Test
+    void should_sign_with_rotated_secret_of_same_client() {
+        // Arrange
+        var clientId = faker.internet().uuid();
+        var oldSigningKey = faker.letterify("?".repeat(32));
+        var newSigningKey = faker.letterify("?".repeat(32));
+        var jwtService = new JwtServiceImpl();
+        jwtService.signToken(new SignTokenOptions(null, clientId, null, faker.internet().url(), faker.internet().url(), 60, oldSigningKey, null));
+
+        // Act
+        var result = jwtService.signToken(new SignTokenOptions(null, clientId, null, faker.internet().url(), faker.internet().url(), 60, newSigningKey, null));
+
+        // Assert
+        var claims = parseClaims(result, newSigningKey);
+        assertThat(claims).containsEntry("azp", clientId);
+    }
+
+    @Test
+    void should_reject_weak_signing_key() {
+        var signTokenOptions = new SignTokenOptions(null, null, null, faker.internet().url(), faker.internet().url(), 60, faker.letterify("?".repeat(16)), null);
+        var jwtService = new JwtServiceImpl();
+
+        assertThatThrownBy(() -> jwtService.signToken(signTokenOptions))
+                .isInstanceOf(WeakKeyException.class);
+    }
 
     private Claims parseClaims(String token, String signingKey) {
         var parser = Jwts.parserBuilder().setSigningKey(getSigningKey(signingKey)).build();
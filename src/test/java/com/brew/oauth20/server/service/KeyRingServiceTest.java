@@ -0,0 +1,94 @@
+package com.brew.oauth20.server.service;
+
+import com.brew.oauth20.server.model.SignTokenOptions;
+import com.brew.oauth20.server.model.enums.SigningAlgorithm;
+import com.brew.oauth20.server.service.impl.JwtServiceImpl;
+import com.brew.oauth20.server.service.impl.KeyRingServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.javafaker.Faker;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Signature;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class KeyRingServiceTest {
+    private final Faker faker = new Faker();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void should_not_provide_signing_key_for_hs256() throws Exception {
+        var keyRingService = new KeyRingServiceImpl("HS256", 1440, 1440, "", "", "", false);
+
+        assertThat(keyRingService.getActiveSigningKey()).isEmpty();
+        assertThat(objectMapper.readTree(keyRingService.getJwks().document()).get("keys")).isEmpty();
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = SigningAlgorithm.class, names = {"RS256", "ES256", "EdDSA"})
+    void should_fail_without_key_store_unless_in_memory_keys_are_enabled(SigningAlgorithm algorithm) {
+        assertThatThrownBy(() -> new KeyRingServiceImpl(algorithm.getValue(), 1440, 1440, "", "", "", false))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("jwt.key_ring.key_store_location");
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = SigningAlgorithm.class, names = {"RS256", "ES256", "EdDSA"})
+    void should_sign_tokens_verifiable_with_published_key(SigningAlgorithm algorithm) throws Exception {
+        // Arrange
+        var keyRingService = new KeyRingServiceImpl(algorithm.getValue(), 1440, 1440, "", "", "", true);
+        var signingKey = keyRingService.getActiveSigningKey().orElseThrow();
+        var signTokenOptions = new SignTokenOptions(null, faker.internet().uuid(), null, faker.internet().url(), faker.internet().url(), 60, null, null);
+
+        // Act
+        var token = new JwtServiceImpl().signToken(signTokenOptions, signingKey);
+
+        // Assert
+        var segments = token.split("\\.");
+        var header = objectMapper.readTree(Base64.getUrlDecoder().decode(segments[0]));
+        assertThat(header.get("alg").asText()).isEqualTo(algorithm.getValue());
+        assertThat(header.get("kid").asText()).isEqualTo(signingKey.keyId());
+
+        var verifier = Signature.getInstance(algorithm.getSignatureAlgorithm());
+        verifier.initVerify(signingKey.publicKey());
+        verifier.update((segments[0] + "." + segments[1]).getBytes(StandardCharsets.US_ASCII));
+        assertThat(verifier.verify(Base64.getUrlDecoder().decode(segments[2]))).isTrue();
+
+        var jwks = objectMapper.readTree(keyRingService.getJwks().document()).get("keys");
+        assertThat(jwks.findValuesAsText("kid")).contains(signingKey.keyId());
+        assertThat(jwks.findValuesAsText("alg")).containsOnly(algorithm.getValue());
+    }
+
+    @Test
+    void should_publish_next_and_retired_keys_across_rotation() throws Exception {
+        // Arrange
+        var keyRingService = new KeyRingServiceImpl("ES256", 1440, 1440, "", "", "", true);
+        var active = keyRingService.getActiveSigningKey().orElseThrow();
+        var jwks = keyRingService.getJwks();
+
+        // Assert
+        assertThat(objectMapper.readTree(jwks.document()).get("keys")).hasSize(2);
+        assertThat(keyRingService.getJwks().eTag()).isEqualTo(jwks.eTag());
+        assertThat(keyRingService.getActiveSigningKey()).containsSame(active);
+
+        // Arrange a key ring that is due for rotation on every call
+        var rotatingKeyRingService = new KeyRingServiceImpl("ES256", 0, 1440, "", "", "", true);
+        var publishedBeforeRotation = objectMapper.readTree(rotatingKeyRingService.getJwks().document()).findValuesAsText("kid");
+
+        // Act
+        var rotated = rotatingKeyRingService.getActiveSigningKey().orElseThrow();
+
+        // Assert
+        assertThat(publishedBeforeRotation).contains(rotated.keyId());
+        var publishedAfterRotation = objectMapper.readTree(rotatingKeyRingService.getJwks().document()).findValuesAsText("kid");
+        assertThat(publishedAfterRotation).containsAll(publishedBeforeRotation);
+    }
+}
@@ -1,11 +1,15 @@
 package com.brew.oauth20.server.service;
 
+import com.brew.oauth20.server.component.TokenGenerator;
+import com.brew.oauth20.server.component.impl.TokenGeneratorImpl;
+import com.brew.oauth20.server.data.ClientUser;
+import com.brew.oauth20.server.data.RefreshToken;
 import com.brew.oauth20.server.exception.RefreshTokenNotFoundException;
-import com.brew.oauth20.server.fixture.ActiveRefreshTokenFixture;
 import com.brew.oauth20.server.fixture.ClientUserFixture;
-import com.brew.oauth20.server.repository.ActiveRefreshTokenRepository;
+import com.brew.oauth20.server.fixture.RefreshTokenFixture;
 import com.brew.oauth20.server.repository.RefreshTokenRepository;
 import com.brew.oauth20.server.service.impl.RefreshTokenServiceImpl;
+import com.brew.oauth20.server.utils.EncryptionUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayNameGeneration;
 import org.junit.jupiter.api.DisplayNameGenerator;
@@ -19,6 +23,7 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.util.Optional;
+import java.util.UUID;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -29,26 +34,31 @@ import static org.mockito.Mockito.*;
 @DataJpaTest
 @DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
 class RefreshTokenServiceTest {
+    private final TokenGenerator tokenGenerator = new TokenGeneratorImpl(192, 384, 1);
     private ClientUserFixture clientUserFixture;
-    private ActiveRefreshTokenFixture activeRefreshTokenFixture;
+    private RefreshTokenFixture refreshTokenFixture;
     @Mock
     private RefreshTokenRepository refreshTokenRepository;
-    @Mock
-    private ActiveRefreshTokenRepository activeRefreshTokenRepository;
 
     @BeforeEach
     public void init() {
         clientUserFixture = new ClientUserFixture();
-        activeRefreshTokenFixture = new ActiveRefreshTokenFixture();
+        refreshTokenFixture = new RefreshTokenFixture();
         Mockito.reset(refreshTokenRepository);
-        Mockito.reset(activeRefreshTokenRepository);
+        // the id is generated when the row is persisted
+        when(refreshTokenRepository.save(any())).thenAnswer(invocation -> {
+            RefreshToken refreshToken = invocation.getArgument(0);
+            if (refreshToken.getId() == null)
+                refreshToken.setId(UUID.randomUUID());
+            return refreshToken;
+        });
     }
 
     @Test
     void should_create_and_return_refresh_token() {
         // Arrange
         var clientUser = clientUserFixture.createRandomOne();
-        var service = new RefreshTokenServiceImpl(refreshTokenRepository, activeRefreshTokenRepository);
+        var service = new RefreshTokenServiceImpl(refreshTokenRepository, tokenGenerator);
         OffsetDateTime currentDate = OffsetDateTime.now(ZoneOffset.UTC);
         OffsetDateTime expirationDate = currentDate.plusDays(clientUser.getClient().getRefreshTokenExpiresInDays());
 
@@ -56,60 +66,166 @@ class RefreshTokenServiceTest {
         var refreshToken = service.createRefreshToken(clientUser, clientUser.getClient().getRefreshTokenExpiresInDays());
 
         // Assert
-        assertThat(refreshToken.getToken()).isNotBlank();
+        assertThat(refreshToken.getIssuedToken()).startsWith(refreshToken.getId() + ".");
         assertThat(refreshToken.getClientUser()).isEqualTo(clientUser);
         assertThat(refreshToken.getExpiresAt().getDayOfYear()).isEqualTo(expirationDate.getDayOfYear());
         verify(refreshTokenRepository, times(1)).save(argThat(x ->
                 x.getClientUser().equals(clientUser)
-                        && !x.getToken().isBlank()
+                        && x.getToken().matches("[0-9a-f]{64}")
                         && x.getExpiresAt().getDayOfYear() == expirationDate.getDayOfYear()
         ));
     }
 
+    @Test
+    void should_store_only_the_digest_of_the_secret() {
+        // Arrange
+        var clientUser = clientUserFixture.createRandomOne();
+        var service = new RefreshTokenServiceImpl(refreshTokenRepository, tokenGenerator);
+
+        // Act
+        var refreshToken = service.createRefreshToken(clientUser, 1);
+
+        // Assert
+        var secret = refreshToken.getIssuedToken().substring(refreshToken.getIssuedToken().indexOf('.') + 1);
+        assertThat(refreshToken.getToken()).isEqualTo(EncryptionUtils.hashSecret(secret));
+        assertThat(refreshToken.getIssuedToken()).doesNotContain(refreshToken.getToken());
+    }
+
     @Test
     void should_revoke_refresh_token() throws RefreshTokenNotFoundException {
         // Arrange
-        var activeRefreshToken = activeRefreshTokenFixture.createRandomOne();
         var clientUser = clientUserFixture.createRandomOne();
-        activeRefreshToken.setClientUser(clientUser);
+        var secret = "secret";
+        var existingRefreshToken = createActiveRefreshToken(clientUser, secret);
 
-        when(activeRefreshTokenRepository.findByToken(activeRefreshToken.getToken()))
-                .thenReturn(Optional.of(activeRefreshToken));
+        when(refreshTokenRepository.findByIdForUpdate(eq(existingRefreshToken.getId())))
+                .thenReturn(Optional.of(existingRefreshToken));
         OffsetDateTime currentDate = OffsetDateTime.now(ZoneOffset.UTC);
         OffsetDateTime expirationDate = currentDate.plusDays(clientUser.getClient().getRefreshTokenExpiresInDays());
 
         // Act
-        var refreshToken = new RefreshTokenServiceImpl(refreshTokenRepository,
-                activeRefreshTokenRepository
-        ).revokeRefreshToken(
+        var refreshToken = new RefreshTokenServiceImpl(refreshTokenRepository, tokenGenerator).revokeRefreshToken(
                 clientUser.getClient().getClientId(),
-                activeRefreshToken.getToken(),
+                existingRefreshToken.getId() + "." + secret,
                 clientUser.getClient().getRefreshTokenExpiresInDays()
         );
 
         // Assert
-        assertThat(refreshToken.getToken()).isNotBlank();
+        assertThat(refreshToken.getIssuedToken()).isNotBlank();
         verify(refreshTokenRepository, times(1)).save(argThat(x ->
                 x.getClientUser().equals(clientUser)
-                        && !x.getToken().isBlank()
+                        && x != existingRefreshToken
                         && x.getExpiresAt().getDayOfYear() == expirationDate.getDayOfYear()
         ));
         verify(refreshTokenRepository, times(1)).save(argThat(x ->
-                x.getClientUser().equals(clientUser)
-                        && x.getToken().equals(activeRefreshToken.getToken())
+                x == existingRefreshToken
                         && x.getRevokedAt() != null
                         && x.getReplacedByToken().equals(refreshToken)
         ));
+        verify(refreshTokenRepository, never()).findByTokenForUpdate(any());
+    }
+
+    @Test
+    void should_revoke_refresh_token_issued_without_id() throws RefreshTokenNotFoundException {
+        // Arrange
+        var clientUser = clientUserFixture.createRandomOne();
+        var existingRefreshToken = createActiveRefreshToken(clientUser, "legacy-secret");
+
+        when(refreshTokenRepository.findByTokenForUpdate(eq(EncryptionUtils.hashSecret("legacy-secret"))))
+                .thenReturn(Optional.of(existingRefreshToken));
+
+        // Act
+        var refreshToken = new RefreshTokenServiceImpl(refreshTokenRepository, tokenGenerator)
+                .revokeRefreshToken(clientUser.getClient().getClientId(), "legacy-secret", 1);
+
+        // Assert
+        assertThat(refreshToken.getIssuedToken()).isNotBlank();
+        assertThat(existingRefreshToken.getRevokedAt()).isNotNull();
+    }
+
+    @Test
+    void should_not_revoke_refresh_token_with_wrong_secret() {
+        // Arrange
+        var clientUser = clientUserFixture.createRandomOne();
+        var existingRefreshToken = createActiveRefreshToken(clientUser, "secret");
+        when(refreshTokenRepository.findByIdForUpdate(eq(existingRefreshToken.getId())))
+                .thenReturn(Optional.of(existingRefreshToken));
+        var service = new RefreshTokenServiceImpl(refreshTokenRepository, tokenGenerator);
+        var token = existingRefreshToken.getId() + ".other-secret";
+
+        // Act && Assert
+        assertThrows(RefreshTokenNotFoundException.class, () -> service.revokeRefreshToken("", token, 0));
+        assertThat(existingRefreshToken.getRevokedAt()).isNull();
+    }
+
+    @Test
+    void should_not_query_refresh_token_with_malformed_id() {
+        // Arrange
+        var service = new RefreshTokenServiceImpl(refreshTokenRepository, tokenGenerator);
+
+        // Act && Assert
+        assertThrows(RefreshTokenNotFoundException.class, () -> service.revokeRefreshToken("", "not-an-id.secret", 0));
+        verify(refreshTokenRepository, never()).findByIdForUpdate(any());
     }
 
     @Test
     void should_throws_refresh_token_not_found_exception() {
         // Arrange
-        when(activeRefreshTokenRepository.findByToken(any()))
+        when(refreshTokenRepository.findByTokenForUpdate(any()))
                 .thenReturn(Optional.empty());
-        var service = new RefreshTokenServiceImpl(refreshTokenRepository, activeRefreshTokenRepository);
+        var service = new RefreshTokenServiceImpl(refreshTokenRepository, tokenGenerator);
 
         // Act && Assert
         assertThrows(RefreshTokenNotFoundException.class, () -> service.revokeRefreshToken("", "", 0));
     }
+
+    @Test
+    void should_not_revoke_expired_refresh_token() {
+        // Arrange
+        var clientUser = clientUserFixture.createRandomOne();
+        var existingRefreshToken = createActiveRefreshToken(clientUser, "secret");
+        existingRefreshToken.setExpiresAt(OffsetDateTime.now().minusMinutes(1));
+        when(refreshTokenRepository.findByIdForUpdate(existingRefreshToken.getId()))
+                .thenReturn(Optional.of(existingRefreshToken));
+        var service = new RefreshTokenServiceImpl(refreshTokenRepository, tokenGenerator);
+        var token = existingRefreshToken.getId() + ".secret";
+
+        // Act && Assert
+        assertThrows(RefreshTokenNotFoundException.class, () -> service.revokeRefreshToken("", token, 0));
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    void should_revoke_token_family_when_rotated_refresh_token_is_replayed() {
+        // Arrange
+        var clientUser = clientUserFixture.createRandomOne();
+        var rotatedRefreshToken = createActiveRefreshToken(clientUser, "secret");
+        var revokedChild = createActiveRefreshToken(clientUser, "child");
+        var activeGrandchild = createActiveRefreshToken(clientUser, "grandchild");
+        rotatedRefreshToken.setRevokedAt(OffsetDateTime.now().minusMinutes(2));
+        rotatedRefreshToken.setReplacedByToken(revokedChild);
+        revokedChild.setRevokedAt(OffsetDateTime.now().minusMinutes(1));
+        revokedChild.setReplacedByToken(activeGrandchild);
+        when(refreshTokenRepository.findByIdForUpdate(rotatedRefreshToken.getId())).thenReturn(Optional.of(rotatedRefreshToken));
+        when(refreshTokenRepository.findByIdForUpdate(revokedChild.getId())).thenReturn(Optional.of(revokedChild));
+        when(refreshTokenRepository.findByIdForUpdate(activeGrandchild.getId())).thenReturn(Optional.of(activeGrandchild));
+        var service = new RefreshTokenServiceImpl(refreshTokenRepository, tokenGenerator);
+        var token = rotatedRefreshToken.getId() + ".secret";
+
+        // Act && Assert
+        assertThrows(RefreshTokenNotFoundException.class, () -> service.revokeRefreshToken("", token, 0));
+        assertThat(activeGrandchild.getRevokedAt()).isNotNull();
+        verify(refreshTokenRepository, times(1)).save(activeGrandchild);
+        verify(refreshTokenRepository, never()).save(revokedChild);
+    }
+
+    private RefreshToken createActiveRefreshToken(ClientUser clientUser, String secret) {
+        var refreshToken = refreshTokenFixture.createRandomOne();
+        refreshToken.setClientUser(clientUser);
+        refreshToken.setToken(EncryptionUtils.hashSecret(secret));
+        refreshToken.setExpiresAt(OffsetDateTime.now().plusDays(1));
+        refreshToken.setRevokedAt(null);
+        refreshToken.setReplacedByToken(null);
+        return refreshToken;
+    }
 }
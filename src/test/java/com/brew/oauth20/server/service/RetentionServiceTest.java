@@ -0,0 +1,104 @@
+package com.brew.oauth20.server.service;
+
+import com.brew.oauth20.server.repository.AuthorizationCodeRepository;
+import com.brew.oauth20.server.repository.RefreshTokenRepository;
+import com.brew.oauth20.server.service.impl.RetentionServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.OffsetDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class RetentionServiceTest {
+    private static final int BATCH_SIZE = 10;
+
+    @Mock
+    private AuthorizationCodeRepository authorizationCodeRepository;
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private RetentionServiceImpl retentionService;
+
+    @BeforeEach
+    void init() {
+        meterRegistry = new SimpleMeterRegistry();
+        retentionService = new RetentionServiceImpl(authorizationCodeRepository, refreshTokenRepository, meterRegistry);
+        ReflectionTestUtils.setField(retentionService, "batchSize", BATCH_SIZE);
+        ReflectionTestUtils.setField(retentionService, "maxBatchesPerRun", 3);
+        ReflectionTestUtils.setField(retentionService, "batchPauseMs", 0L);
+    }
+
+    @Test
+    void should_delete_in_batches_until_a_batch_is_not_full() {
+        // Arrange
+        when(authorizationCodeRepository.deleteExpired(any(), eq(BATCH_SIZE))).thenReturn(BATCH_SIZE, 4);
+        when(refreshTokenRepository.deleteExpiredOrRevoked(any(), eq(BATCH_SIZE))).thenReturn(0);
+
+        // Act
+        retentionService.purge();
+
+        // Assert
+        verify(authorizationCodeRepository, times(2)).deleteExpired(any(), eq(BATCH_SIZE));
+        verify(refreshTokenRepository, times(1)).deleteExpiredOrRevoked(any(), eq(BATCH_SIZE));
+        assertThat(meterRegistry.counter("oauth.retention.deleted", "table", "authorization_codes").count()).isEqualTo(14);
+        assertThat(meterRegistry.counter("oauth.retention.deleted", "table", "refresh_tokens").count()).isZero();
+        assertThat(meterRegistry.timer("oauth.retention.run").count()).isEqualTo(1);
+    }
+
+    @Test
+    void should_stop_after_max_batches_per_run() {
+        // Arrange
+        when(authorizationCodeRepository.deleteExpired(any(), eq(BATCH_SIZE))).thenReturn(BATCH_SIZE);
+        when(refreshTokenRepository.deleteExpiredOrRevoked(any(), eq(BATCH_SIZE))).thenReturn(BATCH_SIZE);
+
+        // Act
+        retentionService.purge();
+
+        // Assert
+        verify(authorizationCodeRepository, times(3)).deleteExpired(any(), eq(BATCH_SIZE));
+        verify(refreshTokenRepository, times(3)).deleteExpiredOrRevoked(any(), eq(BATCH_SIZE));
+    }
+
+    @Test
+    void should_use_cutoff_before_the_grace_period() {
+        // Arrange
+        ReflectionTestUtils.setField(retentionService, "gracePeriodHours", 48L);
+        var latestCutoff = OffsetDateTime.now().minusHours(48);
+
+        // Act
+        retentionService.purge();
+
+        // Assert
+        verify(authorizationCodeRepository).deleteExpired(argThat(cutoff ->
+                !cutoff.isBefore(latestCutoff) && cutoff.isBefore(latestCutoff.plusMinutes(1))), eq(BATCH_SIZE));
+    }
+
+    @Test
+    void should_go_on_with_refresh_tokens_when_authorization_codes_fail() {
+        // Arrange
+        when(authorizationCodeRepository.deleteExpired(any(), eq(BATCH_SIZE))).thenThrow(new QueryTimeoutException("timeout"));
+        when(refreshTokenRepository.deleteExpiredOrRevoked(any(), eq(BATCH_SIZE))).thenReturn(2);
+
+        // Act
+        retentionService.purge();
+
+        // Assert
+        verify(authorizationCodeRepository, times(1)).deleteExpired(any(), eq(BATCH_SIZE));
+        assertThat(meterRegistry.counter("oauth.retention.deleted", "table", "refresh_tokens").count()).isEqualTo(2);
+    }
+}
@@ -3,12 +3,15 @@ package com.brew.oauth20.server.service;
 import com.brew.oauth20.server.fixture.ClientModelFixture;
 import com.brew.oauth20.server.model.ClientModel;
 import com.brew.oauth20.server.model.SignTokenOptions;
+import com.brew.oauth20.server.model.SigningKeyModel;
+import com.brew.oauth20.server.model.enums.SigningAlgorithm;
 import com.brew.oauth20.server.service.impl.TokenServiceImpl;
 import com.github.javafaker.Faker;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayNameGeneration;
 import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
@@ -18,8 +21,11 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.security.KeyPairGenerator;
+import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -37,6 +43,8 @@ class TokenServiceTest {
     private JwtService jwtService;
     @Mock
     private RefreshTokenService refreshTokenService;
+    @Mock
+    private KeyRingService keyRingService;
     @InjectMocks
     private TokenServiceImpl tokenService;
 
@@ -74,6 +82,7 @@ class TokenServiceTest {
     public void setUp() {
         Mockito.reset(jwtService);
         Mockito.reset(refreshTokenService);
+        Mockito.reset(keyRingService);
     }
 
     @ParameterizedTest
@@ -134,5 +143,28 @@ class TokenServiceTest {
 
     }
 
+    @Test
+    void should_sign_token_with_active_key_ring_key() throws Exception {
+        // Arrange
+        var client = clientModelFixture.createRandomOne(false);
+        var keyPair = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        var signingKey = new SigningKeyModel(faker.internet().uuid(), SigningAlgorithm.EdDSA, keyPair.getPrivate(), keyPair.getPublic(), Instant.now());
+        var signTokenOptions = new SignTokenOptions(null,
+                client.clientId(),
+                null,
+                client.audience(),
+                client.issuerUri(),
+                client.tokenExpiresInMinutes() * 60,
+                client.clientSecretDecoded(),
+                Map.of());
+        when(keyRingService.getActiveSigningKey()).thenReturn(Optional.of(signingKey));
+        when(jwtService.signToken(signTokenOptions, signingKey)).thenReturn(faker.regexify("[A-Za-z0-9]{150}"));
+
+        // Act
+        var result = tokenService.generateToken(client, Map.of());
 
-}
\ No newline at end of file
+        // Assert
+        verify(jwtService).signToken(signTokenOptions, signingKey);
+        assertThat(result).isNotBlank();
+    }
+}
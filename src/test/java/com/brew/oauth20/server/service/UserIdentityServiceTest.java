@@ -1,19 +1,21 @@
 package com.brew.oauth20.server.service;
 
+import com.brew.oauth20.server.config.ResilienceConfig;
 import com.brew.oauth20.server.exception.UserIdentityServiceException;
 import com.brew.oauth20.server.fixture.UserIdentityInfoFixture;
 import com.brew.oauth20.server.http.RestTemplateWrapper;
 import com.brew.oauth20.server.service.impl.UserIdentityServiceImpl;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.github.javafaker.Faker;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import org.junit.jupiter.api.DisplayNameGeneration;
 import org.junit.jupiter.api.DisplayNameGenerator;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
@@ -21,10 +23,12 @@ import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.client.HttpServerErrorException;
 
+import java.util.HashMap;
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,6 +39,10 @@ class UserIdentityServiceTest {
     String userIdentityServiceUrl;
     @Mock
     private RestTemplateWrapper restTemplate;
+    @Spy
+    private CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+    @Spy
+    private BulkheadRegistry bulkheadRegistry = BulkheadRegistry.ofDefaults();
     @InjectMocks
     private UserIdentityServiceImpl userIdentityService;
 
@@ -52,10 +60,8 @@ class UserIdentityServiceTest {
         MultiValueMap<String, Object> requestBody = new LinkedMultiValueMap<>();
         HttpEntity<MultiValueMap<String, Object>> requestEntity = new HttpEntity<>(requestBody, httpHeaders);
         Map<String, Object> expectedModel = new UserIdentityInfoFixture().createRandomOne();
-        ObjectMapper objectMapper = new ObjectMapper();
-        ObjectNode jNode = objectMapper.valueToTree(expectedModel);
-        ResponseEntity<JsonNode> responseEntity = new ResponseEntity<>(jNode, HttpStatus.OK);
-        when(restTemplate.exchange(userIdentityServiceUrl, HttpMethod.GET, requestEntity, JsonNode.class))
+        ResponseEntity<Map> responseEntity = new ResponseEntity<>(new HashMap<>(expectedModel), HttpStatus.OK);
+        when(restTemplate.exchange(userIdentityServiceUrl, HttpMethod.GET, requestEntity, Map.class))
                 .thenReturn(responseEntity);
         // Act
         Map<String, Object> result = userIdentityService.getUserIdentityInfo(accessToken);
@@ -73,11 +79,24 @@ class UserIdentityServiceTest {
         httpHeaders.add("Authorization", accessToken);
         MultiValueMap<String, Object> requestBody = new LinkedMultiValueMap<>();
         HttpEntity<MultiValueMap<String, Object>> requestEntity = new HttpEntity<>(requestBody, httpHeaders);
-        when(restTemplate.exchange(userIdentityServiceUrl, HttpMethod.GET, requestEntity, JsonNode.class))
+        when(restTemplate.exchange(userIdentityServiceUrl, HttpMethod.GET, requestEntity, Map.class))
                 .thenThrow(new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR, "Internal Server Error"));
 
         // Act & Assert
         assertThatThrownBy(() -> userIdentityService.getUserIdentityInfo(accessToken))
                 .isInstanceOf(UserIdentityServiceException.class);
     }
+
+    @Test
+    void should_fail_fast_when_circuit_is_open() {
+        // Arrange
+        String accessToken = faker.letterify("?".repeat(64));
+        circuitBreakerRegistry.circuitBreaker(ResilienceConfig.USER_IDENTITY_SERVICE).transitionToOpenState();
+
+        // Act & Assert
+        assertThatThrownBy(() -> userIdentityService.getUserIdentityInfo(accessToken))
+                .isInstanceOf(UserIdentityServiceException.class)
+                .hasCauseInstanceOf(CallNotPermittedException.class);
+        verifyNoInteractions(restTemplate);
+    }
 }
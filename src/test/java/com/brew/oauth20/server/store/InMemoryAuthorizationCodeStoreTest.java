@@ -0,0 +1,119 @@
+package com.brew.oauth20.server.store;
+
+import com.brew.oauth20.server.data.AuthorizationCode;
+import com.brew.oauth20.server.fixture.AuthorizationCodeFixture;
+import com.brew.oauth20.server.store.impl.InMemoryAuthorizationCodeStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class InMemoryAuthorizationCodeStoreTest {
+    private static final int THREAD_COUNT = 16;
+
+    @Mock
+    private AuthorizationCodeAuditTrail auditTrail;
+
+    private AuthorizationCode authorizationCode;
+
+    @BeforeEach
+    void setUp() {
+        authorizationCode = new AuthorizationCodeFixture().createRandomOne();
+        authorizationCode.setExpiresAt(OffsetDateTime.now().plusMinutes(5));
+        authorizationCode.setUsedAt(null);
+    }
+
+    @Test
+    void should_redeem_code_only_once() {
+        var store = createStore(false);
+        store.save(authorizationCode);
+
+        var found = store.find(authorizationCode.getCode(), authorizationCode.getRedirectUri());
+        var first = store.redeem(authorizationCode.getCode(), authorizationCode.getRedirectUri());
+        var second = store.redeem(authorizationCode.getCode(), authorizationCode.getRedirectUri());
+
+        assertThat(found).isPresent();
+        assertThat(first).isPresent();
+        assertThat(first.get().getClientUser()).isSameAs(authorizationCode.getClientUser());
+        assertThat(first.get().getScope()).isEqualTo(authorizationCode.getScope());
+        assertThat(second).isEmpty();
+        verifyNoInteractions(auditTrail);
+    }
+
+    @Test
+    void should_keep_code_when_redirect_uri_does_not_match() {
+        var store = createStore(false);
+        store.save(authorizationCode);
+
+        var wrongRedirectUri = store.redeem(authorizationCode.getCode(), authorizationCode.getRedirectUri() + "/other");
+        var redeemed = store.redeem(authorizationCode.getCode(), authorizationCode.getRedirectUri());
+
+        assertThat(wrongRedirectUri).isEmpty();
+        assertThat(redeemed).isPresent();
+    }
+
+    @Test
+    void should_not_return_expired_code() {
+        var store = createStore(false);
+        authorizationCode.setExpiresAt(OffsetDateTime.now().minusSeconds(1));
+        store.save(authorizationCode);
+
+        assertThat(store.redeem(authorizationCode.getCode(), authorizationCode.getRedirectUri())).isEmpty();
+    }
+
+    @Test
+    void should_record_audit_trail_when_enabled() {
+        var store = createStore(true);
+
+        store.save(authorizationCode);
+        store.redeem(authorizationCode.getCode(), authorizationCode.getRedirectUri());
+
+        verify(auditTrail).recordIssued(authorizationCode);
+        verify(auditTrail).recordRedeemed(eq(authorizationCode.getCode()), eq(authorizationCode.getRedirectUri()), any());
+    }
+
+    @Test
+    void should_redeem_code_exactly_once_under_concurrent_requests() throws Exception {
+        var store = createStore(false);
+        store.save(authorizationCode);
+        var startGate = new CountDownLatch(1);
+        var executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        try {
+            var redemptions = new ArrayList<Future<Boolean>>();
+            for (var i = 0; i < THREAD_COUNT; i++) {
+                redemptions.add(executor.submit(() -> {
+                    startGate.await();
+                    return store.redeem(authorizationCode.getCode(), authorizationCode.getRedirectUri()).isPresent();
+                }));
+            }
+            startGate.countDown();
+            var winners = 0;
+            for (var redemption : redemptions)
+                if (Boolean.TRUE.equals(redemption.get(30, TimeUnit.SECONDS)))
+                    winners++;
+
+            assertThat(winners).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private InMemoryAuthorizationCodeStore createStore(boolean auditEnabled) {
+        return new InMemoryAuthorizationCodeStore(auditEnabled ? Optional.of(auditTrail) : Optional.empty(), 1000);
+    }
+}
@@ -0,0 +1,171 @@
+package com.brew.oauth20.server.store;
+
+import com.brew.oauth20.server.data.AuthorizationCode;
+import com.brew.oauth20.server.fixture.AuthorizationCodeFixture;
+import com.brew.oauth20.server.repository.AuthorizationCodeRepository;
+import com.brew.oauth20.server.store.impl.WriteBehindAuthorizationCodeAuditTrail;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class WriteBehindAuthorizationCodeAuditTrailTest {
+    private static final long TIMEOUT_MS = 5000;
+
+    @Mock
+    private AuthorizationCodeRepository authorizationCodeRepository;
+
+    private WriteBehindAuthorizationCodeAuditTrail auditTrail;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        auditTrail.stop();
+    }
+
+    @Test
+    void should_write_full_batch_in_one_call() {
+        auditTrail = createAuditTrail(100, 10, 60_000);
+        auditTrail.start();
+        var authorizationCodes = createAuthorizationCodes(10);
+
+        authorizationCodes.forEach(auditTrail::recordIssued);
+
+        verify(authorizationCodeRepository, timeout(TIMEOUT_MS)).saveAll(savedBatch(authorizationCodes));
+    }
+
+    @Test
+    void should_write_partial_batch_after_flush_interval() {
+        auditTrail = createAuditTrail(100, 100, 50);
+        auditTrail.start();
+        var authorizationCodes = createAuthorizationCodes(3);
+
+        authorizationCodes.forEach(auditTrail::recordIssued);
+
+        verify(authorizationCodeRepository, timeout(TIMEOUT_MS)).saveAll(savedBatch(authorizationCodes));
+    }
+
+    @Test
+    void should_insert_code_redeemed_before_it_was_written_as_used() {
+        auditTrail = createAuditTrail(100, 2, 60_000);
+        auditTrail.start();
+        var authorizationCode = createAuthorizationCodes(1).get(0);
+        var usedAt = OffsetDateTime.now();
+
+        auditTrail.recordIssued(authorizationCode);
+        auditTrail.recordRedeemed(authorizationCode.getCode(), authorizationCode.getRedirectUri(), usedAt);
+
+        verify(authorizationCodeRepository, timeout(TIMEOUT_MS)).saveAll(savedBatch(List.of(authorizationCode)));
+        assertThat(authorizationCode.getUsedAt()).isEqualTo(usedAt);
+        verify(authorizationCodeRepository, never()).markAsUsed(anyString(), anyString(), any());
+    }
+
+    @Test
+    void should_update_code_written_in_an_earlier_batch() {
+        auditTrail = createAuditTrail(100, 100, 50);
+        auditTrail.start();
+        var usedAt = OffsetDateTime.now();
+
+        auditTrail.recordRedeemed("code", "https://example.com/callback", usedAt);
+
+        verify(authorizationCodeRepository, timeout(TIMEOUT_MS)).markAsUsed("code", "https://example.com/callback", usedAt);
+    }
+
+    @Test
+    void should_write_on_caller_thread_when_queue_is_full() {
+        // the writer thread is not started, so the queue is never drained
+        auditTrail = createAuditTrail(1, 100, 60_000);
+        var authorizationCodes = createAuthorizationCodes(2);
+
+        authorizationCodes.forEach(auditTrail::recordIssued);
+
+        verify(authorizationCodeRepository).saveAll(savedBatch(List.of(authorizationCodes.get(1))));
+    }
+
+    @Test
+    void should_write_rows_one_at_a_time_when_batch_fails() {
+        auditTrail = createAuditTrail(100, 3, 60_000);
+        var authorizationCodes = createAuthorizationCodes(3);
+        var badAuthorizationCode = authorizationCodes.get(1);
+        when(authorizationCodeRepository.saveAll(any())).thenThrow(new IllegalStateException("batch failed"));
+        when(authorizationCodeRepository.save(badAuthorizationCode)).thenThrow(new IllegalStateException("row failed"));
+        authorizationCodes.forEach(auditTrail::recordIssued);
+
+        auditTrail.start();
+
+        verify(authorizationCodeRepository, timeout(TIMEOUT_MS)).save(authorizationCodes.get(0));
+        verify(authorizationCodeRepository, timeout(TIMEOUT_MS)).save(authorizationCodes.get(2));
+    }
+
+    @Test
+    void should_apply_redemption_that_overtook_its_queued_insert() {
+        // the writer thread is started late, so the redemption is written on the caller thread before the insert
+        auditTrail = createAuditTrail(1, 100, 50);
+        var authorizationCode = createAuthorizationCodes(1).get(0);
+        var usedAt = OffsetDateTime.now();
+        auditTrail.recordIssued(authorizationCode);
+        auditTrail.recordRedeemed(authorizationCode.getCode(), authorizationCode.getRedirectUri(), usedAt);
+        verify(authorizationCodeRepository).markAsUsed(authorizationCode.getCode(), authorizationCode.getRedirectUri(), usedAt);
+
+        auditTrail.start();
+
+        verify(authorizationCodeRepository, timeout(TIMEOUT_MS)).saveAll(savedBatch(List.of(authorizationCode)));
+        verify(authorizationCodeRepository, timeout(TIMEOUT_MS).times(2))
+                .markAsUsed(authorizationCode.getCode(), authorizationCode.getRedirectUri(), usedAt);
+    }
+
+    @Test
+    void should_write_queued_rows_on_stop() throws InterruptedException {
+        auditTrail = createAuditTrail(100, 100, 60_000);
+        auditTrail.start();
+        var authorizationCodes = createAuthorizationCodes(3);
+        authorizationCodes.forEach(auditTrail::recordIssued);
+
+        auditTrail.stop();
+
+        var captor = ArgumentCaptor.<Iterable<AuthorizationCode>>captor();
+        verify(authorizationCodeRepository, atLeastOnce()).saveAll(captor.capture());
+        var saved = new ArrayList<AuthorizationCode>();
+        captor.getAllValues().forEach(batch -> batch.forEach(saved::add));
+        assertThat(saved).containsExactlyElementsOf(authorizationCodes);
+    }
+
+    private WriteBehindAuthorizationCodeAuditTrail createAuditTrail(int queueCapacity, int batchSize, long flushIntervalMs) {
+        return new WriteBehindAuthorizationCodeAuditTrail(authorizationCodeRepository, TransactionOperations.withoutTransaction(),
+                queueCapacity, batchSize, flushIntervalMs, 10);
+    }
+
+    private List<AuthorizationCode> createAuthorizationCodes(int count) {
+        var authorizationCodeFixture = new AuthorizationCodeFixture();
+        var authorizationCodes = new ArrayList<AuthorizationCode>();
+        for (var i = 0; i < count; i++) {
+            var authorizationCode = authorizationCodeFixture.createRandomOne();
+            authorizationCode.setUsedAt(null);
+            authorizationCodes.add(authorizationCode);
+        }
+        return authorizationCodes;
+    }
+
+    private static Iterable<AuthorizationCode> savedBatch(List<AuthorizationCode> expected) {
+        return argThat(batch -> {
+            var saved = new ArrayList<AuthorizationCode>();
+            batch.forEach(saved::add);
+            return saved.equals(expected);
+        });
+    }
+}
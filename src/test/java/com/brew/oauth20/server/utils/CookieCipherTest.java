@@ -0,0 +1,80 @@
+package com.brew.oauth20.server.utils;
+
+import com.github.javafaker.Faker;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.*;
+
+import java.security.GeneralSecurityException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CookieCipherTest {
+    private Faker faker;
+
+    @BeforeAll
+    void Setup() {
+        this.faker = new Faker();
+    }
+
+    @SneakyThrows
+    @Test
+    void should_decrypt_data_encrypted_by_encryption_utils() {
+        // Arrange
+        var secret = faker.regexify("[A-Za-z0-9]{16}");
+        var cookieCipher = new CookieCipher(secret, Map.of());
+        var testData = faker.lordOfTheRings().location();
+
+        // Act
+        var decryptedData = cookieCipher.decrypt(EncryptionUtils.encrypt(testData, secret));
+
+        // Assert
+        Assertions.assertEquals(testData, decryptedData);
+        Assertions.assertEquals(testData, EncryptionUtils.decrypt(cookieCipher.encrypt(testData), secret));
+    }
+
+    @SneakyThrows
+    @Test
+    void should_decrypt_data_with_the_key_named_by_its_prefix() {
+        // Arrange
+        var cookieCipher = new CookieCipher(faker.regexify("[A-Za-z0-9]{16}"),
+                CookieCipher.parseSecrets("2024:" + faker.regexify("[A-Za-z0-9]{16}") + ", 2025:" + faker.regexify("[A-Za-z0-9]{32}")));
+        var testData = faker.lordOfTheRings().character();
+
+        // Act
+        var encryptedData = cookieCipher.encrypt(testData, "2025");
+
+        // Assert
+        Assertions.assertTrue(encryptedData.startsWith("2025."));
+        Assertions.assertEquals(testData, cookieCipher.decrypt(encryptedData));
+        Assertions.assertEquals(testData, cookieCipher.decrypt(cookieCipher.encrypt(testData, "2024")));
+        Assertions.assertEquals(testData, cookieCipher.decrypt(cookieCipher.encrypt(testData)));
+    }
+
+    @SneakyThrows
+    @Test
+    void should_not_decrypt_data_with_another_key_or_an_unknown_key_id() {
+        // Arrange
+        var secret = faker.regexify("[A-Za-z0-9]{16}");
+        var cookieCipher = new CookieCipher(secret, Map.of("old", secret));
+        var otherCookieCipher = new CookieCipher(faker.regexify("[A-Za-z0-9]{16}"), Map.of());
+        var encryptedData = cookieCipher.encrypt(faker.lordOfTheRings().location());
+
+        // Assert
+        assertThrows(GeneralSecurityException.class, () -> otherCookieCipher.decrypt(encryptedData));
+        assertThrows(GeneralSecurityException.class, () -> cookieCipher.decrypt("new." + encryptedData));
+        assertThrows(GeneralSecurityException.class, () -> cookieCipher.decrypt("AAAA"));
+    }
+
+    @Test
+    void should_not_accept_key_id_containing_the_separator() {
+        // Arrange
+        var secrets = Map.of("v1.0", faker.regexify("[A-Za-z0-9]{16}"));
+
+        // Assert
+        assertThrows(IllegalArgumentException.class, () -> new CookieCipher(null, secrets));
+        assertThrows(IllegalArgumentException.class, () -> CookieCipher.parseSecrets("no-secret"));
+    }
+}
@@ -49,4 +49,53 @@ class EncryptionUtilsTest {
         // Assert
         assertThrows(Exception.class, () -> EncryptionUtils.decrypt("invalid-encrypted-data", secret));
     }
+
+    @Test
+    void should_verify_matching_secret() {
+        // Arrange
+        var secret = faker.regexify("[A-Za-z0-9]{40}");
+
+        // Assert
+        Assertions.assertTrue(EncryptionUtils.verifySecret(new String(secret.toCharArray()), secret));
+    }
+
+    @Test
+    void should_not_verify_different_secret() {
+        // Arrange
+        var secret = faker.regexify("[A-Za-z0-9]{40}");
+
+        // Assert
+        Assertions.assertFalse(EncryptionUtils.verifySecret(secret + "x", secret));
+        Assertions.assertFalse(EncryptionUtils.verifySecret(null, secret));
+    }
+
+    @Test
+    void should_hash_secret_to_fixed_width_hex_digest() {
+        // Arrange
+        var secret = faker.regexify("[A-Za-z0-9]{64}");
+
+        // Act
+        var hash = EncryptionUtils.hashSecret(secret);
+
+        // Assert
+        Assertions.assertEquals(64, hash.length());
+        Assertions.assertEquals(hash, EncryptionUtils.hashSecret(new String(secret.toCharArray())));
+        Assertions.assertNotEquals(hash, EncryptionUtils.hashSecret(secret + "x"));
+        Assertions.assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", EncryptionUtils.hashSecret("abc"));
+    }
+
+    @Test
+    void should_digest_value_with_reused_message_digest() {
+        // Arrange
+        var value = faker.regexify("[A-Za-z0-9]{64}");
+
+        // Act
+        var first = EncryptionUtils.digestHex(value);
+        var second = EncryptionUtils.digestHex(value);
+
+        // Assert
+        Assertions.assertEquals(first, second);
+        Assertions.assertEquals(EncryptionUtils.hashSecret(value), first);
+        Assertions.assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", EncryptionUtils.digestHex("abc"));
+    }
 }
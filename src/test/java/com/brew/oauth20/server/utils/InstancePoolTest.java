@@ -0,0 +1,50 @@
+package com.brew.oauth20.server.utils;
+
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.DisplayNameGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayNameGeneration(DisplayNameGenerator.ReplaceUnderscores.class)
+class InstancePoolTest {
+
+    @Test
+    void should_reuse_released_instance() {
+        // Arrange
+        var created = new AtomicInteger();
+        var pool = new InstancePool<>(() -> new Object[]{created.incrementAndGet()}, 2);
+
+        // Act
+        var first = pool.borrow();
+        pool.release(first);
+        var second = pool.borrow();
+
+        // Assert
+        assertThat(second).isSameAs(first);
+        assertThat(created).hasValue(1);
+    }
+
+    @Test
+    void should_create_instances_while_all_are_borrowed_and_keep_at_most_capacity() {
+        // Arrange
+        var created = new AtomicInteger();
+        var pool = new InstancePool<>(() -> new Object[]{created.incrementAndGet()}, 2);
+
+        // Act
+        var first = pool.borrow();
+        var second = pool.borrow();
+        var third = pool.borrow();
+        pool.release(first);
+        pool.release(second);
+        pool.release(third);
+        pool.borrow();
+        pool.borrow();
+        pool.borrow();
+
+        // Assert
+        assertThat(created).hasValue(4);
+    }
+}